@@ -0,0 +1,48 @@
+package com.example.String_Analysis.benchmark;
+
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.analysis.StringAnalyzer;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.service.StringService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Analysis of one value, with and without hashing (StringService.analyze does both)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyzeBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"ascii", "latin1", "cjk", "emoji"})
+    public String alphabet;
+
+    private static final StringId SHA = new StringId(0, 0, 0, 0);
+
+    private final StringAnalyzer analyzer = new SinglePassStringAnalyzer();
+    private final StringService service = StringService.builder().build();
+    private String value;
+
+    @Setup
+    public void setup() {
+        value = BenchmarkData.text(new Random(1), alphabet, size);
+    }
+
+    @Benchmark
+    public AnalyzedString.Properties analyze() {
+        return analyzer.analyze(value, SHA);
+    }
+
+    @Benchmark
+    public AnalyzedString.Properties hashAndAnalyze() {
+        return service.analyze(value);
+    }
+}
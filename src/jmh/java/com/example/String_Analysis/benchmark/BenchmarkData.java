@@ -0,0 +1,37 @@
+package com.example.String_Analysis.benchmark;
+
+import java.util.Random;
+
+// Deterministic inputs shared by the benchmarks
+public final class BenchmarkData {
+
+    private BenchmarkData() {}
+
+    // Word-like text over the given alphabet: "ascii", "latin1", "cjk" or "emoji"
+    public static String text(Random random, String alphabet, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) {
+            if (sb.length() > 0 && random.nextInt(6) == 0) {
+                sb.append(' ');
+                continue;
+            }
+            switch (alphabet) {
+                case "ascii" -> sb.append((char) ('a' + random.nextInt(26)));
+                case "latin1" -> sb.append((char) (random.nextBoolean() ? 'A' + random.nextInt(26) : 0xC0 + random.nextInt(64)));
+                case "cjk" -> sb.append((char) (0x4E00 + random.nextInt(2000)));
+                case "emoji" -> sb.appendCodePoint(0x1F600 + random.nextInt(80));
+                default -> throw new IllegalArgumentException("unknown alphabet " + alphabet);
+            }
+        }
+        return sb.substring(0, length);
+    }
+
+    // Short ASCII values with a realistic share of palindromes and multi-word strings
+    public static String storedValue(Random random, int i) {
+        String word = text(random, "ascii", 3 + random.nextInt(12)).trim();
+        if (i % 10 == 0) {
+            return word + new StringBuilder(word).reverse();
+        }
+        return word + " " + i;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.String_Analysis.benchmark;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.service.FilterResultCache;
+import com.example.String_Analysis.service.StringService;
+import com.example.String_Analysis.store.ColumnarStringStore;
+import com.example.String_Analysis.store.ObjectStringStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// StringService.filter over a pre-populated store. 10M entries need a large heap:
+// -Djmh.args="FilterBenchmark -p storeSize=10000000 -jvmArgsAppend -Xmx24g"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FilterBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int storeSize;
+
+    @Param({"objects", "columnar"})
+    public String storage;
+
+    @Param({"palindrome", "length_range", "word_count", "contains_character", "contains_substring", "combined"})
+    public String predicates;
+
+    // "off" measures the store itself, "on" a hot filter served from FilterResultCache
+    @Param({"off", "on"})
+    public String cache;
+
+    private StringService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = StringService.builder()
+                .store(storage.equals("columnar") ? new ColumnarStringStore() : new ObjectStringStore())
+                .filterCache(new FilterResultCache(cache.equals("on") ? 256 : 0, 60, 1024))
+                .build();
+        Random random = new Random(7);
+        for (int i = 0; i < storeSize; i++) {
+            service.create(BenchmarkData.storedValue(random, i));
+        }
+    }
+
+    @Benchmark
+    public List<AnalyzedString> filter() {
+        return switch (predicates) {
+            case "palindrome" -> service.filter(true, null, null, null, null);
+            case "length_range" -> service.filter(null, 10, 12, null, null);
+            case "word_count" -> service.filter(null, null, null, 1, null);
+            case "contains_character" -> service.filter(null, null, null, null, "q");
+            case "contains_substring" -> service.filter(null, null, null, null, null, "abc");
+            case "combined" -> service.filter(true, 8, 20, 1, "z");
+            default -> throw new IllegalArgumentException(predicates);
+        };
+    }
+
+    // Top 50 newest matches: walks the newest-first order and stops, whatever the store size
+    @Benchmark
+    public List<AnalyzedString> latest50() {
+        return switch (predicates) {
+            case "palindrome" -> service.filterPage(true, null, null, null, null, null, null, null, 50);
+            case "length_range" -> service.filterPage(null, 10, 12, null, null, null, null, null, 50);
+            case "word_count" -> service.filterPage(null, null, null, 1, null, null, null, null, 50);
+            case "contains_character" -> service.filterPage(null, null, null, null, "q", null, null, null, 50);
+            case "contains_substring" -> service.filterPage(null, null, null, null, null, "abc", null, null, 50);
+            case "combined" -> service.filterPage(true, 8, 20, 1, "z", null, null, null, 50);
+            default -> throw new IllegalArgumentException(predicates);
+        };
+    }
+}
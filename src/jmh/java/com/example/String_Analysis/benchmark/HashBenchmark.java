@@ -0,0 +1,42 @@
+package com.example.String_Analysis.benchmark;
+
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+
+    @Param({"16", "1024", "65536"})
+    public int size;
+
+    @Param({"ascii", "cjk"})
+    public String alphabet;
+
+    private String value;
+
+    @Setup
+    public void setup() {
+        value = BenchmarkData.text(new Random(1), alphabet, size);
+    }
+
+    // Binary id, as used for store keys
+    @Benchmark
+    public StringId sha256() {
+        return HashUtils.sha256(value);
+    }
+
+    // Hex form, as returned by the API
+    @Benchmark
+    public String sha256Hex() {
+        return HashUtils.sha256Hex(value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.String_Analysis.benchmark;
+
+import com.example.String_Analysis.service.QueryPlanCache;
+import com.example.String_Analysis.util.NaturalLanguageParser;
+import com.example.String_Analysis.util.QueryPlan;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NaturalLanguageParseBenchmark {
+
+    @Param({
+            "all single word palindromic strings",
+            "strings longer than 10 characters",
+            "palindromic strings that contain the first vowel",
+            "two word strings containing the letter z shorter than 20"
+    })
+    public String query;
+
+    private final QueryPlanCache cache = new QueryPlanCache(1024);
+
+    @Benchmark
+    public QueryPlan parse() {
+        return NaturalLanguageParser.parse(query);
+    }
+
+    // Repeated query served from the plan cache
+    @Benchmark
+    public QueryPlan cached() {
+        return cache.get(query);
+    }
+}
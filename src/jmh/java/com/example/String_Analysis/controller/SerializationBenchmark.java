@@ -0,0 +1,130 @@
+package com.example.String_Analysis.controller;
+
+import com.example.String_Analysis.benchmark.BenchmarkData;
+import com.example.String_Analysis.dto.StringPage;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.service.StringService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Response encoding: a single entry via toResponse + Jackson (as POST/GET one string used to)
+// and via EntryMessageConverter, and a list page via the streaming StringPageMessageConverter,
+// each also from the EntryJsonCache (string-analyzer.response-cache.enabled=true) and as CBOR/Smile
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"16", "1024"})
+    public int valueSize;
+
+    @Param({"100"})
+    public int pageSize;
+
+    // Same setting as application.properties
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final StringPageMessageConverter converter =
+            new StringPageMessageConverter(objectMapper, new EntryJsonCache(false, 0, objectMapper));
+    private final EntryMessageConverter entryConverter =
+            new EntryMessageConverter(objectMapper, new EntryJsonCache(false, 0, objectMapper));
+    private final EntryJsonCache entryCache = new EntryJsonCache(true, 64 << 20, objectMapper);
+    private final StringPageMessageConverter cachedConverter = new StringPageMessageConverter(objectMapper, entryCache);
+    private AnalyzedString entry;
+    private StringPage page;
+
+    @Setup
+    public void setup() {
+        StringService service = StringService.builder().build();
+        Random random = new Random(3);
+        List<AnalyzedString> entries = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            entries.add(service.create(BenchmarkData.text(random, "ascii", valueSize) + i));
+        }
+        entry = entries.get(0);
+        page = new StringPage(entries, "filters_applied", Map.of("is_palindrome", false), null);
+        entries.forEach(entryCache::get);
+    }
+
+    @Benchmark
+    public byte[] toResponseAndJackson() throws IOException {
+        return objectMapper.writeValueAsBytes(StringController.toResponse(entry));
+    }
+
+    @Benchmark
+    public byte[] entryStreamed() throws IOException {
+        return write(entryConverter, entry, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public byte[] entryCbor() throws IOException {
+        return write(entryConverter, entry, MediaType.APPLICATION_CBOR);
+    }
+
+    @Benchmark
+    public byte[] entryCached() {
+        return entryCache.get(entry);
+    }
+
+    @Benchmark
+    public byte[] pageWithMapsAndJackson() throws IOException {
+        return objectMapper.writeValueAsBytes(Map.of(
+                "data", page.getData().stream().map(StringController::toResponse).toList(),
+                "count", page.getData().size(),
+                "filters_applied", page.getQuery()));
+    }
+
+    @Benchmark
+    public byte[] pageStreamed() throws IOException {
+        return write(converter, page, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public byte[] pageStreamedCached() throws IOException {
+        return write(cachedConverter, page, MediaType.APPLICATION_JSON);
+    }
+
+    @Benchmark
+    public byte[] pageCbor() throws IOException {
+        return write(converter, page, MediaType.APPLICATION_CBOR);
+    }
+
+    @Benchmark
+    public byte[] pageSmile() throws IOException {
+        return write(converter, page, WireFormats.SMILE);
+    }
+
+    private static <T> byte[] write(AbstractHttpMessageConverter<T> converter, T body, MediaType type)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpHeaders headers = new HttpHeaders();
+        converter.write(body, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        });
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.String_Analysis.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histograms (microseconds, 3 significant digits) and error counts per route for one
+// measured interval, plus the JSON form stored as results and baselines
+final class LoadReport {
+
+    // Fraction of failed requests that fails the run on its own
+    private static final double MAX_ERROR_RATE = 0.01;
+    // Latency changes below this are jitter on sub-millisecond routes, whatever the percentage
+    private static final double LATENCY_SLACK_MS = 0.5;
+
+    private final LoadTestOptions options;
+    private final Map<String, Route> routes = new LinkedHashMap<>();
+    private long elapsedNanos;
+
+    LoadReport(LoadTestOptions options) {
+        this.options = options;
+        for (String route : options.mix().keySet()) routes.put(route, new Route());
+    }
+
+    void record(String route, long nanos, boolean ok) {
+        Route r = routes.get(route);
+        r.latency.recordValue(Math.max(1, nanos / 1000));
+        if (!ok) r.errors.increment();
+    }
+
+    void finish(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    void print(PrintStream out) {
+        out.printf("%-8s %9s %8s %10s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        summary().forEach((route, s) -> out.printf("%-8s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n", route,
+                s.get("requests").longValue(), s.get("errors").longValue(), s.get("throughput"),
+                s.get("p50_ms"), s.get("p99_ms"), s.get("p999_ms"), s.get("max_ms")));
+    }
+
+    // route -> requests, errors, throughput (req/s), p50_ms, p99_ms, p999_ms, max_ms
+    Map<String, Map<String, Double>> summary() {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Map<String, Double>> summary = new LinkedHashMap<>();
+        routes.forEach((route, r) -> {
+            Histogram h = r.latency;
+            Map<String, Double> s = new LinkedHashMap<>();
+            s.put("requests", (double) h.getTotalCount());
+            s.put("errors", (double) r.errors.sum());
+            s.put("throughput", h.getTotalCount() / seconds);
+            s.put("p50_ms", h.getValueAtPercentile(50) / 1000.0);
+            s.put("p99_ms", h.getValueAtPercentile(99) / 1000.0);
+            s.put("p999_ms", h.getValueAtPercentile(99.9) / 1000.0);
+            s.put("max_ms", h.getMaxValue() / 1000.0);
+            summary.put(route, s);
+        });
+        return summary;
+    }
+
+    void write(Path file, ObjectMapper json) throws IOException {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", options.mode());
+        settings.put("clients", options.clients());
+        if (options.open()) settings.put("rate", options.rate());
+        settings.put("duration_seconds", options.duration().toSeconds());
+        settings.put("mix", options.mix());
+        settings.put("preload", options.preload());
+        settings.put("app_args", options.appArgs());
+        doc.put("settings", settings);
+        doc.put("routes", summary());
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        json.writer(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), doc);
+    }
+
+    static JsonNode read(Path file, ObjectMapper json) throws IOException {
+        return json.readTree(file.toFile());
+    }
+
+    // Routes whose p50/p99 rose, or whose throughput fell, by more than tolerance; p999 and max
+    // are reported but too noisy over a short run to gate on. Closed-loop throughput follows
+    // latency; open-loop throughput is the configured rate unless the server falls behind.
+    List<String> compare(JsonNode baseline, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        JsonNode settings = baseline.path("settings");
+        if (!settings.path("mode").asText().equals(options.mode())
+                || settings.path("clients").asInt() != options.clients()
+                || !settings.path("mix").equals(new ObjectMapper().valueToTree(options.mix()))) {
+            regressions.add("baseline was recorded with different settings " + settings
+                    + "; record a new one with --write-baseline");
+            return regressions;
+        }
+        summary().forEach((route, s) -> {
+            if (s.get("errors") > MAX_ERROR_RATE * s.get("requests")) {
+                regressions.add(String.format("%s: %.0f of %.0f requests failed", route, s.get("errors"), s.get("requests")));
+            }
+            JsonNode base = baseline.path("routes").path(route);
+            if (base.isMissingNode()) return;
+            for (String metric : List.of("p50_ms", "p99_ms")) {
+                double was = base.path(metric).asDouble();
+                if (s.get(metric) > was * (1 + tolerance) && s.get(metric) > was + LATENCY_SLACK_MS) {
+                    regressions.add(String.format("%s %s: %.2f, baseline %.2f", route, metric, s.get(metric), was));
+                }
+            }
+            double was = base.path("throughput").asDouble();
+            if (s.get("throughput") < was * (1 - tolerance)) {
+                regressions.add(String.format("%s throughput: %.1f req/s, baseline %.1f", route, s.get("throughput"), was));
+            }
+        });
+        return regressions;
+    }
+
+    private static final class Route {
+        final Histogram latency = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+    }
+}
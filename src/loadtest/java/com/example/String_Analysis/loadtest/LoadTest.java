@@ -0,0 +1,246 @@
+package com.example.String_Analysis.loadtest;
+
+import com.example.String_Analysis.StringAnalysisApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// End-to-end load test: starts the application on a random local port, preloads it, then drives
+// a weighted mix of routes from concurrent clients and reports throughput and latency per route.
+//
+//   mvn -Ploadtest compile exec:exec -Dloadtest.args="--mode=open --rate=2000"
+//
+// closed: each of `clients` threads sends its next request when the previous one returns.
+// open: requests are started at a fixed `rate` regardless of how fast they complete; latency is
+// measured from the scheduled start, so queueing behind a slow server counts (no coordinated
+// omission). `clients` then bounds the requests in flight.
+//
+// Arguments the test doesn't know (e.g. --string-analyzer.storage.mode=columnar) are passed to
+// the application. With a baseline, the run fails (exit 1) when a route's p50/p99 latency or
+// throughput regresses by more than `tolerance`, or more than 1% of its requests fail.
+public final class LoadTest {
+
+    private static final List<String> NL_QUERIES = List.of(
+            "all single word palindromic strings",
+            "strings longer than 10 characters",
+            "strings containing the letter z",
+            "palindromic strings that contain the first vowel",
+            "strings containing 'lt-'");
+
+    private final LoadTestOptions options;
+    private final HttpClient http;
+    private final String baseUrl;
+    private final ObjectMapper json = new ObjectMapper();
+    private final List<String> stored = new ArrayList<>();
+    private final AtomicLong created = new AtomicLong();
+
+    private LoadTest(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(4))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<String> appArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.root=WARN"));
+        appArgs.addAll(options.appArgs());
+        int exitCode;
+        try (ConfigurableApplicationContext app = SpringApplication.run(StringAnalysisApplication.class,
+                appArgs.toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            exitCode = new LoadTest(options, "http://localhost:" + port).run();
+        }
+        System.exit(exitCode);
+    }
+
+    private int run() throws Exception {
+        System.out.printf("%s loop, %d clients%s, mix %s, %ds warmup + %ds%n", options.mode(), options.clients(),
+                options.open() ? ", " + options.rate() + " req/s" : "", options.mix(),
+                options.warmup().toSeconds(), options.duration().toSeconds());
+        preload();
+
+        drive(options.warmup(), new LoadReport(options));
+        LoadReport report = new LoadReport(options);
+        drive(options.duration(), report);
+        report.print(System.out);
+        report.write(options.out(), json);
+        System.out.println("Results written to " + options.out());
+
+        if (options.writeBaseline()) {
+            report.write(options.baseline(), json);
+            System.out.println("Baseline written to " + options.baseline());
+            return 0;
+        }
+        Path baseline = options.baseline();
+        if (baseline == null || !baseline.toFile().exists()) {
+            System.out.println("No baseline at " + baseline + "; nothing to compare");
+            return 0;
+        }
+        List<String> regressions = report.compare(LoadReport.read(baseline, json), options.tolerance());
+        if (regressions.isEmpty()) {
+            System.out.println("Within " + Math.round(options.tolerance() * 100) + "% of baseline " + baseline);
+            return 0;
+        }
+        System.out.println("Regressions against " + baseline + ":");
+        regressions.forEach(r -> System.out.println("  " + r));
+        return 1;
+    }
+
+    // Values GETs can hit, created in batches before the clock starts
+    private void preload() throws IOException, InterruptedException {
+        int batch = 1000;
+        for (int done = 0; done < options.preload(); done += batch) {
+            List<Map<String, String>> items = new ArrayList<>();
+            for (int i = done; i < Math.min(done + batch, options.preload()); i++) {
+                String value = value(i);
+                items.add(Map.of("value", value));
+                stored.add(value);
+            }
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/strings/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json.writeValueAsString(items)))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) throw new IllegalStateException("preload failed: HTTP " + response.statusCode());
+        }
+    }
+
+    private void drive(Duration duration, LoadReport report) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(options.clients());
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        if (options.open()) {
+            long interval = TimeUnit.SECONDS.toNanos(1) / options.rate();
+            for (long intended = start; intended < end; intended += interval) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) LockSupport.parkNanos(wait);
+                long scheduled = intended;
+                clients.execute(() -> request(pickRoute(), scheduled, report));
+            }
+        } else {
+            for (int c = 0; c < options.clients(); c++) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < end) request(pickRoute(), System.nanoTime(), report);
+                });
+            }
+        }
+        clients.shutdown();
+        // Open loop: requests still queued at the end are sent and counted too
+        clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        report.finish(System.nanoTime() - start);
+    }
+
+    private String pickRoute() {
+        int roll = ThreadLocalRandom.current().nextInt(options.totalWeight());
+        for (Map.Entry<String, Integer> route : options.mix().entrySet()) {
+            roll -= route.getValue();
+            if (roll < 0) return route.getKey();
+        }
+        throw new IllegalStateException("empty mix");
+    }
+
+    // Latency runs from `scheduled` (the intended start in open loop) to the full response
+    private void request(String route, long scheduled, LoadReport report) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder request;
+        int expected;
+        switch (route) {
+            case "create" -> {
+                String body = "{\"value\":\"" + value(options.preload() + (int) created.getAndIncrement())
+                        + "-" + random.nextInt(1 << 30) + "\"}";
+                request = HttpRequest.newBuilder(uri("/strings"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+                expected = 201;
+            }
+            case "get" -> {
+                // Nine in ten look up a stored value
+                boolean hit = random.nextInt(10) != 0 && !stored.isEmpty();
+                String value = hit ? stored.get(random.nextInt(stored.size())) : "missing " + random.nextInt(1 << 30);
+                request = HttpRequest.newBuilder(uri("/strings/" + UriUtils.encodePathSegment(value, StandardCharsets.UTF_8)));
+                expected = hit ? 200 : 404;
+            }
+            case "filter" -> {
+                int min = random.nextInt(20);
+                request = HttpRequest.newBuilder(uri("/strings?min_length=" + min + "&max_length=" + (min + 10)
+                        + "&limit=" + options.pageSize()));
+                expected = 200;
+            }
+            case "nl" -> {
+                String query = NL_QUERIES.get(random.nextInt(NL_QUERIES.size()));
+                request = HttpRequest.newBuilder(uri("/strings/filter-by-natural-language?query="
+                        + URLEncoder.encode(query, StandardCharsets.UTF_8) + "&limit=" + options.pageSize()));
+                expected = 200;
+            }
+            default -> throw new IllegalArgumentException("unknown route " + route);
+        }
+        boolean ok;
+        try {
+            HttpResponse<byte[]> response = http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            ok = response.statusCode() == expected;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        report.record(route, System.nanoTime() - scheduled, ok);
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create(baseUrl + pathAndQuery);
+    }
+
+    // Word-like values of 5-30 chars, some of them palindromes, unique per index
+    private static String value(int i) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StringBuilder sb = new StringBuilder("lt-");
+        for (int j = 0, n = 2 + random.nextInt(20); j < n; j++) {
+            sb.append(j > 0 && random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(26)));
+        }
+        String word = sb.append(' ').append(i).toString();
+        return i % 10 == 0 ? word + new StringBuilder(word).reverse() : word;
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            if (kv.length != 2) throw new IllegalArgumentException("mix must look like create:10,get:60, not " + mix);
+            if (!List.of("create", "get", "filter", "nl").contains(kv[0])) {
+                throw new IllegalArgumentException("unknown route in mix: " + kv[0] + " (create, get, filter, nl)");
+            }
+            int weight = Integer.parseInt(kv[1]);
+            if (weight < 0) throw new IllegalArgumentException("mix weights must be >= 0");
+            if (weight > 0) weights.put(kv[0], weight);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("mix has no routes");
+        return weights;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.String_Analysis.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// --name=value arguments of LoadTest; anything else is handed to the application
+record LoadTestOptions(String mode, int clients, int rate, Duration warmup, Duration duration,
+                       Map<String, Integer> mix, int preload, int pageSize, Path baseline, double tolerance,
+                       boolean writeBaseline, Path out, List<String> appArgs) {
+
+    static LoadTestOptions parse(String[] args) {
+        String mode = "closed";
+        int clients = 32;
+        int rate = 1000;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        String mix = "create:10,get:60,filter:20,nl:10";
+        int preload = 10_000;
+        int pageSize = 50;
+        Path baseline = Path.of("loadtest", "baseline.json");
+        double tolerance = 0.25;
+        boolean writeBaseline = false;
+        Path out = Path.of("target", "loadtest-result.json");
+        List<String> appArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.isBlank()) continue;
+            int eq = arg.indexOf('=');
+            String name = eq < 0 ? arg : arg.substring(0, eq);
+            String value = eq < 0 ? "true" : arg.substring(eq + 1);
+            switch (name) {
+                case "--mode" -> mode = value;
+                case "--clients" -> clients = Integer.parseInt(value);
+                case "--rate" -> rate = Integer.parseInt(value);
+                case "--warmup" -> warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "--duration" -> duration = Duration.ofSeconds(Long.parseLong(value));
+                case "--mix" -> mix = value;
+                case "--preload" -> preload = Integer.parseInt(value);
+                case "--page-size" -> pageSize = Integer.parseInt(value);
+                case "--baseline" -> baseline = value.isEmpty() ? null : Path.of(value);
+                case "--tolerance" -> tolerance = Double.parseDouble(value);
+                case "--write-baseline" -> writeBaseline = Boolean.parseBoolean(value);
+                case "--out" -> out = Path.of(value);
+                default -> appArgs.add(arg);
+            }
+        }
+        if (!mode.equals("closed") && !mode.equals("open")) {
+            throw new IllegalArgumentException("--mode must be closed or open, not " + mode);
+        }
+        if (clients <= 0 || rate <= 0 || preload < 0 || pageSize <= 0 || tolerance < 0) {
+            throw new IllegalArgumentException("--clients, --rate and --page-size must be > 0; --preload and --tolerance >= 0");
+        }
+        if (writeBaseline && baseline == null) throw new IllegalArgumentException("--write-baseline needs --baseline");
+        return new LoadTestOptions(mode, clients, rate, warmup, duration, LoadTest.parseMix(mix), preload, pageSize,
+                baseline, tolerance, writeBaseline, out, appArgs);
+    }
+
+    boolean open() {
+        return mode.equals("open");
+    }
+
+    int totalWeight() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.String_Analysis.analysis;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Default analyzer. Semantics are unchanged from the original multi-pass version:
+// - palindrome: case-insensitive (Locale.ROOT), code point reversal, spaces/punctuation kept
+// - unique_characters / character_frequency_map: per UTF-16 char of the lowercased value
+// - word_count: value.trim().split("\\s+").length, 0 when blank
+//
+// Latin-1 input (the common case) is handled in one pass over the value with a dense
+// int[256] table. Anything else lowercases once with String.toLowerCase, since special
+// casings (e.g. U+0130, final sigma) can change the length, and counts into a small
+// open-addressing table.
+@Component
+@ConditionalOnProperty(name = "string-analyzer.analysis.vector", havingValue = "false", matchIfMissing = true)
+public class SinglePassStringAnalyzer implements StringAnalyzer {
+
+    // Single-char keys for the frequency map, shared instead of allocated per char
+    static final String[] LATIN1_KEYS = new String[256];
+
+    static {
+        for (int c = 0; c < LATIN1_KEYS.length; c++) {
+            LATIN1_KEYS[c] = String.valueOf((char) c).intern();
+        }
+    }
+
+    // Per-thread scratch tables so steady-state analysis allocates only the result
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    @Override
+    public AnalyzedString.Properties analyze(String value, StringId sha256Hash) {
+        Scratch scratch = SCRATCH.get();
+        AnalyzedString.Properties props = analyzeLatin1(value, sha256Hash, scratch);
+        return props != null ? props : analyzeGeneral(value, sha256Hash, scratch);
+    }
+
+    // Returns null as soon as a char outside Latin-1 is seen
+    private AnalyzedString.Properties analyzeLatin1(String value, StringId sha, Scratch scratch) {
+        int n = value.length();
+        int half = n / 2;
+        int[] counts = scratch.latin1Counts;
+        char[] order = scratch.latin1Order;
+        WordCounter words = scratch.words.reset();
+        int unique = 0;
+        boolean palindrome = true;
+
+        try {
+            for (int i = 0; i < n; i++) {
+                char c = value.charAt(i);
+                if (c > 0xFF) return null;
+                words.accept(c);
+
+                char lc = Character.toLowerCase(c);
+                if (counts[lc]++ == 0) order[unique++] = lc;
+
+                // Latin-1 has no surrogates, so code point reversal is char reversal
+                if (palindrome && i < half) {
+                    palindrome = lc == Character.toLowerCase(value.charAt(n - 1 - i));
+                }
+            }
+
+            Map<String, Integer> freq = new LinkedHashMap<>(mapCapacity(unique));
+            for (int k = 0; k < unique; k++) {
+                char c = order[k];
+                freq.put(LATIN1_KEYS[c], counts[c]);
+            }
+            return new AnalyzedString.Properties(n, palindrome, unique, words.finish(), sha, freq);
+        } finally {
+            for (int k = 0; k < unique; k++) counts[order[k]] = 0;
+        }
+    }
+
+    private AnalyzedString.Properties analyzeGeneral(String value, StringId sha, Scratch scratch) {
+        WordCounter words = scratch.words.reset();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            words.accept(value.charAt(i));
+        }
+
+        String lower = value.toLowerCase(Locale.ROOT);
+        CharCounts counts = scratch.general;
+        try {
+            for (int i = 0, n = lower.length(); i < n; i++) {
+                counts.add(lower.charAt(i));
+            }
+
+            Map<String, Integer> freq = new LinkedHashMap<>(mapCapacity(counts.size));
+            for (int k = 0; k < counts.size; k++) {
+                char c = counts.order[k];
+                freq.put(c < LATIN1_KEYS.length ? LATIN1_KEYS[c] : String.valueOf(c), counts.get(c));
+            }
+            return new AnalyzedString.Properties(value.length(), isPalindrome(lower), counts.size,
+                    words.finish(), sha, freq);
+        } finally {
+            counts.clear();
+        }
+    }
+
+    // Same result as new StringBuilder(s).reverse().toString().equals(s)
+    private static boolean isPalindrome(String s) {
+        int i = 0;
+        int j = s.length();
+        while (i < j) {
+            int front = s.codePointAt(i);
+            int back = s.codePointBefore(j);
+            if (front != back) return false;
+            i += Character.charCount(front);
+            j -= Character.charCount(back);
+        }
+        return true;
+    }
+
+    private static int mapCapacity(int entries) {
+        return (int) (entries / 0.75f) + 1;
+    }
+
+    private static final class Scratch {
+        final int[] latin1Counts = new int[256];
+        final char[] latin1Order = new char[256];
+        final CharCounts general = new CharCounts();
+        final WordCounter words = new WordCounter();
+    }
+
+    // Counts runs of non-\s chars inside the trim()-ed region, i.e. trim().split("\\s+").length.
+    // trim() strips every char <= ' ', which is wider than \s, so runs made only of other
+    // control chars count only when real text appears on both sides of them.
+    static final class WordCounter {
+        private int words;
+        private int pendingControlRuns;
+        private boolean inRun;
+        private boolean runHasText;
+        private boolean seenText;
+
+        WordCounter reset() {
+            words = 0;
+            pendingControlRuns = 0;
+            inRun = false;
+            runHasText = false;
+            seenText = false;
+            return this;
+        }
+
+        void accept(char c) {
+            if (isRegexSpace(c)) {
+                if (inRun) endRun();
+            } else {
+                inRun = true;
+                if (c > ' ') runHasText = true;
+            }
+        }
+
+        int finish() {
+            if (inRun) endRun();
+            return words;
+        }
+
+        private void endRun() {
+            if (runHasText) {
+                words += 1 + pendingControlRuns;
+                pendingControlRuns = 0;
+                seenText = true;
+            } else if (seenText) {
+                pendingControlRuns++;
+            }
+            inRun = false;
+            runHasText = false;
+        }
+
+        static boolean isRegexSpace(char c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+        }
+    }
+
+    // Open-addressing char -> count table that remembers first-occurrence order
+    static final class CharCounts {
+        private static final int MAX_RETAINED = 4096;
+
+        private char[] keys = new char[64];
+        private int[] counts = new int[64];
+        char[] order = new char[32];
+        int size;
+
+        void add(char c) {
+            int mask = keys.length - 1;
+            int slot = slot(c, mask);
+            while (counts[slot] != 0 && keys[slot] != c) slot = (slot + 1) & mask;
+            if (counts[slot]++ == 0) {
+                keys[slot] = c;
+                if (size == order.length) order = Arrays.copyOf(order, size * 2);
+                order[size++] = c;
+                if (size * 2 > keys.length) grow();
+            }
+        }
+
+        int get(char c) {
+            int mask = keys.length - 1;
+            int slot = slot(c, mask);
+            while (counts[slot] != 0) {
+                if (keys[slot] == c) return counts[slot];
+                slot = (slot + 1) & mask;
+            }
+            return 0;
+        }
+
+        void clear() {
+            if (keys.length > MAX_RETAINED) {
+                // Don't keep a huge table around on the thread after one unusual input
+                keys = new char[64];
+                counts = new int[64];
+                order = new char[32];
+            } else {
+                int mask = keys.length - 1;
+                for (int k = 0; k < size; k++) {
+                    int slot = slot(order[k], mask);
+                    while (keys[slot] != order[k]) slot = (slot + 1) & mask;
+                    counts[slot] = 0;
+                }
+            }
+            size = 0;
+        }
+
+        private static int slot(char c, int mask) {
+            return (c * 0x9E3779B1 >>> 15) & mask;
+        }
+
+        private void grow() {
+            char[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new char[oldKeys.length * 2];
+            counts = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldCounts[i] == 0) continue;
+                int slot = slot(oldKeys[i], mask);
+                while (counts[slot] != 0) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
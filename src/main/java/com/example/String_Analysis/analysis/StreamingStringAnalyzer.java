@@ -0,0 +1,169 @@
+package com.example.String_Analysis.analysis;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Analyzes a value read from a stream in bounded memory, for POST /strings/stream.
+// Gives the same properties as SinglePassStringAnalyzer on the trim()-ed value:
+// - the trimmed value is written to sink as UTF-8 and sha256 is taken over exactly those bytes
+// - the value is lowercased piece by piece, cutting after whitespace so final-sigma context
+//   (which never crosses a word boundary) is the same as for the whole value. A run of more
+//   than MAX_PIECE chars without whitespace is cut anyway.
+// - palindrome compares a forward and a reverse polynomial hash of the lowercased code points,
+//   two independent hashes mod 2^61-1 with random bases, instead of keeping the value around.
+//   A false positive needs both to collide (probability about length / 2^122).
+// Memory is O(piece size + distinct chars), plus any whitespace run still pending at the end.
+public class StreamingStringAnalyzer {
+
+    private static final int READ_CHARS = 1 << 16;
+    private static final int PIECE = 1 << 16;
+    private static final int MAX_PIECE = 1 << 20;
+    private static final long M61 = (1L << 61) - 1;
+
+    private final long base1;
+    private final long base2;
+
+    public StreamingStringAnalyzer() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        this.base1 = random.nextLong(1L << 20, M61);
+        this.base2 = random.nextLong(1L << 20, M61);
+    }
+
+    // Reads in to the end. Throws IllegalArgumentException if the trimmed value is empty or
+    // longer than a String could hold.
+    public AnalyzedString.Properties analyze(Reader in, OutputStream sink) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        Session session = new Session(new OutputStreamWriter(new DigestOutputStream(sink, digest),
+                StandardCharsets.UTF_8));
+
+        char[] buf = new char[READ_CHARS];
+        for (int n; (n = in.read(buf)) != -1; ) {
+            session.accept(buf, n);
+        }
+        return session.finish(digest);
+    }
+
+    private final class Session {
+        final Writer out;
+        final StringBuilder piece = new StringBuilder(PIECE + 1024);
+        // Chars <= ' ' after the last other char; dropped by trim() if nothing follows
+        final StringBuilder pendingTrim = new StringBuilder();
+        final SinglePassStringAnalyzer.CharCounts counts = new SinglePassStringAnalyzer.CharCounts();
+        final SinglePassStringAnalyzer.WordCounter words = new SinglePassStringAnalyzer.WordCounter().reset();
+        boolean started;
+        long length;
+        long forward1, forward2, reverse1, reverse2;
+        long power1 = 1, power2 = 1;
+
+        Session(Writer out) {
+            this.out = out;
+        }
+
+        void accept(char[] buf, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                char c = buf[i];
+                if (c <= ' ') {
+                    if (started) pendingTrim.append(c);
+                    continue;
+                }
+                started = true;
+                if (pendingTrim.length() > 0) {
+                    piece.append(pendingTrim);
+                    pendingTrim.setLength(0);
+                }
+                piece.append(c);
+            }
+            if (piece.length() >= PIECE) drainPiece(false);
+        }
+
+        AnalyzedString.Properties finish(MessageDigest digest) throws IOException {
+            drainPiece(true);
+            out.flush();
+            if (length == 0) throw new IllegalArgumentException("Invalid request body or missing 'value' field");
+
+            Map<String, Integer> freq = new LinkedHashMap<>((int) (counts.size / 0.75f) + 1);
+            for (int k = 0; k < counts.size; k++) {
+                char c = counts.order[k];
+                freq.put(String.valueOf(c), counts.get(c));
+            }
+            boolean palindrome = forward1 == reverse1 && forward2 == reverse2;
+            return new AnalyzedString.Properties((int) length, palindrome, counts.size, words.finish(),
+                    StringId.fromBytes(digest.digest()), freq);
+        }
+
+        // Processes the longest prefix of piece that can be lowercased on its own
+        private void drainPiece(boolean all) throws IOException {
+            int cut = piece.length();
+            if (!all) {
+                int ws = cut - 1;
+                while (ws >= 0 && !Character.isWhitespace(piece.charAt(ws))) ws--;
+                if (ws >= 0) {
+                    cut = ws + 1;
+                } else if (cut < MAX_PIECE) {
+                    return;
+                } else if (Character.isHighSurrogate(piece.charAt(cut - 1))) {
+                    cut--;
+                }
+            }
+            if (cut == 0) return;
+
+            String original = piece.substring(0, cut);
+            piece.delete(0, cut);
+            length += original.length();
+            if (length > Integer.MAX_VALUE) throw new IllegalArgumentException("value too large");
+
+            out.write(original);
+            for (int i = 0; i < original.length(); i++) words.accept(original.charAt(i));
+
+            // Pieces never end inside a surrogate pair, so code points don't straddle pieces
+            String lower = original.toLowerCase(Locale.ROOT);
+            for (int i = 0; i < lower.length(); i++) counts.add(lower.charAt(i));
+            for (int i = 0, cp; i < lower.length(); i += Character.charCount(cp)) {
+                cp = lower.codePointAt(i);
+                addCodePoint(cp);
+            }
+        }
+
+        // forward = sum cp_i * B^(n-1-i), reverse = sum cp_i * B^i; equal iff palindrome (w.h.p.)
+        private void addCodePoint(int cp) {
+            forward1 = addMod(mulMod(forward1, base1), cp);
+            forward2 = addMod(mulMod(forward2, base2), cp);
+            reverse1 = addMod(reverse1, mulMod(cp, power1));
+            reverse2 = addMod(reverse2, mulMod(cp, power2));
+            power1 = mulMod(power1, base1);
+            power2 = mulMod(power2, base2);
+        }
+    }
+
+    // a * b mod 2^61-1 for a, b < 2^61
+    static long mulMod(long a, long b) {
+        long hi = Math.multiplyHigh(a, b);
+        long lo = a * b;
+        long r = (lo & M61) + ((lo >>> 61) | (hi << 3));
+        return r >= M61 ? r - M61 : r;
+    }
+
+    private static long addMod(long a, long b) {
+        long r = a + b;
+        return r >= M61 ? r - M61 : r;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.String_Analysis.analysis;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+// Computes the stored properties of a value. Implementations must produce exactly
+// the same properties (and therefore JSON) for the same input.
+public interface StringAnalyzer {
+
+    AnalyzedString.Properties analyze(String value, StringId sha256Hash);
+}
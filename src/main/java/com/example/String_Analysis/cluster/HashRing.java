@@ -0,0 +1,61 @@
+package com.example.String_Analysis.cluster;
+
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Consistent hashing over node names. Each node gets virtualNodes tokens on a 64-bit ring
+// (the first 8 bytes of sha256("<node>#<i>")); an id belongs to the node of the first token
+// at or after the id's own first 8 bytes, wrapping around. Adding or removing a node only
+// moves the ids between its tokens and their predecessors.
+public class HashRing {
+
+    private final List<String> nodes;
+    // Sorted tokens and the index into nodes owning each one
+    private final long[] tokens;
+    private final int[] owners;
+
+    public HashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) throw new IllegalArgumentException("at least one node is required");
+        if (virtualNodes < 1) throw new IllegalArgumentException("virtual-nodes must be positive");
+        this.nodes = List.copyOf(nodes);
+
+        int n = nodes.size() * virtualNodes;
+        // {token, node index} pairs, sorted together
+        long[][] pairs = new long[n][];
+        for (int node = 0, k = 0; node < nodes.size(); node++) {
+            for (int i = 0; i < virtualNodes; i++) {
+                pairs[k++] = new long[]{HashUtils.sha256(nodes.get(node) + "#" + i).word(0), node};
+            }
+        }
+        Arrays.sort(pairs, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        this.tokens = new long[n];
+        this.owners = new int[n];
+        for (int k = 0; k < n; k++) {
+            tokens[k] = pairs[k][0];
+            owners[k] = (int) pairs[k][1];
+        }
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    // Index into getNodes() of the node owning id
+    public int ownerIndex(StringId id) {
+        long position = id.word(0);
+        int lo = 0, hi = tokens.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (tokens[mid] < position) lo = mid + 1;
+            else hi = mid;
+        }
+        return owners[lo == tokens.length ? 0 : lo];
+    }
+
+    public String ownerOf(StringId id) {
+        return nodes.get(ownerIndex(id));
+    }
+}
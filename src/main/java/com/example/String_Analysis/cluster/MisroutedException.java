@@ -0,0 +1,10 @@
+package com.example.String_Analysis.cluster;
+
+// A peer routed a request here for an id this node doesn't own (nodes disagree on membership);
+// surfaced as 421 instead of being forwarded again
+public class MisroutedException extends RuntimeException {
+
+    public MisroutedException() {
+        super("String is owned by another shard");
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.String_Analysis.cluster;
+
+import com.example.String_Analysis.dto.StatsSnapshot;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.PageCursor;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Calls the public /strings API of one peer node. Every request carries LOCAL_HEADER, so the
+// peer answers from its own store instead of routing or fanning out again. Bodies both ways are
+// Smile, which is smaller and cheaper to encode and parse than JSON (and than CBOR, since it
+// back-references the field names repeated in every entry).
+public class ShardClient {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final ObjectMapper smileMapper;
+    private final Duration timeout;
+
+    ShardClient(String baseUrl, HttpClient http, ObjectMapper smileMapper, Duration timeout) {
+        this.baseUrl = baseUrl;
+        this.http = http;
+        this.smileMapper = smileMapper;
+        this.timeout = timeout;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    // Throws IllegalStateException if the value exists, like StringService.create
+    public AnalyzedString create(String value) {
+        byte[] body;
+        try {
+            body = smileMapper.writeValueAsBytes(Map.of("value", value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpResponse<byte[]> response = send(request("/strings")
+                .header("Content-Type", SMILE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body)));
+        return switch (response.statusCode()) {
+            case 201 -> readEntry(response);
+            case 409 -> throw new IllegalStateException("exists");
+            case 400, 422 -> throw new IllegalArgumentException(readMessage(response));
+            default -> throw unexpected(response);
+        };
+    }
+
+    // Forwards a streamed upload, already trimmed and saved as UTF-8, to the owning peer. The
+    // returned entry has no value; the peer keeps it, in memory or on disk.
+    public AnalyzedString createFromFile(Path file) {
+        HttpResponse<byte[]> response;
+        try {
+            // The usual timeout plus time to send the file at 10 MB/s
+            response = send(request("/strings/stream")
+                    .timeout(timeout.plusMillis(Files.size(file) / 10_000))
+                    .header("Content-Type", "text/plain; charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofFile(file)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return switch (response.statusCode()) {
+            case 201 -> readEntry(response);
+            case 409 -> throw new IllegalStateException("exists");
+            case 400, 422 -> throw new IllegalArgumentException(readMessage(response));
+            default -> throw unexpected(response);
+        };
+    }
+
+    public AnalyzedString getByValue(String value) {
+        HttpResponse<byte[]> response = send(request("/strings/" + encodeSegment(value)).GET());
+        return switch (response.statusCode()) {
+            case 200 -> readEntry(response);
+            case 404 -> null;
+            default -> throw unexpected(response);
+        };
+    }
+
+    // Peers answer a forwarded delete with the removed entry rather than 204
+    public AnalyzedString deleteByValue(String value) {
+        HttpResponse<byte[]> response = send(request("/strings/" + encodeSegment(value)).DELETE());
+        return switch (response.statusCode()) {
+            case 200 -> readEntry(response);
+            case 404 -> null;
+            default -> throw unexpected(response);
+        };
+    }
+
+    // Same, by id (DELETE /strings/stream/{id}); the returned entry has no value
+    public AnalyzedString deleteById(StringId id) {
+        HttpResponse<byte[]> response = send(request("/strings/stream/" + id.toHex()).DELETE());
+        return switch (response.statusCode()) {
+            case 200 -> readEntry(response);
+            case 404 -> null;
+            default -> throw unexpected(response);
+        };
+    }
+
+    // The peer's newest-first filter results, optionally one page after a cursor
+    public CompletableFuture<List<AnalyzedString>> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                                          Integer wordCount, String containsCharacter,
+                                                          String containsSubstring, PageCursor after,
+                                                          Instant createdAfter, Integer limit) {
+        StringJoiner query = new StringJoiner("&", "?", "").setEmptyValue("");
+        addParam(query, "is_palindrome", isPalindrome);
+        addParam(query, "min_length", minLength);
+        addParam(query, "max_length", maxLength);
+        addParam(query, "word_count", wordCount);
+        addParam(query, "contains_character", containsCharacter);
+        addParam(query, "contains_substring", containsSubstring);
+        addParam(query, "cursor", after == null ? null : after.encode());
+        addParam(query, "created_after", createdAfter);
+        addParam(query, "limit", limit);
+
+        HttpRequest request = request("/strings" + query).GET().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, error) -> {
+                    if (error != null) throw new ShardUnavailableException(baseUrl, unwrap(error));
+                    try (InputStream body = response.body()) {
+                        if (response.statusCode() != 200) {
+                            throw new ShardUnavailableException(baseUrl, "HTTP " + response.statusCode());
+                        }
+                        PeerPage page = smileMapper.readValue(body, PeerPage.class);
+                        List<AnalyzedString> entries = new ArrayList<>(page.data().size());
+                        for (PeerEntry entry : page.data()) entries.add(entry.toEntry());
+                        return entries;
+                    } catch (IOException e) {
+                        throw new ShardUnavailableException(baseUrl, e);
+                    }
+                });
+    }
+
+    // Whether the peer stores each of values (all owned by it), in order
+    public CompletableFuture<boolean[]> exists(List<String> values) {
+        byte[] body;
+        try {
+            body = smileMapper.writeValueAsBytes(Map.of("values", values));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest request = request("/strings/exists")
+                .header("Content-Type", SMILE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) throw new ShardUnavailableException(baseUrl, unwrap(error));
+                    if (response.statusCode() != 200) {
+                        throw new ShardUnavailableException(baseUrl, "HTTP " + response.statusCode());
+                    }
+                    try {
+                        boolean[] exists = smileMapper.readValue(response.body(), PeerExists.class).exists();
+                        if (exists == null || exists.length != values.size()) {
+                            throw new IOException("expected " + values.size() + " answers");
+                        }
+                        return exists;
+                    } catch (IOException e) {
+                        throw new ShardUnavailableException(baseUrl, e);
+                    }
+                });
+    }
+
+    // The peer's own running aggregates
+    public CompletableFuture<StatsSnapshot> stats() {
+        HttpRequest request = request("/strings/stats").GET().build();
+        return http.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) throw new ShardUnavailableException(baseUrl, unwrap(error));
+                    if (response.statusCode() != 200) {
+                        throw new ShardUnavailableException(baseUrl, "HTTP " + response.statusCode());
+                    }
+                    try {
+                        return smileMapper.readValue(response.body(), PeerStats.class).toSnapshot();
+                    } catch (IOException e) {
+                        throw new ShardUnavailableException(baseUrl, e);
+                    }
+                });
+    }
+
+    // join() for fan-out results, rethrowing the ShardUnavailableException itself
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + pathAndQuery))
+                .timeout(timeout)
+                .header("Accept", SMILE)
+                .header(ShardRouter.LOCAL_HEADER, "true");
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) {
+        try {
+            return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            throw new ShardUnavailableException(baseUrl, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShardUnavailableException(baseUrl, e);
+        }
+    }
+
+    private AnalyzedString readEntry(HttpResponse<byte[]> response) {
+        try {
+            return smileMapper.readValue(response.body(), PeerEntry.class).toEntry();
+        } catch (IOException e) {
+            throw new ShardUnavailableException(baseUrl, e);
+        }
+    }
+
+    private String readMessage(HttpResponse<byte[]> response) {
+        try {
+            return smileMapper.readTree(response.body()).path("message").asText();
+        } catch (IOException e) {
+            return "HTTP " + response.statusCode();
+        }
+    }
+
+    // 421 means the peer's shard membership differs from ours
+    private ShardUnavailableException unexpected(HttpResponse<byte[]> response) {
+        return new ShardUnavailableException(baseUrl, response.statusCode() == 421
+                ? "it does not own this value (check string-analyzer.cluster.nodes on every node)"
+                : "HTTP " + response.statusCode());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static void addParam(StringJoiner query, String name, Object value) {
+        if (value != null) query.add(name + "=" + URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+    }
+
+    private static String encodeSegment(String value) {
+        return UriUtils.encodePathSegment(value, StandardCharsets.UTF_8);
+    }
+
+    // The fields written by EntryMessageConverter / StringPageMessageConverter
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerPage(List<PeerEntry> data) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerEntry(String id, String value, PeerProperties properties, String created_at) {
+        AnalyzedString toEntry() {
+            AnalyzedString.Properties p = new AnalyzedString.Properties(properties.length(),
+                    properties.is_palindrome(), properties.unique_characters(), properties.word_count(),
+                    StringId.fromHex(properties.sha256_hash()), properties.character_frequency_map());
+            return new AnalyzedString(StringId.fromHex(id), value, p, Instant.parse(created_at));
+        }
+    }
+
+    // The body written by StringController.statsResponse
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerStats(long count, long palindrome_count, PeerDistribution length, PeerDistribution word_count,
+                     Map<String, Long> character_frequency) {
+        StatsSnapshot toSnapshot() {
+            return new StatsSnapshot(count, palindrome_count, length.toDistribution(), word_count.toDistribution(),
+                    character_frequency);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerDistribution(Long min, Long max, long total, List<PeerBucket> histogram) {
+        StatsSnapshot.Distribution toDistribution() {
+            long[] counts = new long[StatsSnapshot.BUCKETS];
+            for (PeerBucket bucket : histogram) counts[StatsSnapshot.bucketOf(bucket.min())] += bucket.count();
+            return new StatsSnapshot.Distribution(min, max, total, counts);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerBucket(long min, long count) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerExists(boolean[] exists) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PeerProperties(int length, boolean is_palindrome, int unique_characters, int word_count,
+                          String sha256_hash, LinkedHashMap<String, Integer> character_frequency_map) {
+    }
+}
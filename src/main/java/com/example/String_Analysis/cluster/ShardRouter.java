@@ -0,0 +1,91 @@
+package com.example.String_Analysis.cluster;
+
+import com.example.String_Analysis.model.StringId;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Shard membership from string-analyzer.cluster.*: which node owns an id, and clients for
+// the other nodes. With no nodes configured this node owns everything.
+// Every node must be given the same nodes list; self is this node's entry in it.
+@Component
+public class ShardRouter {
+
+    // Set on requests between nodes: answer from the local store only
+    public static final String LOCAL_HEADER = "X-Shard-Local";
+
+    private final HashRing ring;
+    private final int self;
+    // Indexed like ring.getNodes(); null for this node
+    private final List<ShardClient> clients;
+    private final List<ShardClient> peers;
+
+    public ShardRouter(@Value("${string-analyzer.cluster.nodes:}") String nodes,
+                       @Value("${string-analyzer.cluster.self:}") String self,
+                       @Value("${string-analyzer.cluster.virtual-nodes:128}") int virtualNodes,
+                       @Value("${string-analyzer.cluster.timeout-ms:2000}") long timeoutMs) {
+        List<String> members = Arrays.stream(nodes.split(","))
+                .map(ShardRouter::normalize)
+                .filter(s -> !s.isEmpty())
+                .distinct()
+                .toList();
+        if (members.size() < 2) {
+            this.ring = null;
+            this.self = 0;
+            this.clients = List.of();
+            this.peers = List.of();
+            return;
+        }
+
+        this.ring = new HashRing(members, virtualNodes);
+        this.self = members.indexOf(normalize(self));
+        if (this.self < 0) {
+            throw new IllegalStateException("string-analyzer.cluster.self (" + self + ") is not one of " + members);
+        }
+        Duration timeout = Duration.ofMillis(timeoutMs);
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+        SmileMapper smileMapper = new SmileMapper();
+        List<ShardClient> all = new ArrayList<>();
+        List<ShardClient> others = new ArrayList<>();
+        for (int i = 0; i < members.size(); i++) {
+            ShardClient client = i == this.self ? null : new ShardClient(members.get(i), http, smileMapper, timeout);
+            all.add(client);
+            if (client != null) others.add(client);
+        }
+        this.clients = all;
+        this.peers = List.copyOf(others);
+    }
+
+    // A single node owning every id, for code running outside Spring
+    public static ShardRouter single() {
+        return new ShardRouter("", "", 1, 0);
+    }
+
+    public boolean isClustered() {
+        return ring != null;
+    }
+
+    // The client for the node owning id, or null if it is this node
+    public ShardClient ownerOf(StringId id) {
+        return ring == null ? null : clients.get(ring.ownerIndex(id));
+    }
+
+    public List<ShardClient> peers() {
+        return peers;
+    }
+
+    private static String normalize(String url) {
+        String s = url.trim();
+        while (s.endsWith("/")) s = s.substring(0, s.length() - 1);
+        return s;
+    }
+}
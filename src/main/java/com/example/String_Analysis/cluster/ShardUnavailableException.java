@@ -0,0 +1,13 @@
+package com.example.String_Analysis.cluster;
+
+// A peer shard could not be reached or answered unexpectedly; surfaced to clients as 503
+public class ShardUnavailableException extends RuntimeException {
+
+    public ShardUnavailableException(String node, String reason) {
+        super("Shard " + node + " is unavailable: " + reason);
+    }
+
+    public ShardUnavailableException(String node, Throwable cause) {
+        super("Shard " + node + " is unavailable: " + cause, cause);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.String_Analysis.config;
+
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.analysis.StringAnalyzer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// VectorStringAnalyzer is only compiled by the vector profile (mvn -Pvector). In a build without
+// it, string-analyzer.analysis.vector=true keeps scalar analysis instead of failing to start.
+@Configuration
+public class VectorFallbackConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorFallbackConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "string-analyzer.analysis.vector", havingValue = "true")
+    @ConditionalOnMissingClass("com.example.String_Analysis.analysis.VectorStringAnalyzer")
+    public StringAnalyzer scalarAnalyzer() {
+        log.warn("string-analyzer.analysis.vector=true, but this build has no vector kernels "
+                + "(build with -Pvector); using scalar analysis");
+        return new SinglePassStringAnalyzer();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.String_Analysis.config;
+
+import com.example.String_Analysis.controller.EntryJsonCache;
+import com.example.String_Analysis.controller.EntryMessageConverter;
+import com.example.String_Analysis.controller.StringPageMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final EntryJsonCache entryCache;
+
+    public WebConfig(ObjectMapper objectMapper, EntryJsonCache entryCache) {
+        this.objectMapper = objectMapper;
+        this.entryCache = entryCache;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Ahead of the Jackson converter, which would otherwise serialize StringPage as a bean
+        converters.add(0, new StringPageMessageConverter(objectMapper, entryCache));
+        converters.add(0, new EntryMessageConverter(objectMapper, entryCache));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.String_Analysis.controller;
+
+import com.example.String_Analysis.service.ChangeFeed;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// GET /strings/changes as Server-Sent Events. Each event's id is its resume token, which
+// EventSource clients send back as Last-Event-ID when they reconnect:
+//
+//   id: <token>  event: created | deleted  data: the entry, as GET /strings/{value} returns it
+//   id: <token>  event: reset     data: {"message": ...}  (re-list with GET /strings, then follow)
+//   id: <token>  event: overflow  data: {"message": ...}  (the client was too slow; reconnect)
+//
+// Heartbeats are a comment plus the id reached, so filtered-out events still move the client's
+// resume position forward. Entries are written on one line; values kept on disk as value_url.
+class ChangeStream implements ChangeFeed.Listener {
+
+    private final SseEmitter emitter;
+    private final JsonFactory jsonFactory;
+
+    ChangeStream(SseEmitter emitter, JsonFactory jsonFactory) {
+        this.emitter = emitter;
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    public void event(String id, ChangeFeed.Event event) throws IOException {
+        send(SseEmitter.event().id(id).name(event.type().name().toLowerCase(Locale.ROOT))
+                .data(new String(event.json(), StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public void reset(String id) throws IOException {
+        send(SseEmitter.event().id(id).name("reset")
+                .data(message("Resume token is too old or from before a restart; re-list with GET /strings")));
+    }
+
+    @Override
+    public void heartbeat(String id) throws IOException {
+        send(SseEmitter.event().id(id).comment("heartbeat"));
+    }
+
+    @Override
+    public void overflowed(String id) throws IOException {
+        send(SseEmitter.event().id(id).name("overflow")
+                .data(message("Client fell too far behind and was disconnected; reconnect to resume")));
+    }
+
+    @Override
+    public void closed() {
+        emitter.complete();
+    }
+
+    // An emitter completed by a disconnect or timeout throws IllegalStateException
+    private void send(SseEmitter.SseEventBuilder event) throws IOException {
+        try {
+            emitter.send(event);
+        } catch (IllegalStateException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private String message(String message) throws IOException {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator gen = jsonFactory.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeStringField("message", message);
+            gen.writeEndObject();
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.String_Analysis.controller;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Opt-in (string-analyzer.response-cache.enabled) approximate LRU of each entry's compact JSON
+// encoding, the object written by StringPageMessageConverter.writeEntry. Entries never change
+// once created, so the bytes are encoded on first use and then copied straight into responses.
+//
+// Bounded by total encoded bytes. A cached encoding is only used if its created_at matches the
+// entry being written, so a value deleted and created again (possibly on another node) is
+// re-encoded rather than served stale. Values kept on disk are never cached.
+//
+// Hits take no lock: they only read the map and stamp the entry's last use. Eviction runs on
+// the (already slow) miss path once the budget is exceeded: a hand walks the map and removes
+// the least recently used of each few entries it passes, as Redis samples its LRU.
+@Component
+public class EntryJsonCache {
+
+    // Rough per-entry overhead of the map node, key and holder, counted against the budget
+    private static final int ENTRY_OVERHEAD = 128;
+    // Entries compared per eviction
+    private static final int EVICTION_SAMPLE = 8;
+    // A hit re-stamps its entry only if the stamp is older than this, so hot entries read by
+    // many threads aren't written on every hit
+    private static final long TOUCH_NANOS = 1_000_000;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final JsonFactory jsonFactory;
+    private final Map<StringId, Cached> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    // The eviction hand; guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Map.Entry<StringId, Cached>> hand;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public EntryJsonCache(@Value("${string-analyzer.response-cache.enabled:false}") boolean enabled,
+                          @Value("${string-analyzer.response-cache.max-bytes:67108864}") long maxBytes,
+                          ObjectMapper objectMapper) {
+        this.enabled = enabled && maxBytes > 0;
+        this.maxBytes = maxBytes;
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // The entry's JSON, from the cache or freshly encoded (and cached if it fits).
+    // Null for values kept on disk, which are streamed from their file instead.
+    public byte[] get(AnalyzedString entry) {
+        if (entry.isValueOnDisk()) return null;
+        StringId id = entry.getKey();
+        Cached cached = entries.get(id);
+        if (cached != null && cached.createdAt.equals(entry.getCreatedAt())) {
+            cached.touch();
+            hits.increment();
+            return cached.json;
+        }
+        misses.increment();
+        // Two threads missing on the same entry both encode it
+        byte[] json = encode(entry);
+        long cost = cost(json);
+        // One entry may not take more than a sixteenth of the budget
+        if (enabled && cost <= maxBytes / 16) {
+            Cached previous = entries.put(id, new Cached(entry.getCreatedAt(), json));
+            if (bytes.addAndGet(cost - (previous == null ? 0 : cost(previous.json))) > maxBytes) evict();
+        }
+        return json;
+    }
+
+    // Frees the encoding of a deleted entry
+    public void evict(StringId id) {
+        Cached removed = entries.remove(id);
+        if (removed != null) bytes.addAndGet(-cost(removed.json));
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    // Removes the least recently used of every EVICTION_SAMPLE entries the hand passes until the
+    // cache is back within budget
+    private void evict() {
+        evictionLock.lock();
+        try {
+            while (bytes.get() > maxBytes && !entries.isEmpty()) {
+                Map.Entry<StringId, Cached> victim = null;
+                for (int i = 0; i < EVICTION_SAMPLE; i++) {
+                    if (hand == null || !hand.hasNext()) {
+                        hand = entries.entrySet().iterator();
+                        if (!hand.hasNext()) break;
+                    }
+                    Map.Entry<StringId, Cached> candidate = hand.next();
+                    if (victim == null || candidate.getValue().lastUsed < victim.getValue().lastUsed) {
+                        victim = candidate;
+                    }
+                }
+                // Conditional, as a hit may have replaced or a delete removed it meanwhile
+                if (victim != null && entries.remove(victim.getKey(), victim.getValue())) {
+                    bytes.addAndGet(-cost(victim.getValue().json));
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static long cost(byte[] json) {
+        return json.length + ENTRY_OVERHEAD;
+    }
+
+    private byte[] encode(AnalyzedString entry) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + entry.getValue().length() * 2);
+        try (JsonGenerator gen = jsonFactory.createGenerator(out)) {
+            StringPageMessageConverter.writeEntry(gen, entry);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Cached {
+        final Instant createdAt;
+        final byte[] json;
+        // System.nanoTime() of the last use; a racy read or a lost update only makes eviction
+        // slightly less exact
+        volatile long lastUsed = System.nanoTime();
+
+        Cached(Instant createdAt, byte[] json) {
+            this.createdAt = createdAt;
+            this.json = json;
+        }
+
+        void touch() {
+            long now = System.nanoTime();
+            if (now - lastUsed > TOUCH_NANOS) lastUsed = now;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.String_Analysis.controller;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Writes a single entry (GET/POST /strings) as JSON, CBOR or Smile per Accept, with the fields
+// of StringController.toResponse. JSON comes from the EntryJsonCache when it is enabled, and is
+// otherwise streamed, indented only if spring.jackson.serialization.indent_output is set.
+public class EntryMessageConverter extends AbstractHttpMessageConverter<AnalyzedString> {
+
+    private final JsonFactory jsonFactory;
+    private final boolean indent;
+    private final EntryJsonCache entryCache;
+
+    public EntryMessageConverter(ObjectMapper objectMapper, EntryJsonCache entryCache) {
+        super(WireFormats.SUPPORTED);
+        this.jsonFactory = objectMapper.getFactory();
+        this.indent = objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT);
+        this.entryCache = entryCache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return AnalyzedString.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected AnalyzedString readInternal(Class<? extends AnalyzedString> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("AnalyzedString is response-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(AnalyzedString entry, HttpOutputMessage outputMessage) throws IOException {
+        JsonFactory factory = WireFormats.factory(outputMessage.getHeaders().getContentType(), jsonFactory);
+        OutputStream out = StreamUtils.nonClosing(outputMessage.getBody());
+        if (factory == jsonFactory && entryCache.isEnabled()) {
+            byte[] json = entryCache.get(entry);
+            if (json != null) {
+                out.write(json);
+                return;
+            }
+        }
+        try (JsonGenerator gen = factory.createGenerator(out)) {
+            if (indent && factory == jsonFactory) gen.useDefaultPrettyPrinter();
+            StringPageMessageConverter.writeEntry(gen, entry);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.String_Analysis.controller;
+
+import com.example.String_Analysis.util.EntryJson;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// The "value" of an entry stored on disk: written as a JSON string copied from the file
+// through a Reader, so the value is never materialized on the heap.
+class FileBackedValue implements JsonSerializable {
+
+    private final Path file;
+
+    FileBackedValue(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        EntryJson.writeFileValue(gen, file);
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
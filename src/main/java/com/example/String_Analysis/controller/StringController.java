@@ -1,25 +1,71 @@
 package com.example.String_Analysis.controller;
 
+import com.example.String_Analysis.cluster.MisroutedException;
+import com.example.String_Analysis.cluster.ShardRouter;
+import com.example.String_Analysis.cluster.ShardUnavailableException;
+import com.example.String_Analysis.dto.StatsSnapshot;
+import com.example.String_Analysis.dto.StringPage;
 import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.service.AsyncIngestService;
+import com.example.String_Analysis.service.BatchIngestService;
+import com.example.String_Analysis.service.ChangeFeed;
+import com.example.String_Analysis.service.QueryPlanCache;
 import com.example.String_Analysis.service.StringService;
-import com.example.String_Analysis.util.NaturalLanguageParser;
+import com.example.String_Analysis.util.PageCursor;
+import com.example.String_Analysis.util.QueryPlan;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/strings")
 public class StringController {
 
-    private final StringService service;
+    // Page size when only a cursor is given
+    private static final int DEFAULT_PAGE_SIZE = 100;
 
-    public StringController(StringService service) { this.service = service; }
+    private final StringService service;
+    private final BatchIngestService batchIngest;
+    private final QueryPlanCache planCache;
+    private final EntryJsonCache entryCache;
+    private final JsonFactory jsonFactory;
+    private final AsyncIngestService asyncIngest;
+
+    public StringController(StringService service, BatchIngestService batchIngest, QueryPlanCache planCache,
+                            EntryJsonCache entryCache, ObjectMapper objectMapper, AsyncIngestService asyncIngest) {
+        this.service = service;
+        this.batchIngest = batchIngest;
+        this.asyncIngest = asyncIngest;
+        this.planCache = planCache;
+        this.entryCache = entryCache;
+        this.jsonFactory = objectMapper.getFactory();
+    }
 
     // 1. Create/Analyze String
 //    @PostMapping
@@ -49,7 +95,9 @@ public class StringController {
 //    }
 
     @PostMapping
-    public ResponseEntity<?> create(@RequestBody(required = false) Map<String, Object> body) {
+    public ResponseEntity<?> create(@RequestBody(required = false) Map<String, Object> body,
+                                    @RequestParam(defaultValue = "false") boolean async,
+                                    @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
         // Handle missing or empty body
         if (body == null || !body.containsKey("value")) {
             return ResponseEntity.badRequest().body(Map.of("message", "Invalid request body or missing 'value' field"));
@@ -69,9 +117,15 @@ public class StringController {
             return ResponseEntity.badRequest().body(Map.of("message", "Invalid request body or missing 'value' field"));
         }
 
+        if (shardLocal && !service.ownsValue(value)) return misrouted();
+        // A peer forwarding a queued value creates it synchronously on the owner
+        if (async && !shardLocal) return createAsync(value);
+
         try {
             var entry = service.create(value);
-            return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(entry)); // ✅ 201
+            return ResponseEntity.status(HttpStatus.CREATED).body(entry); // ✅ 201
+        } catch (ShardUnavailableException e) {
+            return shardUnavailable(e);
         } catch (IllegalStateException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "String already exists in the system")); // ✅ 409
         } catch (Exception e) {
@@ -79,6 +133,149 @@ public class StringController {
         }
     }
 
+    // 1a. Asynchronous create: 202 with the id once the value is queued; analysis and insert happen
+    // on the ingest workers. 429 while the queue is full, 503 when async ingest is disabled.
+    private ResponseEntity<?> createAsync(String value) {
+        try {
+            AsyncIngestService.Status status = asyncIngest.submit(value);
+            return ResponseEntity.accepted().location(URI.create("/strings/status/" + status.id()))
+                    .body(statusResponse(status));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "String already exists in the system"));
+        } catch (RejectedExecutionException e) {
+            if (!asyncIngest.isEnabled()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+            }
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Outcome of an asynchronous create: pending, created, conflict or failed. Entries this node
+    // has no status for (created synchronously, or the status aged out) report created if stored.
+    @GetMapping("/status/{id}")
+    public ResponseEntity<?> createStatus(@PathVariable String id) {
+        AsyncIngestService.Status status = null;
+        try {
+            status = asyncIngest.status(StringId.fromHex(id));
+        } catch (IllegalArgumentException e) {
+            // Not an id: reported as unknown below
+        }
+        if (status == null) {
+            status = service.getById(id)
+                    .map(entry -> new AsyncIngestService.Status(entry.getId(), AsyncIngestService.State.CREATED,
+                            null, null, entry.getCreatedAt()))
+                    .orElse(null);
+        }
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "No such id was submitted"));
+        }
+        return ResponseEntity.ok(statusResponse(status));
+    }
+
+    private static Map<String, Object> statusResponse(AsyncIngestService.Status status) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", status.id());
+        m.put("status", status.state().name().toLowerCase(Locale.ROOT));
+        if (status.message() != null) m.put("message", status.message());
+        if (status.submittedAt() != null) m.put("submitted_at", DateTimeFormatter.ISO_INSTANT.format(status.submittedAt()));
+        if (status.createdAt() != null) m.put("created_at", DateTimeFormatter.ISO_INSTANT.format(status.createdAt()));
+        m.put("status_url", "/strings/status/" + status.id());
+        return m;
+    }
+
+    // 1b. Bulk create: JSON array or NDJSON of {"value": ...}, one NDJSON result line per item
+    @PostMapping(path = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<StreamingResponseBody> createBatch(@RequestParam(defaultValue = "best_effort") String mode,
+                                                             HttpServletRequest request) throws IOException {
+        boolean allOrNothing;
+        if (mode.equalsIgnoreCase("best_effort")) {
+            allOrNothing = false;
+        } else if (mode.equalsIgnoreCase("all_or_nothing")) {
+            allOrNothing = true;
+        } else {
+            // ApiExceptionHandler turns this into a 400 with the message
+            throw new IllegalArgumentException("mode must be best_effort or all_or_nothing");
+        }
+
+        InputStream body = request.getInputStream();
+        StreamingResponseBody results = out -> batchIngest.ingest(body, out, allOrNothing);
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(results);
+    }
+
+    // 1c. Create from a large value, analyzed while it streams in: a text/plain body or a
+    // multipart "file" upload. The response omits the value and links to it instead.
+    // On a cluster the value is stored by the node owning its id, whichever node receives it.
+    @PostMapping(path = "/stream", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<?> createFromStream(HttpServletRequest request,
+                                              @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal)
+            throws IOException {
+        Charset charset = request.getCharacterEncoding() == null
+                ? StandardCharsets.UTF_8 : Charset.forName(request.getCharacterEncoding());
+        return createStreamed(request.getInputStream(), charset, shardLocal);
+    }
+
+    @PostMapping(path = "/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> createFromUpload(@RequestParam("file") MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return createStreamed(in, StandardCharsets.UTF_8, false);
+        }
+    }
+
+    private ResponseEntity<?> createStreamed(InputStream in, Charset charset, boolean shardLocal) throws IOException {
+        try {
+            var entry = service.createFromStream(in, charset, shardLocal);
+            return ResponseEntity.status(HttpStatus.CREATED).body(toLinkedResponse(entry));
+        } catch (MisroutedException e) {
+            return misrouted();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "String already exists in the system"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // The entry with a link to its value instead of the value
+    private static Map<String, Object> toLinkedResponse(AnalyzedString entry) {
+        Map<String, Object> response = toResponse(entry);
+        response.remove("value");
+        response.put("value_url", "/strings/stream/" + entry.getId());
+        return response;
+    }
+
+    // Delete by id: the way to delete a value kept on disk, which DELETE /strings/{value} can't
+    // name. Removes its file too. Like other deletes, 204, or the entry for a forwarding peer.
+    @DeleteMapping("/stream/{id}")
+    public ResponseEntity<?> deleteById(@PathVariable String id,
+                                        @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
+        if (shardLocal && service.ownerUrl(id) != null) return misrouted();
+        var removed = service.deleteById(id);
+        if (removed == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "String does not exist in the system"));
+        }
+        entryCache.evict(removed.getKey());
+        if (shardLocal) return ResponseEntity.ok(toLinkedResponse(removed));
+        return ResponseEntity.noContent().build();
+    }
+
+    // Raw value of any entry by id, streamed from disk for large values. On a cluster, a
+    // redirect to the node owning the id.
+    @GetMapping("/stream/{id}")
+    public ResponseEntity<?> getValueById(@PathVariable String id) {
+        String owner = service.ownerUrl(id);
+        if (owner != null) {
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                    .location(URI.create(owner + "/strings/stream/" + id)).build();
+        }
+        MediaType textUtf8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+        return service.getById(id)
+                .<ResponseEntity<?>>map(entry -> entry.isValueOnDisk()
+                        ? ResponseEntity.ok().contentType(textUtf8).body(new FileSystemResource(entry.getValueFile()))
+                        : ResponseEntity.ok().contentType(textUtf8).body(entry.getValue()))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "String does not exist in the system")));
+    }
 
     // 2. Get Specific String by original value
 //    @GetMapping("/{stringValue}")
@@ -90,13 +287,54 @@ public class StringController {
 //        return ResponseEntity.ok(toResponse(entry));
 //    }
     @GetMapping("/{stringValue}")
-    public ResponseEntity<?> getByValue(@PathVariable String stringValue) {
+    public ResponseEntity<?> getByValue(@PathVariable String stringValue,
+                                        @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
+        if (shardLocal && !service.ownsValue(stringValue)) return misrouted();
         var result = service.getByValue(stringValue);
         if (result == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", "String does not exist in the system")); // ✅ 404
         }
-        return ResponseEntity.ok(toResponse(result)); // ✅ 200
+        return ResponseEntity.ok(result); // ✅ 200
+    }
+
+    // 2b. Existence only: 200 or 404 without a body, answered from the membership filter when absent
+    @RequestMapping(path = "/{stringValue}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> exists(@PathVariable String stringValue,
+                                       @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
+        try {
+            boolean found = shardLocal ? service.existsLocal(List.of(stringValue))[0]
+                    : service.exists(List.of(stringValue))[0];
+            return found ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
+        } catch (ShardUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // 2c. Bulk existence: {"values": [...]} -> {"exists": [...], "match_count": n}, in request order
+    @PostMapping("/exists")
+    public ResponseEntity<?> existsBulk(@RequestBody(required = false) Map<String, Object> body,
+                                        @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
+        if (body == null || !body.containsKey("values")) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid request body or missing 'values' field"));
+        }
+        if (!(body.get("values") instanceof List<?> rawValues) || !rawValues.stream().allMatch(v -> v instanceof String)) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("message", "'values' must be an array of strings"));
+        }
+        @SuppressWarnings("unchecked")
+        List<String> values = (List<String>) rawValues;
+        try {
+            // A peer only sends the values this node owns
+            boolean[] exists = shardLocal ? service.existsLocal(values) : service.exists(values);
+            int matches = 0;
+            for (boolean e : exists) if (e) matches++;
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("exists", exists);
+            response.put("match_count", matches);
+            return ResponseEntity.ok(response);
+        } catch (ShardUnavailableException e) {
+            return shardUnavailable(e);
+        }
     }
     // 3. Get All Strings with Filtering
 //    @GetMapping
@@ -132,78 +370,58 @@ public class StringController {
             @RequestParam(required = false) String min_length,
             @RequestParam(required = false) String max_length,
             @RequestParam(required = false) String word_count,
-            @RequestParam(required = false) String contains_character
+            @RequestParam(required = false) String contains_character,
+            @RequestParam(required = false) String contains_substring,
+            @RequestParam(required = false) String limit,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String created_after,
+            @RequestParam(required = false) String created_before,
+            @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal
     ) {
         try {
-            Boolean isPalindrome = null;
-            Integer minLength = null;
-            Integer maxLength = null;
-            Integer wordCount = null;
-            String containsChar = null;
+            Boolean isPalindrome;
+            Integer minLength;
+            Integer maxLength;
+            Integer wordCount;
+            String containsChar;
+            Integer pageSize;
+            PageCursor after;
+            Instant createdAfter;
+            Instant createdBefore;
 
             // --- Parse and validate each query parameter ---
-            if (is_palindrome != null) {
-                if (is_palindrome.equalsIgnoreCase("true")) {
-                    isPalindrome = true;
-                } else if (is_palindrome.equalsIgnoreCase("false")) {
-                    isPalindrome = false;
-                } else {
-                    return ResponseEntity.badRequest().body(Map.of("message", "Invalid value for is_palindrome"));
-                }
-            }
-
-            if (min_length != null) {
-                try {
-                    minLength = Integer.parseInt(min_length);
-                    if (minLength < 0) throw new NumberFormatException();
-                } catch (NumberFormatException e) {
-                    return ResponseEntity.badRequest().body(Map.of("message", "min_length must be a positive integer"));
-                }
-            }
-
-            if (max_length != null) {
-                try {
-                    maxLength = Integer.parseInt(max_length);
-                    if (maxLength < 0) throw new NumberFormatException();
-                } catch (NumberFormatException e) {
-                    return ResponseEntity.badRequest().body(Map.of("message", "max_length must be a positive integer"));
-                }
-            }
-
-            if (word_count != null) {
-                try {
-                    wordCount = Integer.parseInt(word_count);
-                    if (wordCount < 0) throw new NumberFormatException();
-                } catch (NumberFormatException e) {
-                    return ResponseEntity.badRequest().body(Map.of("message", "word_count must be a positive integer"));
-                }
+            try {
+                isPalindrome = parseBoolean("is_palindrome", is_palindrome);
+                minLength = parseCount("min_length", min_length);
+                maxLength = parseCount("max_length", max_length);
+                wordCount = parseCount("word_count", word_count);
+                containsChar = parseCharacter(contains_character);
+                parseSubstring(contains_substring);
+                pageSize = parseLimit(limit);
+                after = cursor == null ? null : PageCursor.decode(cursor);
+                createdAfter = parseInstant("created_after", created_after);
+                createdBefore = parseInstant("created_before", created_before);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
             }
 
-            if (contains_character != null) {
-                if (contains_character.length() != 1) {
-                    return ResponseEntity.badRequest().body(Map.of("message", "contains_character must be a single character"));
-                }
-                containsChar = contains_character;
-            }
-
-            // --- Filter data ---
-            List<AnalyzedString> results = service.filter(isPalindrome, minLength, maxLength, wordCount, containsChar);
-
-            // --- Build response ---
-            Map<String, Object> response = new LinkedHashMap<>();
-            response.put("data", results.stream().map(this::toResponse).toList());
-            response.put("count", results.size());
-
+            // --- Build response (streamed by StringPageMessageConverter) ---
             Map<String, Object> filtersApplied = new LinkedHashMap<>();
             if (isPalindrome != null) filtersApplied.put("is_palindrome", isPalindrome);
             if (minLength != null) filtersApplied.put("min_length", minLength);
             if (maxLength != null) filtersApplied.put("max_length", maxLength);
             if (wordCount != null) filtersApplied.put("word_count", wordCount);
             if (containsChar != null) filtersApplied.put("contains_character", containsChar);
-            response.put("filters_applied", filtersApplied);
+            if (contains_substring != null) filtersApplied.put("contains_substring", contains_substring);
+            if (createdAfter != null) filtersApplied.put("created_after", DateTimeFormatter.ISO_INSTANT.format(createdAfter));
+            if (createdBefore != null) filtersApplied.put("created_before", DateTimeFormatter.ISO_INSTANT.format(createdBefore));
 
-            return ResponseEntity.ok(response); // ✅ 200 OK
+            return ResponseEntity.ok(filterPage(isPalindrome, minLength, maxLength, wordCount, containsChar,
+                    contains_substring, pageSize, after, createdAfter, createdBefore, shardLocal,
+                    "filters_applied", filtersApplied)); // ✅ 200 OK
 
+        } catch (ShardUnavailableException e) {
+            return shardUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("message", "Invalid query parameters or types"));
         }
@@ -214,38 +432,114 @@ public class StringController {
 
     // 4. Natural Language Filtering
     @GetMapping("/filter-by-natural-language")
-    public ResponseEntity<?> nlFilter(@RequestParam String query) {
+    public ResponseEntity<?> nlFilter(@RequestParam String query,
+                                      @RequestParam(required = false) String limit,
+                                      @RequestParam(required = false) String cursor) {
         try {
-            NaturalLanguageParser.ParseResult parsed = NaturalLanguageParser.parse(query);
+            Integer pageSize = parseLimit(limit);
+            PageCursor after = cursor == null ? null : PageCursor.decode(cursor);
+
+            QueryPlan plan = planCache.get(query);
 
             // Basic conflict detection: if both min_length and max_length set and inconsistent
-            Integer minLen = (Integer) parsed.getParsedFilters().get("min_length");
-            Integer maxLen = (Integer) parsed.getParsedFilters().get("max_length");
+            Integer minLen = plan.getMinLength();
+            Integer maxLen = plan.getMaxLength();
             if (minLen != null && maxLen != null && minLen > maxLen) {
                 return ResponseEntity.unprocessableEntity().body(Map.of("message", "Parsed filters conflict: min_length > max_length"));
             }
 
-            @SuppressWarnings("unchecked")
-            List<AnalyzedString> result = service.filter(
-                    (Boolean) parsed.getParsedFilters().get("is_palindrome"),
-                    (Integer) parsed.getParsedFilters().get("min_length"),
-                    (Integer) parsed.getParsedFilters().get("max_length"),
-                    (Integer) parsed.getParsedFilters().get("word_count"),
-                    (String) parsed.getParsedFilters().get("contains_character")
-            );
-            Map<String, Object> resp = new HashMap<>();
-            resp.put("data", result.stream().map(this::toResponse).toList());
-            resp.put("count", result.size());
             Map<String, Object> interpreted = new HashMap<>();
-            interpreted.put("original", parsed.getOriginal());
-            interpreted.put("parsed_filters", parsed.getParsedFilters());
-            resp.put("interpreted_query", interpreted);
-            return ResponseEntity.ok(resp);
+            interpreted.put("original", plan.getOriginal());
+            interpreted.put("parsed_filters", plan.getParsedFilters());
+            return ResponseEntity.ok(filterPage(plan.getIsPalindrome(), plan.getMinLength(), plan.getMaxLength(),
+                    plan.getWordCount(), plan.getContainsCharacter(), plan.getContainsSubstring(),
+                    pageSize, after, null, null, false, "interpreted_query", interpreted));
+        } catch (ShardUnavailableException e) {
+            return shardUnavailable(e);
         } catch (IllegalArgumentException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", ex.getMessage()));
         }
     }
 
+    // Hit/miss counters of the natural language plan cache
+    @GetMapping("/filter-by-natural-language/plan-cache")
+    public ResponseEntity<?> planCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", planCache.getHits());
+        stats.put("misses", planCache.getMisses());
+        stats.put("size", planCache.size());
+        stats.put("capacity", planCache.getCapacity());
+        return ResponseEntity.ok(stats);
+    }
+
+    // 6. Aggregates over all entries from running counters (no scan), or over the entries
+    // matching the same filters as GET /strings
+    @GetMapping("/stats")
+    public ResponseEntity<?> stats(@RequestParam(required = false) String is_palindrome,
+                                   @RequestParam(required = false) String min_length,
+                                   @RequestParam(required = false) String max_length,
+                                   @RequestParam(required = false) String word_count,
+                                   @RequestParam(required = false) String contains_character,
+                                   @RequestParam(required = false) String contains_substring,
+                                   @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
+        try {
+            Boolean isPalindrome = parseBoolean("is_palindrome", is_palindrome);
+            Integer minLength = parseCount("min_length", min_length);
+            Integer maxLength = parseCount("max_length", max_length);
+            Integer wordCount = parseCount("word_count", word_count);
+            String containsChar = parseCharacter(contains_character);
+            String containsSubstring = parseSubstring(contains_substring);
+
+            StatsSnapshot snapshot;
+            if (isPalindrome == null && minLength == null && maxLength == null && wordCount == null
+                    && containsChar == null && containsSubstring == null) {
+                snapshot = shardLocal ? service.statsLocal() : service.stats();
+            } else {
+                snapshot = service.stats(isPalindrome, minLength, maxLength, wordCount, containsChar, containsSubstring);
+            }
+            return ResponseEntity.ok(statsResponse(snapshot));
+        } catch (ShardUnavailableException e) {
+            return shardUnavailable(e);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // 7. Change feed: Server-Sent Events for the creates and deletes matching the same filters as
+    // GET /strings, from now or from a resume token (Last-Event-ID, or ?resume= for other clients).
+    // The stream stays open; on a cluster each node streams the changes of the ids it owns.
+    @GetMapping("/changes")
+    public ResponseEntity<?> changes(@RequestParam(required = false) String is_palindrome,
+                                     @RequestParam(required = false) String min_length,
+                                     @RequestParam(required = false) String max_length,
+                                     @RequestParam(required = false) String word_count,
+                                     @RequestParam(required = false) String contains_character,
+                                     @RequestParam(required = false) String contains_substring,
+                                     @RequestParam(required = false) String resume,
+                                     @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        try {
+            ChangeFeed.Subscription subscription = service.subscribeChanges(
+                    parseBoolean("is_palindrome", is_palindrome),
+                    parseCount("min_length", min_length),
+                    parseCount("max_length", max_length),
+                    parseCount("word_count", word_count),
+                    parseCharacter(contains_character),
+                    parseSubstring(contains_substring),
+                    // A reconnecting EventSource sends the id it got to, which is newer than the URL's
+                    lastEventId != null ? lastEventId : resume,
+                    new ChangeStream(emitter, jsonFactory));
+            emitter.onCompletion(subscription::cancel);
+            emitter.onTimeout(subscription::cancel);
+            emitter.onError(e -> subscription.cancel());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        }
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(emitter);
+    }
+
     // 5. Delete String
 //    @DeleteMapping("/{stringValue}")
 //    public ResponseEntity<?> delete(@PathVariable String stringValue) {
@@ -257,21 +551,151 @@ public class StringController {
 //        return ResponseEntity.noContent().build();
 //    }
     @DeleteMapping("/{stringValue}")
-    public ResponseEntity<?> delete(@PathVariable String stringValue) {
-        var existing = service.getByValue(stringValue);
-        if (existing == null) {
+    public ResponseEntity<?> delete(@PathVariable String stringValue,
+                                    @RequestHeader(name = ShardRouter.LOCAL_HEADER, defaultValue = "false") boolean shardLocal) {
+        if (shardLocal && !service.ownsValue(stringValue)) return misrouted();
+        // Check and remove in one step, so two concurrent deletes can't both get a 204
+        var removed = service.deleteByValue(stringValue);
+        if (removed == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of("message", "String does not exist in the system")); // ✅ 404
         }
-        service.deleteByValue(stringValue);
+        entryCache.evict(removed.getKey());
+        // The node that forwarded the delete gets the removed entry back
+        if (shardLocal) return ResponseEntity.ok(removed);
         return ResponseEntity.noContent().build(); // ✅ 204
     }
 
+    // 421: a peer routed a value here that this node doesn't own (nodes disagree on membership)
+    private static ResponseEntity<?> misrouted() {
+        return ResponseEntity.status(421).body(Map.of("message", "String is owned by another shard"));
+    }
+
+    private static ResponseEntity<?> shardUnavailable(ShardUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+    }
+
+    // Without limit/cursor the full result is returned, as before. With them, one page in
+    // createdAt/id order plus next_cursor when more entries follow.
+    // created_after/created_before (exclusive) narrow either to a time window; they and the
+    // page are evaluated on the newest-first order, stopping once the page is full.
+    // local: only this node's entries, for a peer fanning out a filter.
+    private StringPage filterPage(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount,
+                                  String containsChar, String containsSubstring, Integer limit, PageCursor after,
+                                  Instant createdAfter, Instant createdBefore, boolean local,
+                                  String queryKey, Map<String, Object> query) {
+        boolean paged = limit != null || after != null;
+        if (!paged && createdAfter == null && createdBefore == null) {
+            return new StringPage(local
+                    ? service.filterLocal(isPalindrome, minLength, maxLength, wordCount, containsChar, containsSubstring)
+                    : service.filter(isPalindrome, minLength, maxLength, wordCount, containsChar, containsSubstring),
+                    queryKey, query, null);
+        }
+        int pageSize = limit != null ? limit : paged ? DEFAULT_PAGE_SIZE : Integer.MAX_VALUE - 1;
+        PageCursor start = createdBefore == null ? after
+                : PageCursor.furthest(after, PageCursor.createdBefore(createdBefore));
+        // Ask for one extra entry to know whether there is a next page
+        List<AnalyzedString> results = local
+                ? service.filterPageLocal(isPalindrome, minLength, maxLength, wordCount, containsChar,
+                        containsSubstring, start, createdAfter, pageSize + 1)
+                : service.filterPage(isPalindrome, minLength, maxLength, wordCount, containsChar,
+                        containsSubstring, start, createdAfter, pageSize + 1);
+        String nextCursor = null;
+        if (results.size() > pageSize) {
+            results = results.subList(0, pageSize);
+            nextCursor = PageCursor.after(results.get(pageSize - 1)).encode();
+        }
+        return new StringPage(results, queryKey, query, nextCursor);
+    }
+
+    private static Boolean parseBoolean(String name, String value) {
+        if (value == null) return null;
+        if (value.equalsIgnoreCase("true")) return true;
+        if (value.equalsIgnoreCase("false")) return false;
+        throw new IllegalArgumentException("Invalid value for " + name);
+    }
+
+    private static Integer parseCount(String name, String value) {
+        if (value == null) return null;
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed < 0) throw new NumberFormatException();
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a positive integer");
+        }
+    }
+
+    private static String parseCharacter(String value) {
+        if (value != null && value.length() != 1) {
+            throw new IllegalArgumentException("contains_character must be a single character");
+        }
+        return value;
+    }
+
+    private static String parseSubstring(String value) {
+        if (value != null && value.isEmpty()) {
+            throw new IllegalArgumentException("contains_substring must not be empty");
+        }
+        return value;
+    }
+
+    private static Instant parseInstant(String name, String value) {
+        if (value == null) return null;
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be an ISO-8601 instant, e.g. 2025-01-31T12:00:00Z");
+        }
+    }
+
+    private static Integer parseLimit(String limit) {
+        if (limit == null) return null;
+        try {
+            int value = Integer.parseInt(limit);
+            if (value < 1) throw new NumberFormatException();
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("limit must be a positive integer");
+        }
+    }
+
+    static Map<String, Object> statsResponse(StatsSnapshot stats) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", stats.getCount());
+        m.put("palindrome_count", stats.getPalindromeCount());
+        m.put("length", distributionResponse(stats.getLength(), stats.getCount()));
+        m.put("word_count", distributionResponse(stats.getWordCount(), stats.getCount()));
+        m.put("character_frequency", stats.getCharacterFrequency());
+        return m;
+    }
+
+    // Histogram buckets are powers of two: [0, 0], [1, 1], [2, 3], [4, 7], ...; empty ones are left out
+    private static Map<String, Object> distributionResponse(StatsSnapshot.Distribution d, long count) {
+        List<Map<String, Object>> histogram = new ArrayList<>();
+        long[] buckets = d.getHistogram();
+        for (int i = 0; i < buckets.length; i++) {
+            if (buckets[i] == 0) continue;
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("min", StatsSnapshot.bucketMin(i));
+            bucket.put("max", StatsSnapshot.bucketMin(i + 1) - 1);
+            bucket.put("count", buckets[i]);
+            histogram.add(bucket);
+        }
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("min", d.getMin());
+        m.put("max", d.getMax());
+        m.put("mean", d.mean(count));
+        m.put("total", d.getTotal());
+        m.put("histogram", histogram);
+        return m;
+    }
+
     // Utility: convert AnalyzedString to response map with created_at in ISO format
-    private Map<String, Object> toResponse(AnalyzedString entry) {
+    static Map<String, Object> toResponse(AnalyzedString entry) {
         Map<String, Object> m = new HashMap<>();
         m.put("id", entry.getId());
-        m.put("value", entry.getValue());
+        m.put("value", entry.isValueOnDisk() ? new FileBackedValue(entry.getValueFile()) : entry.getValue());
         m.put("properties", Map.of(
                 "length", entry.getProperties().getLength(),
                 "is_palindrome", entry.getProperties().isIs_palindrome(),
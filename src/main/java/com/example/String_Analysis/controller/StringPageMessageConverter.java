@@ -0,0 +1,99 @@
+package com.example.String_Analysis.controller;
+
+import com.example.String_Analysis.dto.StringPage;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.util.EntryJson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Streams a StringPage as compact JSON (or CBOR/Smile, per Accept) entry by entry, so large
+// listings never exist as a tree of maps or as one big buffer. With the EntryJsonCache enabled,
+// JSON entries are copied from their cached encoding instead of being written field by field.
+public class StringPageMessageConverter extends AbstractHttpMessageConverter<StringPage> {
+
+    private final ObjectMapper objectMapper;
+    // Listings are written compact even though the app pretty-prints other responses
+    private final ObjectWriter compactWriter;
+    private final EntryJsonCache entryCache;
+
+    public StringPageMessageConverter(ObjectMapper objectMapper, EntryJsonCache entryCache) {
+        super(WireFormats.SUPPORTED);
+        this.objectMapper = objectMapper;
+        this.compactWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.entryCache = entryCache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return StringPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected StringPage readInternal(Class<? extends StringPage> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("StringPage is response-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(StringPage page, HttpOutputMessage outputMessage) throws IOException {
+        JsonFactory factory = WireFormats.factory(outputMessage.getHeaders().getContentType(), objectMapper.getFactory());
+        OutputStream out = StreamUtils.nonClosing(outputMessage.getBody());
+        try (JsonGenerator gen = factory.createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("data");
+            if (entryCache.isEnabled() && factory == objectMapper.getFactory()) {
+                // The array is filled behind the generator's back, so it writes the separators
+                gen.flush();
+                writeCachedEntries(out, page);
+            } else {
+                for (AnalyzedString entry : page.getData()) {
+                    writeEntry(gen, entry);
+                }
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("count", page.getData().size());
+            gen.writeFieldName(page.getQueryKey());
+            compactWriter.writeValue(gen, page.getQuery());
+            if (page.getNextCursor() != null) gen.writeStringField("next_cursor", page.getNextCursor());
+            gen.writeEndObject();
+        }
+    }
+
+    private void writeCachedEntries(OutputStream out, StringPage page) throws IOException {
+        boolean first = true;
+        for (AnalyzedString entry : page.getData()) {
+            if (!first) out.write(',');
+            first = false;
+            byte[] json = entryCache.get(entry);
+            if (json != null) {
+                out.write(json);
+            } else {
+                try (JsonGenerator gen = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(out))) {
+                    writeEntry(gen, entry);
+                }
+            }
+        }
+    }
+
+    // Same fields as StringController.toResponse. The binary formats can't stream a string from
+    // a file, so there a value kept on disk is replaced by value_url, as in POST /strings/stream.
+    static void writeEntry(JsonGenerator gen, AnalyzedString entry) throws IOException {
+        EntryJson.write(gen, entry, gen.canWriteBinaryNatively());
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.String_Analysis.controller;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+
+// Encodings the entry and page converters can write, picked by the negotiated Content-Type.
+// CBOR and Smile carry the same fields as the JSON, just in a compact binary form.
+final class WireFormats {
+
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    static final MediaType[] SUPPORTED = {MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, SMILE};
+
+    private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+    private static final SmileFactory SMILE_FACTORY = new SmileFactory();
+
+    private WireFormats() {
+    }
+
+    // The factory for contentType, or json for JSON (and anything unrecognized)
+    static JsonFactory factory(MediaType contentType, JsonFactory json) {
+        if (contentType == null) return json;
+        if (MediaType.APPLICATION_CBOR.isCompatibleWith(contentType)) return CBOR_FACTORY;
+        if (SMILE.isCompatibleWith(contentType)) return SMILE_FACTORY;
+        return json;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.String_Analysis.dto;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Corpus-wide aggregates at one point in time (GET /strings/stats). Histograms count values per
+// power-of-two bucket: bucket 0 holds 0, bucket i holds [2^(i-1), 2^i - 1]. Everything here can
+// be summed across nodes, so a sharded cluster merges the snapshots of its nodes.
+public class StatsSnapshot {
+
+    public static final int BUCKETS = 33;
+
+    private final long count;
+    private final long palindromeCount;
+    private final Distribution length;
+    private final Distribution wordCount;
+    private final Map<String, Long> characterFrequency;
+
+    public StatsSnapshot(long count, long palindromeCount, Distribution length, Distribution wordCount,
+                         Map<String, Long> characterFrequency) {
+        this.count = count;
+        this.palindromeCount = palindromeCount;
+        this.length = length;
+        this.wordCount = wordCount;
+        this.characterFrequency = characterFrequency;
+    }
+
+    public long getCount() { return count; }
+    public long getPalindromeCount() { return palindromeCount; }
+    public Distribution getLength() { return length; }
+    public Distribution getWordCount() { return wordCount; }
+    public Map<String, Long> getCharacterFrequency() { return characterFrequency; }
+
+    public StatsSnapshot merge(StatsSnapshot other) {
+        Map<String, Long> characters = new TreeMap<>(characterFrequency);
+        other.characterFrequency.forEach((c, n) -> characters.merge(c, n, Long::sum));
+        return new StatsSnapshot(count + other.count, palindromeCount + other.palindromeCount,
+                length.merge(other.length), wordCount.merge(other.wordCount), characters);
+    }
+
+    public static int bucketOf(long value) {
+        return 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    // Smallest value of a bucket; the largest is bucketMin(bucket + 1) - 1
+    public static long bucketMin(int bucket) {
+        return bucket == 0 ? 0 : 1L << (bucket - 1);
+    }
+
+    // min/max are null when there are no values
+    public static class Distribution {
+        private final Long min;
+        private final Long max;
+        private final long total;
+        private final long[] histogram;
+
+        public Distribution(Long min, Long max, long total, long[] histogram) {
+            this.min = min;
+            this.max = max;
+            this.total = total;
+            this.histogram = histogram;
+        }
+
+        public Long getMin() { return min; }
+        public Long getMax() { return max; }
+        public long getTotal() { return total; }
+        public long[] getHistogram() { return histogram; }
+
+        public Double mean(long count) {
+            return count == 0 ? null : (double) total / count;
+        }
+
+        Distribution merge(Distribution other) {
+            long[] merged = Arrays.copyOf(histogram, BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) merged[i] += other.histogram[i];
+            return new Distribution(min == null ? other.min : other.min == null ? min : Math.min(min, other.min),
+                    max == null ? other.max : other.max == null ? max : Math.max(max, other.max),
+                    total + other.total, merged);
+        }
+    }
+}
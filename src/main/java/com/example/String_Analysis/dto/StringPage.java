@@ -0,0 +1,27 @@
+package com.example.String_Analysis.dto;
+
+import com.example.String_Analysis.model.AnalyzedString;
+
+import java.util.List;
+import java.util.Map;
+
+// List response ({ data, count, <queryKey>, next_cursor? }), written by StringPageMessageConverter
+// straight to the response stream instead of being converted to maps first
+public class StringPage {
+    private final List<AnalyzedString> data;
+    private final String queryKey;
+    private final Map<String, Object> query;
+    private final String nextCursor;
+
+    public StringPage(List<AnalyzedString> data, String queryKey, Map<String, Object> query, String nextCursor) {
+        this.data = data;
+        this.queryKey = queryKey;
+        this.query = query;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AnalyzedString> getData() { return data; }
+    public String getQueryKey() { return queryKey; }
+    public Map<String, Object> getQuery() { return query; }
+    public String getNextCursor() { return nextCursor; }
+}
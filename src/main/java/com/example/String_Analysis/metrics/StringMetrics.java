@@ -0,0 +1,76 @@
+package com.example.String_Analysis.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Timers on the StringService hot paths. Meters are registered once and kept in fields, so
+// recording is a nanoTime difference plus a lock-free histogram update.
+// Any meter can be switched off with management.metrics.enable.<name prefix>=false.
+@Component
+public class StringMetrics {
+
+    static final String[] PREDICATES = {"is_palindrome", "min_length", "max_length", "word_count", "contains_character",
+            "contains_substring"};
+
+    private final MeterRegistry registry;
+    private final Timer hash;
+    private final Timer analyze;
+    private final Timer insert;
+    // One filter timer per combination of predicates, indexed by bit mask over PREDICATES
+    private final AtomicReferenceArray<Timer> filters = new AtomicReferenceArray<>(1 << PREDICATES.length);
+
+    public StringMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.hash = stage("hash");
+        this.analyze = stage("analyze");
+        this.insert = stage("insert");
+    }
+
+    // For code running outside Spring: a registry with no backends, so every meter is a no-op
+    public static StringMetrics noop() {
+        return new StringMetrics(new CompositeMeterRegistry());
+    }
+
+    private Timer stage(String name) {
+        return Timer.builder("strings.create.stage")
+                .description("Time spent in each stage of creating a string")
+                .tag("stage", name)
+                .register(registry);
+    }
+
+    public void recordHash(long nanos) { hash.record(nanos, TimeUnit.NANOSECONDS); }
+    public void recordAnalyze(long nanos) { analyze.record(nanos, TimeUnit.NANOSECONDS); }
+    public void recordInsert(long nanos) { insert.record(nanos, TimeUnit.NANOSECONDS); }
+
+    public void recordFilter(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount,
+                             String containsCharacter, String containsSubstring, long nanos) {
+        int mask = (isPalindrome != null ? 1 : 0) | (minLength != null ? 2 : 0) | (maxLength != null ? 4 : 0)
+                | (wordCount != null ? 8 : 0) | (containsCharacter != null ? 16 : 0)
+                | (containsSubstring != null ? 32 : 0);
+        Timer timer = filters.get(mask);
+        if (timer == null) {
+            // Registering is idempotent, so a race here just registers the same meter twice
+            timer = Timer.builder("strings.filter")
+                    .description("Time to answer a filter query, by the predicates it used")
+                    .tag("predicates", predicatesTag(mask))
+                    .register(registry);
+            filters.set(mask, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    static String predicatesTag(int mask) {
+        if (mask == 0) return "none";
+        StringJoiner joiner = new StringJoiner("+");
+        for (int i = 0; i < PREDICATES.length; i++) {
+            if ((mask & (1 << i)) != 0) joiner.add(PREDICATES[i]);
+        }
+        return joiner.toString();
+    }
+}
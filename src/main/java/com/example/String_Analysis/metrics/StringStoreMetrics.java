@@ -0,0 +1,144 @@
+package com.example.String_Analysis.metrics;
+
+import com.example.String_Analysis.controller.EntryJsonCache;
+import com.example.String_Analysis.persistence.FileStringJournal;
+import com.example.String_Analysis.persistence.StringJournal;
+import com.example.String_Analysis.service.AsyncIngestService;
+import com.example.String_Analysis.service.ChangeFeed;
+import com.example.String_Analysis.service.FilterResultCache;
+import com.example.String_Analysis.service.MembershipFilter;
+import com.example.String_Analysis.service.QueryPlanCache;
+import com.example.String_Analysis.store.MemoryBudget;
+import com.example.String_Analysis.store.StringStore;
+import com.example.String_Analysis.store.TieredStringStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+// Gauges and counters read from the store and caches at scrape time; nothing on the request path
+@Component
+public class StringStoreMetrics implements MeterBinder {
+
+    private final StringStore store;
+    private final FilterResultCache filterCache;
+    private final QueryPlanCache planCache;
+    private final EntryJsonCache entryCache;
+    private final MembershipFilter membership;
+    private final ChangeFeed changes;
+    private final AsyncIngestService asyncIngest;
+    private final StringJournal journal;
+
+    public StringStoreMetrics(StringStore store, FilterResultCache filterCache, QueryPlanCache planCache,
+                              EntryJsonCache entryCache, MemoryBudget memory, MembershipFilter membership,
+                              ChangeFeed changes, AsyncIngestService asyncIngest, StringJournal journal) {
+        // The same tiered store StringService uses, when memory is bounded
+        this.store = memory.apply(store);
+        this.filterCache = filterCache;
+        this.planCache = planCache;
+        this.entryCache = entryCache;
+        this.membership = membership;
+        this.changes = changes;
+        this.asyncIngest = asyncIngest;
+        this.journal = journal;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("strings.store.size", store, StringStore::size)
+                .description("Number of stored strings")
+                .register(registry);
+        Gauge.builder("strings.store.heap.per.entry", store, StringStoreMetrics::heapPerEntry)
+                .description("Estimated heap used per stored string")
+                .baseUnit("bytes")
+                .register(registry);
+
+        FunctionCounter.builder("strings.filter.cache", filterCache, FilterResultCache::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("strings.filter.cache", filterCache, FilterResultCache::getMisses)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("strings.nl.plan.cache", planCache, QueryPlanCache::getHits)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("strings.nl.plan.cache", planCache, QueryPlanCache::getMisses)
+                .tag("result", "miss").register(registry);
+        if (entryCache.isEnabled()) {
+            FunctionCounter.builder("strings.response.cache", entryCache, EntryJsonCache::getHits)
+                    .tag("result", "hit").register(registry);
+            FunctionCounter.builder("strings.response.cache", entryCache, EntryJsonCache::getMisses)
+                    .tag("result", "miss").register(registry);
+            Gauge.builder("strings.response.cache.size", entryCache, EntryJsonCache::getBytes)
+                    .description("Bytes of cached entry JSON")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+        if (membership.isEnabled()) {
+            FunctionCounter.builder("strings.membership.filter", membership, MembershipFilter::getNegatives)
+                    .tag("result", "negative").register(registry);
+            FunctionCounter.builder("strings.membership.filter", membership, MembershipFilter::getFalsePositives)
+                    .tag("result", "false_positive").register(registry);
+            Gauge.builder("strings.membership.filter.size", membership, MembershipFilter::heapBytes)
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+        Gauge.builder("strings.changes.subscribers", changes, ChangeFeed::getSubscribers)
+                .description("Open GET /strings/changes streams")
+                .register(registry);
+        FunctionCounter.builder("strings.changes.overflows", changes, ChangeFeed::getOverflows)
+                .description("Change feed subscribers disconnected for falling behind")
+                .register(registry);
+        if (asyncIngest.isEnabled()) {
+            Gauge.builder("strings.ingest.queue.size", asyncIngest, AsyncIngestService::getQueueSize)
+                    .description("Values queued by POST /strings?async=true and not yet analyzed")
+                    .register(registry);
+            FunctionCounter.builder("strings.ingest.rejected", asyncIngest, AsyncIngestService::getRejected)
+                    .description("Asynchronous creates turned away with 429 because the queue was full")
+                    .register(registry);
+        }
+        if (journal instanceof FileStringJournal file) {
+            // Set once by the startup replay
+            Gauge.builder("strings.journal.recovery.snapshot.entries", file, FileStringJournal::getRecoveredSnapshotEntries)
+                    .description("Entries loaded from the snapshot at startup")
+                    .register(registry);
+            Gauge.builder("strings.journal.recovery.log.records", file, FileStringJournal::getRecoveredLogRecords)
+                    .description("Log records replayed after the snapshot at startup")
+                    .register(registry);
+            Gauge.builder("strings.journal.recovery.read", file, FileStringJournal::getRecoveredBytes)
+                    .description("Bytes of snapshot and log read at startup")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("strings.journal.recovery.time", file, j -> j.getRecoveryMillis() / 1000.0)
+                    .description("Time taken by the startup replay")
+                    .baseUnit("seconds")
+                    .register(registry);
+        }
+        if (store instanceof TieredStringStore tiered) {
+            FunctionCounter.builder("strings.store.lookups", tiered, TieredStringStore::getMemoryHits)
+                    .tag("tier", "memory").register(registry);
+            FunctionCounter.builder("strings.store.lookups", tiered, TieredStringStore::getSpillHits)
+                    .tag("tier", "spill").register(registry);
+            FunctionCounter.builder("strings.store.evictions", tiered, TieredStringStore::getEvictions)
+                    .register(registry);
+            FunctionCounter.builder("strings.store.spill.io", tiered, TieredStringStore::getSpillBytesWritten)
+                    .tag("direction", "write").baseUnit("bytes").register(registry);
+            FunctionCounter.builder("strings.store.spill.io", tiered, TieredStringStore::getSpillBytesRead)
+                    .tag("direction", "read").baseUnit("bytes").register(registry);
+            Gauge.builder("strings.store.resident.bytes", tiered, TieredStringStore::getResidentBytes)
+                    .description("Estimated heap used by the entries kept in memory")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("strings.store.spilled", tiered, TieredStringStore::getSpilledCount)
+                    .description("Number of stored strings spilled to disk")
+                    .register(registry);
+            Gauge.builder("strings.store.spill.disk.bytes", tiered, TieredStringStore::getSpillDiskBytes)
+                    .description("Bytes of live spill records on disk")
+                    .baseUnit("bytes")
+                    .register(registry);
+        }
+    }
+
+    private static double heapPerEntry(StringStore store) {
+        int size = store.size();
+        return size == 0 ? 0 : (double) store.estimatedHeapBytes() / size;
+    }
+}
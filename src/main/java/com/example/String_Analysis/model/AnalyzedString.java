@@ -1,23 +1,39 @@
 package com.example.String_Analysis.model;
 
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Map;
 
 public class AnalyzedString {
-    private final String id; // sha256 hash
+    private final StringId id; // sha256 hash
     private final String value;
+    // Set instead of value for large values kept on disk (UTF-8) by POST /strings/stream
+    private final Path valueFile;
     private final Properties properties;
     private final Instant createdAt;
 
-    public AnalyzedString(String id, String value, Properties properties, Instant createdAt) {
+    public AnalyzedString(StringId id, String value, Properties properties, Instant createdAt) {
+        this(id, value, null, properties, createdAt);
+    }
+
+    public AnalyzedString(StringId id, Path valueFile, Properties properties, Instant createdAt) {
+        this(id, null, valueFile, properties, createdAt);
+    }
+
+    private AnalyzedString(StringId id, String value, Path valueFile, Properties properties, Instant createdAt) {
         this.id = id;
         this.value = value;
+        this.valueFile = valueFile;
         this.properties = properties;
         this.createdAt = createdAt;
     }
 
-    public String getId() { return id; }
+    public String getId() { return id.toHex(); }
+    public StringId getKey() { return id; }
+    // null for entries whose value is on disk
     public String getValue() { return value; }
+    public Path getValueFile() { return valueFile; }
+    public boolean isValueOnDisk() { return valueFile != null; }
     public Properties getProperties() { return properties; }
     public Instant getCreatedAt() { return createdAt; }
 
@@ -26,11 +42,11 @@ public class AnalyzedString {
         private final boolean isPalindrome;
         private final int uniqueCharacters;
         private final int wordCount;
-        private final String sha256Hash;
+        private final StringId sha256Hash;
         private final Map<String, Integer> characterFrequencyMap;
 
         public Properties(int length, boolean isPalindrome, int uniqueCharacters, int wordCount,
-                          String sha256Hash, Map<String, Integer> characterFrequencyMap) {
+                          StringId sha256Hash, Map<String, Integer> characterFrequencyMap) {
             this.length = length;
             this.isPalindrome = isPalindrome;
             this.uniqueCharacters = uniqueCharacters;
@@ -43,7 +59,8 @@ public class AnalyzedString {
         public boolean isIs_palindrome() { return isPalindrome; }
         public int getUnique_characters() { return uniqueCharacters; }
         public int getWord_count() { return wordCount; }
-        public String getSha256_hash() { return sha256Hash; }
+        public String getSha256_hash() { return sha256Hash.toHex(); }
+        public StringId getSha256Key() { return sha256Hash; }
         public Map<String, Integer> getCharacter_frequency_map() { return characterFrequencyMap; }
     }
 }
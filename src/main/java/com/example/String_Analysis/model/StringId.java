@@ -0,0 +1,97 @@
+package com.example.String_Analysis.model;
+
+// Binary sha256 id: 32 bytes held as 4 longs (big-endian). Used as the store key instead of
+// the 64-char hex string, which is only produced at the API edge by toHex().
+// Ordering matches the lexical order of the hex form.
+public final class StringId implements Comparable<StringId> {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final long w0;
+    private final long w1;
+    private final long w2;
+    private final long w3;
+
+    public StringId(long w0, long w1, long w2, long w3) {
+        this.w0 = w0;
+        this.w1 = w1;
+        this.w2 = w2;
+        this.w3 = w3;
+    }
+
+    public static StringId fromBytes(byte[] digest) {
+        if (digest.length != 32) throw new IllegalArgumentException("sha256 digest must be 32 bytes");
+        return new StringId(readLong(digest, 0), readLong(digest, 8), readLong(digest, 16), readLong(digest, 24));
+    }
+
+    // Lowercase only, like the ids handed out by the API
+    public static StringId fromHex(String hex) {
+        if (hex == null || hex.length() != 64) throw new IllegalArgumentException("id must be 64 hex characters");
+        long[] w = new long[4];
+        for (int i = 0; i < 64; i++) {
+            char c = hex.charAt(i);
+            int d = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+            if (d < 0) throw new IllegalArgumentException("id must be 64 hex characters");
+            w[i >> 4] = (w[i >> 4] << 4) | d;
+        }
+        return new StringId(w[0], w[1], w[2], w[3]);
+    }
+
+    public long word(int i) {
+        return switch (i) {
+            case 0 -> w0;
+            case 1 -> w1;
+            case 2 -> w2;
+            case 3 -> w3;
+            default -> throw new IndexOutOfBoundsException(i);
+        };
+    }
+
+    public String toHex() {
+        char[] out = new char[64];
+        writeHex(out, 0, w0);
+        writeHex(out, 16, w1);
+        writeHex(out, 32, w2);
+        writeHex(out, 48, w3);
+        return new String(out);
+    }
+
+    @Override
+    public int compareTo(StringId o) {
+        int c = Long.compareUnsigned(w0, o.w0);
+        if (c == 0) c = Long.compareUnsigned(w1, o.w1);
+        if (c == 0) c = Long.compareUnsigned(w2, o.w2);
+        if (c == 0) c = Long.compareUnsigned(w3, o.w3);
+        return c;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StringId other)) return false;
+        return w0 == other.w0 && w1 == other.w1 && w2 == other.w2 && w3 == other.w3;
+    }
+
+    // The id is a hash already; any 32 bits of it are well distributed
+    @Override
+    public int hashCode() {
+        return (int) (w0 ^ (w0 >>> 32));
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+
+    private static long readLong(byte[] b, int off) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) v = (v << 8) | (b[off + i] & 0xFF);
+        return v;
+    }
+
+    private static void writeHex(char[] out, int off, long w) {
+        for (int i = 15; i >= 0; i--) {
+            out[off + i] = HEX_DIGITS[(int) w & 0xF];
+            w >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,573 @@
+package com.example.String_Analysis.persistence;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// Local persistence (string-analyzer.persistence.enabled=true).
+//
+// Layout of string-analyzer.persistence.dir:
+//   wal-<generation>.log  append-only log of create/delete records
+//   snapshot.bin          all live entries, plus the first log generation it does not cover
+//
+// Every file starts with [magic int][version int][generation long]; every record is
+// [type byte][length int][payload][crc32 int]. Only values and createdAt are stored (for values
+// kept on disk, the id naming the value file); properties are recomputed on recovery, in
+// parallel for the snapshot.
+//
+// Durability levels:
+//   SYNC   each append is written and fsynced before it returns
+//   GROUP  appends wait for a background flusher that fsyncs everything pending at once
+//   ASYNC  appends return immediately; the flusher fsyncs every flush-interval-ms
+//
+// Snapshots rotate to a new log generation first and then copy the store, so the snapshot
+// may already contain some operations of the newer log. Replay is idempotent (create skips
+// existing values, delete ignores missing ones), so replaying those again is harmless.
+// StringService applies an operation before journaling it, which guarantees every record
+// in an older generation is visible to the snapshot.
+@Component
+@ConditionalOnProperty(name = "string-analyzer.persistence.enabled", havingValue = "true")
+public class FileStringJournal implements StringJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(FileStringJournal.class);
+
+    public enum Durability { SYNC, GROUP, ASYNC }
+
+    private static final int LOG_MAGIC = 0x53414C47;      // "SALG"
+    private static final int SNAPSHOT_MAGIC = 0x53415353; // "SASS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final byte CREATE = 1;
+    private static final byte DELETE = 2;
+    private static final byte END = 3;
+    private static final byte CREATE_ON_DISK = 4;
+    private static final byte DELETE_BY_ID = 5;
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final long MAP_WINDOW = 64L << 20;
+    private static final int REPLAY_BATCH = 8192;
+
+    private final Path dir;
+    private final Durability durability;
+    private final long flushIntervalMillis;
+    private final long snapshotMinOps;
+    private final long snapshotIntervalSeconds;
+
+    // ioLock serializes file writes, rotation and snapshots; lock guards the pending buffer
+    // and sequence numbers. ioLock is always taken first.
+    private final ReentrantLock ioLock = new ReentrantLock();
+    private final Object lock = new Object();
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appendedSeq;
+    private long durableSeq;
+    private IOException failure;
+    private boolean closed;
+
+    private FileChannel segment;
+    private long generation;
+    private final AtomicLong opsSinceSnapshot = new AtomicLong();
+    private Consumer<Consumer<AnalyzedString>> snapshotSource;
+    private Thread flusher;
+    private ScheduledExecutorService snapshotter;
+
+    // Recovery metrics of the last open()
+    private volatile long recoveredSnapshotEntries;
+    private volatile long recoveredLogRecords;
+    private volatile long recoveredBytes;
+    private volatile long recoveryMillis;
+
+    public FileStringJournal(@Value("${string-analyzer.persistence.dir:data}") String dir,
+                             @Value("${string-analyzer.persistence.durability:group}") String durability,
+                             @Value("${string-analyzer.persistence.flush-interval-ms:10}") long flushIntervalMillis,
+                             @Value("${string-analyzer.persistence.snapshot.min-ops:100000}") long snapshotMinOps,
+                             @Value("${string-analyzer.persistence.snapshot.interval-seconds:60}") long snapshotIntervalSeconds) {
+        this.dir = Paths.get(dir);
+        this.durability = Durability.valueOf(durability.toUpperCase(Locale.ROOT));
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.snapshotMinOps = snapshotMinOps;
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+    }
+
+    @Override
+    public void open(Replay replay, Consumer<Consumer<AnalyzedString>> snapshotSource) {
+        this.snapshotSource = snapshotSource;
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(dir);
+
+            long firstGeneration = 0;
+            Path snapshot = dir.resolve(SNAPSHOT_FILE);
+            if (Files.exists(snapshot)) {
+                firstGeneration = replaySnapshot(snapshot, replay);
+                recoveredBytes += Files.size(snapshot);
+            }
+
+            long lastGeneration = firstGeneration - 1;
+            for (long gen : segmentGenerations()) {
+                Path file = segmentPath(gen);
+                if (gen < firstGeneration) {
+                    // Already covered by the snapshot; left behind by a crash during compaction
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                replaySegment(file, replay);
+                recoveredBytes += Files.size(file);
+                lastGeneration = gen;
+            }
+
+            generation = lastGeneration + 1;
+            segment = openSegment(generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover journal from " + dir, e);
+        }
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("Recovered {} snapshot entries and {} log records ({} bytes) from {} in {} ms",
+                recoveredSnapshotEntries, recoveredLogRecords, recoveredBytes, dir, recoveryMillis);
+
+        if (durability != Durability.SYNC) {
+            flusher = new Thread(this::flushLoop, "string-journal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "string-journal-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotIfDue,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void appendCreate(String value, Instant createdAt) {
+        append(createRecord(value, createdAt));
+    }
+
+    // One group of pending bytes, so the whole batch is flushed and waited for once
+    @Override
+    public void appendCreates(List<AnalyzedString> entries) {
+        byte[][] records = new byte[entries.size()][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = createRecord(entries.get(i).getValue(), entries.get(i).getCreatedAt());
+        }
+        append(records);
+    }
+
+    @Override
+    public void appendCreateOnDisk(StringId id, Instant createdAt) {
+        append(record(CREATE_ON_DISK, onDiskPayload(id, createdAt)));
+    }
+
+    @Override
+    public void appendDelete(String value) {
+        ByteBuffer payload = ByteBuffer.allocate(charsSize(value));
+        putChars(payload, value);
+        append(record(DELETE, payload.array()));
+    }
+
+    @Override
+    public void appendDeleteById(StringId id) {
+        ByteBuffer payload = ByteBuffer.allocate(32);
+        for (int i = 0; i < 4; i++) payload.putLong(id.word(i));
+        append(record(DELETE_BY_ID, payload.array()));
+    }
+
+    // Rotates the log and writes a compacted snapshot of the current entries
+    public synchronized void snapshot() throws IOException {
+        long coveredUpTo;
+        ioLock.lock();
+        try {
+            flush();
+            segment.close();
+            generation++;
+            segment = openSegment(generation);
+            coveredUpTo = generation;
+            opsSinceSnapshot.set(0);
+        } finally {
+            ioLock.unlock();
+        }
+
+        long[] entries = new long[1];
+        Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16);
+            out.write(header(SNAPSHOT_MAGIC, coveredUpTo));
+            try {
+                snapshotSource.accept(e -> {
+                    try {
+                        writeSnapshotEntry(out, e);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                    entries[0]++;
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.write(record(END, ByteBuffer.allocate(8).putLong(entries[0]).array()));
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, dir.resolve(SNAPSHOT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (long gen : segmentGenerations()) {
+            if (gen < coveredUpTo) Files.deleteIfExists(segmentPath(gen));
+        }
+        log.info("Wrote snapshot of {} entries; log now starts at generation {}", entries[0], coveredUpTo);
+    }
+
+    private void writeSnapshotEntry(OutputStream out, AnalyzedString e) throws IOException {
+        if (e.isValueOnDisk()) {
+            out.write(record(CREATE_ON_DISK, onDiskPayload(e.getKey(), e.getCreatedAt())));
+            return;
+        }
+        out.write(createRecord(e.getValue(), e.getCreatedAt()));
+    }
+
+    private static byte[] createRecord(String value, Instant createdAt) {
+        ByteBuffer payload = ByteBuffer.allocate(12 + charsSize(value));
+        payload.putLong(createdAt.getEpochSecond()).putInt(createdAt.getNano());
+        putChars(payload, value);
+        return record(CREATE, payload.array());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (snapshotter != null) snapshotter.shutdownNow();
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        if (flusher != null) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        ioLock.lock();
+        try {
+            if (segment != null) {
+                flush();
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close journal segment", e);
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    public long getRecoveredSnapshotEntries() { return recoveredSnapshotEntries; }
+    public long getRecoveredLogRecords() { return recoveredLogRecords; }
+    public long getRecoveredBytes() { return recoveredBytes; }
+    public long getRecoveryMillis() { return recoveryMillis; }
+    public Durability getDurability() { return durability; }
+
+    // --- Appending ---
+
+    private void append(byte[]... records) {
+        long seq;
+        synchronized (lock) {
+            if (failure != null) throw new UncheckedIOException("Journal is failed", failure);
+            if (closed) throw new IllegalStateException("Journal is closed");
+            for (byte[] record : records) pending.write(record, 0, record.length);
+            seq = ++appendedSeq;
+            lock.notifyAll();
+        }
+        opsSinceSnapshot.addAndGet(records.length);
+
+        if (durability == Durability.SYNC) flush();
+        if (durability != Durability.ASYNC) awaitDurable(seq);
+    }
+
+    private void awaitDurable(long seq) {
+        synchronized (lock) {
+            try {
+                while (durableSeq < seq && failure == null) lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for journal flush"));
+            }
+            if (durableSeq < seq) throw new UncheckedIOException("Journal write failed", failure);
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            synchronized (lock) {
+                try {
+                    while (!closed && pending.size() == 0) lock.wait();
+                    // ASYNC batches up to one interval of appends per fsync
+                    if (!closed && durability == Durability.ASYNC) lock.wait(flushIntervalMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) return;
+            }
+            flush();
+        }
+    }
+
+    // Writes and fsyncs everything pending. Appends arriving meanwhile form the next group.
+    private void flush() {
+        ioLock.lock();
+        try {
+            byte[] bytes;
+            long target;
+            synchronized (lock) {
+                if (pending.size() == 0) return;
+                bytes = pending.toByteArray();
+                pending.reset();
+                target = appendedSeq;
+            }
+            IOException error = null;
+            try {
+                ByteBuffer buf = ByteBuffer.wrap(bytes);
+                while (buf.hasRemaining()) segment.write(buf);
+                segment.force(false);
+            } catch (IOException e) {
+                error = e;
+                log.error("Journal write failed; further writes will be rejected", e);
+            }
+            synchronized (lock) {
+                if (error != null) failure = error;
+                else durableSeq = target;
+                lock.notifyAll();
+            }
+        } finally {
+            ioLock.unlock();
+        }
+    }
+
+    private void snapshotIfDue() {
+        if (opsSinceSnapshot.get() < snapshotMinOps) return;
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.error("Snapshot failed; the log keeps growing until the next attempt", e);
+        }
+    }
+
+    // --- Recovery ---
+
+    private long replaySnapshot(Path file, Replay replay) throws IOException {
+        try (MappedRecords records = new MappedRecords(file, SNAPSHOT_MAGIC)) {
+            List<Object[]> batch = new ArrayList<>(REPLAY_BATCH);
+            MappedRecords.Record r;
+            boolean complete = false;
+            while ((r = records.next()) != null) {
+                if (r.type == END) {
+                    complete = true;
+                    break;
+                }
+                Instant createdAt = Instant.ofEpochSecond(r.payload.getLong(), r.payload.getInt());
+                batch.add(new Object[] {r.type == CREATE_ON_DISK ? getId(r.payload) : getChars(r.payload), createdAt});
+                if (batch.size() == REPLAY_BATCH) {
+                    replayBatch(batch, replay);
+                    batch = new ArrayList<>(REPLAY_BATCH);
+                }
+            }
+            replayBatch(batch, replay);
+            // Snapshots are renamed into place only once complete, so this is real corruption
+            if (!complete) throw new IOException("Snapshot " + file + " is truncated or corrupt");
+            return records.generation;
+        }
+    }
+
+    private void replayBatch(List<Object[]> batch, Replay replay) {
+        // Snapshot entries are creates of distinct ids (a store that was moving an entry between
+        // tiers may list it twice; the second insert is skipped), so they can run in parallel
+        batch.parallelStream().forEach(e -> {
+            if (e[0] instanceof StringId id) replay.createdOnDisk(id, (Instant) e[1]);
+            else replay.created((String) e[0], (Instant) e[1]);
+        });
+        recoveredSnapshotEntries += batch.size();
+    }
+
+    private void replaySegment(Path file, Replay replay) throws IOException {
+        try (MappedRecords records = new MappedRecords(file, LOG_MAGIC)) {
+            MappedRecords.Record r;
+            while ((r = records.next()) != null) {
+                if (r.type == CREATE) {
+                    Instant createdAt = Instant.ofEpochSecond(r.payload.getLong(), r.payload.getInt());
+                    replay.created(getChars(r.payload), createdAt);
+                } else if (r.type == CREATE_ON_DISK) {
+                    Instant createdAt = Instant.ofEpochSecond(r.payload.getLong(), r.payload.getInt());
+                    replay.createdOnDisk(getId(r.payload), createdAt);
+                } else if (r.type == DELETE) {
+                    replay.deleted(getChars(r.payload));
+                } else if (r.type == DELETE_BY_ID) {
+                    replay.deletedById(getId(r.payload));
+                }
+                recoveredLogRecords++;
+            }
+            if (!records.atEnd()) {
+                // Torn tail from a crash mid-write; those operations were never acknowledged
+                log.warn("Ignoring incomplete tail of {} after offset {}", file, records.pos);
+            }
+        }
+    }
+
+    // --- Files and encoding ---
+
+    private FileChannel openSegment(long gen) throws IOException {
+        FileChannel ch = FileChannel.open(segmentPath(gen), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ch.write(ByteBuffer.wrap(header(LOG_MAGIC, gen)));
+        ch.force(true);
+        return ch;
+    }
+
+    private Path segmentPath(long gen) {
+        return dir.resolve(String.format("wal-%016d.log", gen));
+    }
+
+    private List<Long> segmentGenerations() throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "wal-*.log")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                gens.add(Long.parseLong(name.substring(4, name.length() - 4)));
+            }
+        }
+        gens.sort(null);
+        return gens;
+    }
+
+    private static byte[] header(int magic, long gen) {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(magic).putInt(VERSION).putLong(gen).array();
+    }
+
+    private static byte[] record(byte type, byte[] payload) {
+        ByteBuffer b = ByteBuffer.allocate(5 + payload.length + 4);
+        b.put(type).putInt(payload.length).put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(b.array(), 0, 5 + payload.length);
+        b.putInt((int) crc.getValue());
+        return b.array();
+    }
+
+    // Chars are stored as UTF-16 so unpaired surrogates survive the round trip
+    private static int charsSize(String value) {
+        if (value.length() > (Integer.MAX_VALUE - 64) / 2) {
+            throw new IllegalArgumentException("value too large to journal");
+        }
+        return 4 + value.length() * 2;
+    }
+
+    private static void putChars(ByteBuffer b, String value) {
+        b.putInt(value.length());
+        for (int i = 0; i < value.length(); i++) b.putChar(value.charAt(i));
+    }
+
+    private static byte[] onDiskPayload(StringId id, Instant createdAt) {
+        ByteBuffer payload = ByteBuffer.allocate(12 + 32);
+        payload.putLong(createdAt.getEpochSecond()).putInt(createdAt.getNano());
+        for (int i = 0; i < 4; i++) payload.putLong(id.word(i));
+        return payload.array();
+    }
+
+    private static StringId getId(ByteBuffer b) {
+        return new StringId(b.getLong(), b.getLong(), b.getLong(), b.getLong());
+    }
+
+    private static String getChars(ByteBuffer b) {
+        char[] chars = new char[b.getInt()];
+        b.asCharBuffer().get(chars);
+        return new String(chars);
+    }
+
+    // Reads records through a sliding memory-mapped window; stops at the first torn or corrupt record
+    private static final class MappedRecords implements Closeable {
+        private final FileChannel ch;
+        private final long size;
+        private final long generation;
+        private long pos;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        MappedRecords(Path file, int magic) throws IOException {
+            ch = FileChannel.open(file, StandardOpenOption.READ);
+            size = ch.size();
+            if (size < HEADER_BYTES) {
+                ch.close();
+                throw new IOException(file + " has no header");
+            }
+            ByteBuffer header = slice(0, HEADER_BYTES);
+            if (header.getInt() != magic || header.getInt() != VERSION) {
+                ch.close();
+                throw new IOException(file + " has an unknown format");
+            }
+            generation = header.getLong();
+            pos = HEADER_BYTES;
+        }
+
+        static final class Record {
+            final byte type;
+            final ByteBuffer payload;
+
+            Record(byte type, ByteBuffer payload) {
+                this.type = type;
+                this.payload = payload;
+            }
+        }
+
+        Record next() throws IOException {
+            if (pos + 5 > size) return null;
+            ByteBuffer head = slice(pos, 5);
+            byte type = head.get();
+            int length = head.getInt();
+            if (length < 0 || pos + 9 + length > size) return null;
+
+            ByteBuffer body = slice(pos, 9 + length);
+            CRC32 crc = new CRC32();
+            crc.update(body.duplicate().limit(5 + length));
+            if ((int) crc.getValue() != body.getInt(5 + length)) return null;
+
+            pos += 9 + length;
+            return new Record(type, body.position(5).limit(5 + length).slice());
+        }
+
+        boolean atEnd() {
+            return pos == size;
+        }
+
+        private ByteBuffer slice(long from, int length) throws IOException {
+            long to = from + length;
+            if (window == null || from < windowStart || to > windowStart + window.capacity()) {
+                windowStart = from;
+                window = ch.map(FileChannel.MapMode.READ_ONLY, from, Math.min(size - from, Math.max(MAP_WINDOW, length)));
+            }
+            return window.duplicate().position((int) (from - windowStart)).limit((int) (to - windowStart)).slice();
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+}
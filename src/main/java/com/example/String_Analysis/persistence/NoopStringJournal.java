@@ -0,0 +1,35 @@
+package com.example.String_Analysis.persistence;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+// Default: nothing is persisted and every restart starts empty
+@Component
+@ConditionalOnProperty(name = "string-analyzer.persistence.enabled", havingValue = "false", matchIfMissing = true)
+public class NoopStringJournal implements StringJournal {
+
+    @Override
+    public void open(Replay replay, Consumer<Consumer<AnalyzedString>> snapshotSource) {
+    }
+
+    @Override
+    public void appendCreate(String value, Instant createdAt) {
+    }
+
+    @Override
+    public void appendCreateOnDisk(StringId id, Instant createdAt) {
+    }
+
+    @Override
+    public void appendDelete(String value) {
+    }
+
+    @Override
+    public void appendDeleteById(StringId id) {
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.String_Analysis.persistence;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Durable record of creates and deletes, replayed into StringService on startup.
+// Appends throw UncheckedIOException if the operation could not be made durable.
+public interface StringJournal {
+
+    // Receives recovered operations. created() may be called from several threads at once.
+    interface Replay {
+        void created(String value, Instant createdAt);
+
+        // An entry whose value is in a file named by its id (see ValueFileStore)
+        void createdOnDisk(StringId id, Instant createdAt);
+
+        void deleted(String value);
+
+        // A delete by id (DELETE /strings/stream/{id}), e.g. of a value on disk
+        void deletedById(StringId id);
+    }
+
+    // Replays the stored state into replay, then starts accepting appends. snapshotSource
+    // passes each live entry to the given action whenever the journal compacts itself into a
+    // snapshot, so the entries are written out one at a time rather than collected first.
+    void open(Replay replay, Consumer<Consumer<AnalyzedString>> snapshotSource);
+
+    void appendCreate(String value, Instant createdAt);
+
+    // Creates of in-memory values, made durable together (one wait rather than one per record)
+    default void appendCreates(List<AnalyzedString> entries) {
+        for (AnalyzedString entry : entries) appendCreate(entry.getValue(), entry.getCreatedAt());
+    }
+
+    void appendCreateOnDisk(StringId id, Instant createdAt);
+
+    void appendDelete(String value);
+
+    void appendDeleteById(StringId id);
+}
@@ -0,0 +1,185 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.cluster.ShardUnavailableException;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+// POST /strings?async=true. The request thread only hashes the value and offers it to a
+// bounded queue; analyzer workers take up to batch-size values at a time, analyze them and
+// insert them through StringService in queue order. A full queue rejects the value instead of
+// letting requests wait, so a burst of large values can't tie up the request threads that
+// serve reads.
+//
+// The status of each value is kept by id for GET /strings/status/{id}. Pending values are
+// always known (at most the queue plus the batches being worked on); of the finished ones, the
+// last status-capacity are kept, oldest dropped first. status-capacity is raised to cover
+// queue-capacity + workers * batch-size, so an outcome outlives the backlog queued after it.
+@Service
+public class AsyncIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncIngestService.class);
+
+    public enum State { PENDING, CREATED, CONFLICT, FAILED }
+
+    public record Status(String id, State state, String message, Instant submittedAt, Instant createdAt) {
+    }
+
+    private record Job(String value, StringId id) {
+    }
+
+    private final StringService service;
+    private final BlockingQueue<Job> queue;
+    private final int batchSize;
+    private final int statusCapacity;
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running = true;
+
+    // Both guarded by pending. finished is in insertion order, so the eldest status is dropped first.
+    private final Map<StringId, Status> pending = new HashMap<>();
+    private final Map<StringId, Status> finished;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public AsyncIngestService(StringService service,
+                              @Value("${string-analyzer.async-ingest.queue-capacity:10000}") int queueCapacity,
+                              @Value("${string-analyzer.async-ingest.workers:0}") int workers,
+                              @Value("${string-analyzer.async-ingest.batch-size:256}") int batchSize,
+                              @Value("${string-analyzer.async-ingest.status-capacity:100000}") int statusCapacity) {
+        if (batchSize <= 0) throw new IllegalArgumentException("string-analyzer.async-ingest.batch-size must be > 0");
+        this.service = service;
+        this.queue = queueCapacity > 0 ? new ArrayBlockingQueue<>(queueCapacity) : null;
+        this.batchSize = batchSize;
+        int count = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.statusCapacity = (int) Math.min(Integer.MAX_VALUE,
+                Math.max(statusCapacity, Math.max(0, queueCapacity) + (long) count * batchSize));
+        this.finished = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StringId, Status> eldest) {
+                return size() > AsyncIngestService.this.statusCapacity;
+            }
+        };
+        if (queue == null) return;
+        for (int i = 0; i < count; i++) {
+            Thread t = new Thread(this::work, "async-ingest-" + (i + 1));
+            t.setDaemon(true);
+            t.start();
+            this.workers.add(t);
+        }
+    }
+
+    // False with string-analyzer.async-ingest.queue-capacity=0, or once shutting down
+    public boolean isEnabled() {
+        return queue != null && running;
+    }
+
+    // Queues a (trimmed, non-empty) value and returns its pending status. A value that is
+    // already queued gets its existing status back. IllegalStateException if it is already
+    // stored, RejectedExecutionException if the queue is full.
+    public Status submit(String value) {
+        if (!isEnabled()) throw new RejectedExecutionException("Asynchronous ingest is disabled");
+        StringId id = HashUtils.sha256(value);
+        if (service.existsById(id)) throw new IllegalStateException("exists");
+        Status status = new Status(id.toHex(), State.PENDING, null, Instant.now(), null);
+        synchronized (pending) {
+            Status current = pending.get(id);
+            if (current != null) return current;
+            // Offered under the lock, so a duplicate can't be queued between the check and the offer
+            if (!queue.offer(new Job(value, id))) {
+                rejected.increment();
+                throw new RejectedExecutionException("Ingest queue is full");
+            }
+            finished.remove(id);
+            pending.put(id, status);
+        }
+        return status;
+    }
+
+    // Status of a value submitted with async=true, or null if this node doesn't know the id
+    // (never submitted here, or finished before the status-capacity most recent)
+    public Status status(StringId id) {
+        synchronized (pending) {
+            Status status = pending.get(id);
+            return status != null ? status : finished.get(id);
+        }
+    }
+
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private void work() {
+        List<Job> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            // Analyze the whole batch, then insert it: the store sees a run of inserts back to back
+            List<AnalyzedString.Properties> analyzed = new ArrayList<>(batch.size());
+            for (Job job : batch) {
+                try {
+                    analyzed.add(service.analyze(job.value(), job.id()));
+                } catch (RuntimeException e) {
+                    analyzed.add(null);
+                    finish(job, State.FAILED, e.getMessage(), null);
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (analyzed.get(i) != null) apply(batch.get(i), analyzed.get(i));
+            }
+            batch.clear();
+        }
+    }
+
+    private void apply(Job job, AnalyzedString.Properties props) {
+        try {
+            AnalyzedString entry = service.insert(job.value(), props);
+            finish(job, State.CREATED, null, entry.getCreatedAt());
+        } catch (ShardUnavailableException e) {
+            finish(job, State.FAILED, e.getMessage(), null);
+        } catch (IllegalStateException e) {
+            finish(job, State.CONFLICT, "String already exists in the system", null);
+        } catch (RuntimeException e) {
+            log.warn("Asynchronous create of {} failed", job.id().toHex(), e);
+            finish(job, State.FAILED, e.getMessage(), null);
+        }
+    }
+
+    private void finish(Job job, State state, String message, Instant createdAt) {
+        synchronized (pending) {
+            Status submitted = pending.remove(job.id());
+            Instant submittedAt = submitted != null ? submitted.submittedAt() : null;
+            finished.put(job.id(), new Status(job.id().toHex(), state, message, submittedAt, createdAt));
+        }
+    }
+
+    // Values still queued are not stored; their submitters see them stay pending
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+}
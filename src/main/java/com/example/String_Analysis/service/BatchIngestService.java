@@ -0,0 +1,232 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.cluster.ShardUnavailableException;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+// Bulk create for POST /strings/batch.
+//
+// Items are read from a JSON array or NDJSON, hashed and analyzed in parallel on a bounded
+// ForkJoinPool, then inserted in input order through StringService. One NDJSON result line
+// is written per item, using the same status codes as POST /strings:
+// 201 created, 409 conflict, 400 invalid body, 422 non-string value.
+//
+// best_effort inserts chunk by chunk and streams results as it goes. An item whose insert fails
+// (a peer or the journal) reports 503 or 500 like below, and the batch carries on.
+// all_or_nothing reads the whole batch first and inserts only if every item would be
+// created; otherwise nothing is stored and the items that were fine report 424. The insert
+// itself is StringService.insertAll, which stages the locally owned items; if it fails (a peer
+// or the journal), nothing is stored and every item reports the failure: 503 for an
+// unreachable peer, 500 otherwise.
+@Service
+public class BatchIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchIngestService.class);
+
+    static final String INVALID_MESSAGE = "Invalid request body or missing 'value' field";
+    static final String CONFLICT_MESSAGE = "String already exists in the system";
+    static final String NOT_APPLIED_MESSAGE = "Not applied: another item in the batch failed";
+
+    private final StringService service;
+    private final ObjectMapper objectMapper;
+    // Result lines must stay on one line even though the app pretty-prints JSON
+    private final ObjectWriter lineWriter;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public BatchIngestService(StringService service, ObjectMapper objectMapper,
+                              @Value("${string-analyzer.batch.parallelism:0}") int parallelism,
+                              @Value("${string-analyzer.batch.chunk-size:1024}") int chunkSize) {
+        this.service = service;
+        this.objectMapper = objectMapper;
+        this.lineWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.chunkSize = chunkSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public void ingest(InputStream in, OutputStream out, boolean allOrNothing) throws IOException {
+        try (MappingIterator<Object> items = objectMapper.readerFor(Object.class).readValues(in)) {
+            if (allOrNothing) {
+                List<Item> all = new ArrayList<>();
+                while (items.hasNextValue()) all.add(new Item(all.size(), items.nextValue()));
+                ingestAllOrNothing(all, out);
+            } else {
+                int index = 0;
+                List<Item> chunk = new ArrayList<>(chunkSize);
+                while (items.hasNextValue()) {
+                    chunk.add(new Item(index++, items.nextValue()));
+                    if (chunk.size() == chunkSize) {
+                        ingestBestEffort(chunk, out);
+                        chunk.clear();
+                    }
+                }
+                ingestBestEffort(chunk, out);
+            }
+        }
+    }
+
+    private void ingestBestEffort(List<Item> chunk, OutputStream out) throws IOException {
+        analyzeAll(chunk);
+        for (Item item : chunk) {
+            if (item.props != null) {
+                try {
+                    item.id = service.insert(item.value, item.props).getId();
+                    item.created();
+                } catch (ShardUnavailableException e) {
+                    item.fail(503, "failed", e.getMessage());
+                } catch (IllegalStateException e) {
+                    item.fail(409, "conflict", CONFLICT_MESSAGE);
+                } catch (RuntimeException e) {
+                    log.warn("Batch create of item {} failed", item.index, e);
+                    item.fail(500, "failed", e.getMessage());
+                }
+            }
+            writeResult(item, out);
+        }
+        out.flush();
+    }
+
+    private void ingestAllOrNothing(List<Item> all, OutputStream out) throws IOException {
+        analyzeAll(all);
+
+        // Duplicates inside the batch conflict just like duplicates already in the store
+        Set<StringId> seen = new HashSet<>();
+        boolean ok = true;
+        for (Item item : all) {
+            if (item.props != null && !seen.add(item.props.getSha256Key())) {
+                item.fail(409, "conflict", CONFLICT_MESSAGE);
+            }
+            ok &= item.props != null;
+        }
+
+        RuntimeException failure = null;
+        if (ok) {
+            try {
+                int conflict = service.insertAll(all.stream().map(item -> item.value).toList(),
+                        all.stream().map(item -> item.props).toList());
+                // Lost a race with a concurrent create; nothing was stored
+                if (conflict >= 0) {
+                    all.get(conflict).fail(409, "conflict", CONFLICT_MESSAGE);
+                    ok = false;
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+                ok = false;
+            }
+        }
+
+        for (Item item : all) {
+            if (failure != null) {
+                item.fail(failure instanceof ShardUnavailableException ? 503 : 500, "failed", failure.getMessage());
+            } else if (item.status == 0) {
+                if (ok) {
+                    item.id = item.props.getSha256_hash();
+                    item.created();
+                } else {
+                    item.fail(424, "not_applied", NOT_APPLIED_MESSAGE);
+                }
+            }
+            writeResult(item, out);
+        }
+        out.flush();
+    }
+
+    // Validates each item the way POST /strings does, then hashes and analyzes the valid ones in parallel
+    private void analyzeAll(List<Item> items) throws IOException {
+        for (Item item : items) item.validate();
+        try {
+            pool.submit(() -> items.parallelStream()
+                    .filter(item -> item.value != null)
+                    .forEach(item -> {
+                        AnalyzedString.Properties props = service.analyze(item.value);
+                        if (service.existsById(props.getSha256Key())) {
+                            item.fail(409, "conflict", CONFLICT_MESSAGE);
+                        } else {
+                            item.props = props;
+                        }
+                    })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Batch ingest interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Batch analysis failed", e.getCause());
+        }
+    }
+
+    private void writeResult(Item item, OutputStream out) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("index", item.index);
+        line.put("status", item.status);
+        line.put("result", item.result);
+        if (item.id != null) line.put("id", item.id);
+        if (item.message != null) line.put("message", item.message);
+        out.write(lineWriter.writeValueAsBytes(line));
+        out.write('\n');
+    }
+
+    private static class Item {
+        final int index;
+        final Object raw;
+        String value;
+        AnalyzedString.Properties props;
+        String id;
+        int status;
+        String result;
+        String message;
+
+        Item(int index, Object raw) {
+            this.index = index;
+            this.raw = raw;
+        }
+
+        void validate() {
+            if (!(raw instanceof Map<?, ?> body) || !body.containsKey("value")) {
+                fail(400, "invalid", INVALID_MESSAGE);
+                return;
+            }
+            if (!(body.get("value") instanceof String s)) {
+                fail(422, "invalid", INVALID_MESSAGE);
+                return;
+            }
+            String trimmed = s.trim();
+            if (trimmed.isEmpty()) {
+                fail(400, "invalid", INVALID_MESSAGE);
+                return;
+            }
+            value = trimmed;
+        }
+
+        void created() {
+            status = 201;
+            result = "created";
+        }
+
+        void fail(int status, String result, String message) {
+            this.status = status;
+            this.result = result;
+            this.message = message;
+            this.props = null;
+        }
+    }
+}
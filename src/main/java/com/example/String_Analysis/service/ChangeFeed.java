@@ -0,0 +1,353 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.EntryJson;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+// Creates and deletes applied by this node, pushed to GET /strings/changes subscribers.
+//
+// Every event gets the next sequence number and goes into a ring of recent events and into the
+// queue of each subscriber. An event holds the entry's id, properties and its JSON (values on
+// disk linked, not copied), not the entry itself, so history doesn't pin deleted values; the
+// ring keeps at most `history` events and `history-max-bytes` of them, oldest dropped first.
+//
+// Publishing takes no lock: the sequence is an AtomicLong and each event is stored in its own
+// slot, so concurrent writers can reach subscriber queues out of sequence order. Each
+// subscriber has its own sender thread, which puts events back in order, applies its filter
+// and may block on the client's socket. A subscriber whose queue (client-buffer events) is full
+// is dropped and told where to resume, so a slow client can't hold up writers.
+//
+// Resume tokens are "<epoch>.<sequence>". Sequence numbers are not persisted, so the epoch
+// changes on every start. A client resuming from a token whose events are still in the ring is
+// sent the events it missed; any other token gets a reset (re-list with GET /strings) and the
+// live stream.
+@Component
+public class ChangeFeed {
+
+    public enum Type { CREATED, DELETED }
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    // json: the entry as GET /strings/{value} returns it, UTF-8
+    public record Event(long sequence, Type type, StringId id, AnalyzedString.Properties properties, byte[] json) {
+
+        // The value, parsed back out of json; null for a value kept on disk
+        public String value() {
+            try (JsonParser parser = JSON.createParser(json)) {
+                parser.nextToken();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    if (field.equals("value")) return parser.getText();
+                    parser.skipChildren();
+                }
+                return null;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // Rough heap size, for history-max-bytes
+        long bytes() {
+            return 128 + json.length + 64L * properties.getCharacter_frequency_map().size();
+        }
+    }
+
+    // Called from the subscriber's sender thread only. id is the resume token of the position
+    // reached; an IOException (client gone) ends the subscription.
+    public interface Listener {
+        void event(String id, Event event) throws IOException;
+
+        // The resume token could not be honoured; events continue from id
+        void reset(String id) throws IOException;
+
+        // Nothing new for heartbeat-seconds; also moves the client's resume position past
+        // events its filter skipped
+        void heartbeat(String id) throws IOException;
+
+        // The client fell client-buffer events behind and is disconnected; it can resume from id
+        void overflowed(String id) throws IOException;
+
+        // Last call, whatever ended the subscription
+        void closed();
+    }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    // Event n is in slot n % length, until a later event or the byte cap replaces it
+    private final AtomicReferenceArray<Event> history;
+    private final long historyMaxBytes;
+    private final int clientBuffer;
+    private final int maxSubscribers;
+    private final long heartbeatMillis;
+    private final ExecutorService senders;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong historyBytes = new AtomicLong();
+    // Events before this one were dropped for the byte cap; written by the trimming thread only
+    private volatile long oldestRetained = 1;
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+
+    private final LongAdder overflows = new LongAdder();
+
+    public ChangeFeed(@Value("${string-analyzer.changes.history:10000}") int history,
+                      @Value("${string-analyzer.changes.history-max-bytes:67108864}") long historyMaxBytes,
+                      @Value("${string-analyzer.changes.client-buffer:1000}") int clientBuffer,
+                      @Value("${string-analyzer.changes.max-subscribers:256}") int maxSubscribers,
+                      @Value("${string-analyzer.changes.heartbeat-seconds:15}") long heartbeatSeconds) {
+        if (clientBuffer <= 0 || heartbeatSeconds <= 0) {
+            throw new IllegalArgumentException("string-analyzer.changes.client-buffer and heartbeat-seconds must be > 0");
+        }
+        this.history = new AtomicReferenceArray<>(Math.max(1, history));
+        this.historyMaxBytes = historyMaxBytes;
+        this.clientBuffer = clientBuffer;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeatMillis = TimeUnit.SECONDS.toMillis(heartbeatSeconds);
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "change-feed-" + threads.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    // Called by StringService once the store has applied the write
+    public void publish(Type type, AnalyzedString entry) {
+        // Encoded before the sequence is taken: nothing can fail between taking it and storing the event
+        byte[] json = encode(entry);
+        Event event = new Event(sequence.incrementAndGet(), type, entry.getKey(), entry.getProperties(), json);
+        int slot = slot(event.sequence());
+        for (;;) {
+            Event replaced = history.get(slot);
+            // A writer that stalled for a whole ring's worth of events doesn't overwrite a newer one
+            if (replaced != null && replaced.sequence() > event.sequence()) break;
+            if (history.compareAndSet(slot, replaced, event)) {
+                historyBytes.addAndGet(event.bytes() - (replaced == null ? 0 : replaced.bytes()));
+                break;
+            }
+        }
+        for (Subscription s : subscribers) {
+            if (!s.queue.offer(event) && subscribers.remove(s)) {
+                s.overflowed = true;
+                overflows.increment();
+            }
+        }
+        if (historyBytes.get() > historyMaxBytes) trimHistory();
+    }
+
+    // Starts delivering events matching filter to listener, from resumeToken if given, else from
+    // now. IllegalArgumentException for a malformed token, IllegalStateException when
+    // max-subscribers are already connected.
+    public Subscription subscribe(Predicate<Event> filter, String resumeToken, Listener listener) {
+        long resumeFrom = -1;
+        boolean sameEpoch = false;
+        if (resumeToken != null) {
+            int dot = resumeToken.indexOf('.');
+            try {
+                resumeFrom = Long.parseLong(resumeToken.substring(dot + 1));
+            } catch (NumberFormatException e) {
+                dot = -1;
+            }
+            if (dot <= 0 || resumeFrom < 0) throw new IllegalArgumentException("Invalid resume token");
+            sameEpoch = resumeToken.substring(0, dot).equals(epoch);
+        }
+
+        Subscription subscription = new Subscription(filter, listener);
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new IllegalStateException("Too many change feed subscribers");
+            }
+            subscribers.add(subscription);
+        }
+        // Read after subscribing: every later event is also offered to the subscription's queue
+        long current = sequence.get();
+        subscription.position = current;
+        subscription.backlogEnd = current;
+        if (resumeToken != null) {
+            if (sameEpoch && resumeFrom <= current && current - resumeFrom <= history.length()) {
+                subscription.position = resumeFrom;
+            } else {
+                subscription.reset = true;
+            }
+        }
+        senders.execute(subscription);
+        return subscription;
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    public long getOverflows() {
+        return overflows.sum();
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % history.length());
+    }
+
+    // Event n from history, or null once it has been replaced or dropped. A writer that has
+    // taken n but not stored it yet is waited for; it has nothing left that can fail.
+    private Event historyEvent(long n) {
+        for (int spins = 0; ; spins++) {
+            if (n < oldestRetained) return null;
+            Event e = history.get(slot(n));
+            if (e != null && e.sequence() == n) return e;
+            if (e != null && e.sequence() > n) return null;
+            if (spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+    }
+
+    // Drops the oldest events until history is within history-max-bytes, keeping at least the
+    // newest one. One thread trims at a time; the others leave it to the next write.
+    private void trimHistory() {
+        if (!trimming.compareAndSet(false, true)) return;
+        try {
+            long newest = sequence.get();
+            long n = Math.max(oldestRetained, newest - history.length() + 1);
+            while (n < newest && historyBytes.get() > historyMaxBytes) {
+                int slot = slot(n);
+                Event e = history.get(slot);
+                // Not stored yet by its writer; stop here rather than wait
+                if (e == null || e.sequence() < n) break;
+                if (e.sequence() == n) {
+                    if (!history.compareAndSet(slot, e, null)) continue;
+                    historyBytes.addAndGet(-e.bytes());
+                }
+                n++;
+            }
+            oldestRetained = n;
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private static byte[] encode(AnalyzedString entry) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        try (JsonGenerator gen = JSON.createGenerator(out)) {
+            EntryJson.write(gen, entry, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private String token(long sequence) {
+        return epoch + "." + sequence;
+    }
+
+    @PreDestroy
+    public void close() {
+        senders.shutdownNow();
+    }
+
+    public final class Subscription implements Runnable {
+        private final ArrayBlockingQueue<Event> queue = new ArrayBlockingQueue<>(clientBuffer);
+        private final Predicate<Event> filter;
+        private final Listener listener;
+        // Events that reached the queue ahead of an earlier one; sender thread only
+        private final PriorityQueue<Event> early = new PriorityQueue<>(Comparator.comparingLong(Event::sequence));
+        // Set by subscribe() before the sender starts. Events up to backlogEnd come from history,
+        // later ones from the queue.
+        private long backlogEnd;
+        private boolean reset;
+        // Last sequence the sender has passed, delivered or filtered out
+        private long position;
+        private volatile boolean overflowed;
+        private volatile boolean cancelled;
+        // Guarded by this subscription; the pool thread running it, cleared before the thread is reused
+        private Thread sender;
+
+        private Subscription(Predicate<Event> filter, Listener listener) {
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                sender = Thread.currentThread();
+            }
+            try {
+                if (reset) listener.reset(token(position));
+                while (position < backlogEnd && !cancelled) {
+                    Event event = historyEvent(position + 1);
+                    if (event == null) {
+                        // Dropped from history while the client was catching up
+                        position = backlogEnd;
+                        listener.reset(token(position));
+                    } else {
+                        deliver(event);
+                    }
+                }
+                while (!cancelled) {
+                    // An overflowed queue is full of events the client will never see; they are dropped
+                    if (overflowed) {
+                        listener.overflowed(token(position));
+                        break;
+                    }
+                    Event event = queue.poll(heartbeatMillis, TimeUnit.MILLISECONDS);
+                    if (event == null) {
+                        listener.heartbeat(token(position));
+                    } else if (!overflowed && event.sequence() > position) {
+                        early.add(event);
+                        while (!early.isEmpty() && early.peek().sequence() == position + 1) deliver(early.poll());
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                // Client gone, cancelled or shutting down
+            } finally {
+                subscribers.remove(this);
+                listener.closed();
+                synchronized (this) {
+                    sender = null;
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        private void deliver(Event event) throws IOException {
+            position = event.sequence();
+            if (filter.test(event)) listener.event(token(position), event);
+        }
+
+        // Stops delivery, e.g. once the client has disconnected
+        public void cancel() {
+            cancelled = true;
+            subscribers.remove(this);
+            synchronized (this) {
+                if (sender != null) sender.interrupt();
+            }
+        }
+    }
+}
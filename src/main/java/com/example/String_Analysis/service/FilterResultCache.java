@@ -0,0 +1,119 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.store.StringIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Bounded LRU of filter results, keyed by the normalized filter tuple.
+//
+// Every create/delete bumps the store version and is remembered in a small ring of recent
+// writes. A cached result is tagged with the version it was computed at; when it is looked up
+// later, only the writes since that version are checked against its filter. If none of them
+// match, the result is still exact and is re-tagged instead of recomputed. Results older than
+// the ring, or older than the TTL, are recomputed.
+@Component
+public class FilterResultCache {
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final Map<Key, Cached> results;
+
+    // Recent writes by version: recent[v % recent.length] is the entry written at version v
+    private final AnalyzedString[] recent;
+    private long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public FilterResultCache(@Value("${string-analyzer.filter-cache.size:256}") int capacity,
+                             @Value("${string-analyzer.filter-cache.ttl-seconds:60}") long ttlSeconds,
+                             @Value("${string-analyzer.filter-cache.recent-writes:1024}") int recentWrites) {
+        this.capacity = capacity;
+        this.ttlNanos = ttlSeconds <= 0 ? Long.MAX_VALUE : ttlSeconds * 1_000_000_000L;
+        this.recent = new AnalyzedString[Math.max(1, recentWrites)];
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Cached> eldest) {
+                return size() > FilterResultCache.this.capacity;
+            }
+        };
+    }
+
+    // Called after the store applied a create or delete of this entry
+    public synchronized void written(AnalyzedString entry) {
+        version++;
+        recent[(int) (version % recent.length)] = entry;
+    }
+
+    // containsCharacter/containsSubstring must already be normalized (lowercased); compute must
+    // return an immutable list
+    public List<AnalyzedString> get(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount,
+                                    String containsCharacter, String containsSubstring,
+                                    Supplier<List<AnalyzedString>> compute) {
+        if (capacity <= 0) return compute.get();
+        Key key = new Key(isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring);
+        long taggedVersion;
+        synchronized (this) {
+            Cached cached = results.get(key);
+            if (cached != null && isFresh(cached, key)) {
+                hits.increment();
+                return cached.result;
+            }
+            taggedVersion = version;
+        }
+        misses.increment();
+        // Computed outside the lock. Writes that land meanwhile have a higher version than the
+        // tag, so they are checked against this result on its next lookup.
+        List<AnalyzedString> result = compute.get();
+        synchronized (this) {
+            results.put(key, new Cached(result, taggedVersion, System.nanoTime()));
+        }
+        return result;
+    }
+
+    // Caller holds the lock
+    private boolean isFresh(Cached cached, Key key) {
+        if (System.nanoTime() - cached.computedAt > ttlNanos) return false;
+        if (cached.version == version) return true;
+        if (version - cached.version > recent.length) return false;
+        for (long v = cached.version + 1; v <= version; v++) {
+            AnalyzedString written = recent[(int) (v % recent.length)];
+            if (StringIndex.matches(written, key.isPalindrome, key.minLength, key.maxLength,
+                    key.wordCount, key.containsCharacter, key.containsSubstring)) {
+                return false;
+            }
+        }
+        cached.version = version;
+        return true;
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+
+    public synchronized int size() {
+        return results.size();
+    }
+
+    private record Key(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount,
+                       String containsCharacter, String containsSubstring) {
+    }
+
+    private static class Cached {
+        final List<AnalyzedString> result;
+        final long computedAt;
+        long version;
+
+        Cached(List<AnalyzedString> result, long version, long computedAt) {
+            this.result = result;
+            this.version = version;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.model.StringId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counting Bloom filter over the stored ids, so existence checks, lookups and duplicate checks
+// for absent values are answered without touching the store. mightContain never returns false
+// for a stored id; it returns true for an absent one with about the configured probability while
+// the store holds up to expectedEntries (more as it grows past that).
+//
+// Counters are 4 bits, 16 per long, updated by CAS, so adds and removes need no lock. A counter
+// that reaches 15 stays there: it can no longer tell how many ids share it, so removes leave it
+// set rather than risk a false negative. The ids are sha256 digests and already uniform, so the
+// k probe positions come from two of their words (double hashing) instead of rehashing.
+@Component
+public class MembershipFilter {
+
+    private static final int SATURATED = 15;
+
+    private final AtomicLongArray counters;
+    private final long slots;
+    private final int hashes;
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public MembershipFilter(@Value("${string-analyzer.membership-filter.expected-entries:1000000}") long expectedEntries,
+                            @Value("${string-analyzer.membership-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        if (expectedEntries < 0) {
+            throw new IllegalArgumentException("string-analyzer.membership-filter.expected-entries must be >= 0");
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("string-analyzer.membership-filter.false-positive-rate must be in (0, 1)");
+        }
+        if (expectedEntries == 0) {
+            // Disabled: everything might be stored
+            counters = null;
+            slots = 0;
+            hashes = 0;
+            return;
+        }
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+        long words = Math.max(1, (bits + 15) / 16);
+        if (words > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("string-analyzer.membership-filter.expected-entries is too large");
+        }
+        counters = new AtomicLongArray((int) words);
+        slots = words * 16;
+        hashes = Math.max(1, (int) Math.round((double) slots / expectedEntries * ln2));
+    }
+
+    public boolean isEnabled() {
+        return counters != null;
+    }
+
+    public boolean mightContain(StringId id) {
+        if (counters == null) return true;
+        long h1 = id.word(0);
+        long h2 = id.word(1);
+        for (int i = 0; i < hashes; i++) {
+            if (counter(slot(h1, h2, i)) == 0) {
+                negatives.increment();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Called before the id is inserted into the store, so concurrent readers never miss it
+    public void add(StringId id) {
+        if (counters == null) return;
+        long h1 = id.word(0);
+        long h2 = id.word(1);
+        for (int i = 0; i < hashes; i++) update(slot(h1, h2, i), 1);
+    }
+
+    // Called after the id was removed from the store (or its insert failed)
+    public void remove(StringId id) {
+        if (counters == null) return;
+        long h1 = id.word(0);
+        long h2 = id.word(1);
+        for (int i = 0; i < hashes; i++) update(slot(h1, h2, i), -1);
+    }
+
+    // mightContain was true but the store did not have the id
+    void falsePositive() {
+        falsePositives.increment();
+    }
+
+    public long getNegatives() { return negatives.sum(); }
+    public long getFalsePositives() { return falsePositives.sum(); }
+
+    public long heapBytes() {
+        return counters == null ? 0 : 16 + 8L * counters.length();
+    }
+
+    private long slot(long h1, long h2, int i) {
+        return Long.remainderUnsigned(h1 + i * h2, slots);
+    }
+
+    private int counter(long slot) {
+        return (int) (counters.get((int) (slot >>> 4)) >>> ((slot & 15) << 2)) & 0xF;
+    }
+
+    private void update(long slot, int delta) {
+        int word = (int) (slot >>> 4);
+        int shift = (int) (slot & 15) << 2;
+        long current;
+        long next;
+        do {
+            current = counters.get(word);
+            int count = (int) (current >>> shift) & 0xF;
+            if (count == SATURATED || (delta < 0 && count == 0)) return;
+            next = current + ((long) delta << shift);
+        } while (!counters.compareAndSet(word, current, next));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.util.NaturalLanguageParser;
+import com.example.String_Analysis.util.QueryPlan;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Bounded LRU of parsed natural language queries, keyed by normalized query text.
+// Only successful parses are cached; invalid queries are re-parsed (and rejected) every time.
+@Service
+public class QueryPlanCache {
+
+    private final int capacity;
+    private final Map<String, QueryPlan> plans;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public QueryPlanCache(@Value("${string-analyzer.nl.plan-cache-size:1024}") int capacity) {
+        this.capacity = capacity;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, QueryPlan> eldest) {
+                return size() > QueryPlanCache.this.capacity;
+            }
+        };
+    }
+
+    public QueryPlan get(String query) {
+        if (query == null || capacity <= 0) return NaturalLanguageParser.parse(query);
+        String key = NaturalLanguageParser.normalize(query);
+        synchronized (plans) {
+            QueryPlan plan = plans.get(key);
+            if (plan != null) {
+                hits.increment();
+                return plan;
+            }
+        }
+        misses.increment();
+        // Parse outside the lock; two threads missing on the same key just both parse it
+        QueryPlan plan = NaturalLanguageParser.parse(query);
+        synchronized (plans) {
+            plans.put(key, plan);
+        }
+        return plan;
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public int getCapacity() { return capacity; }
+
+    public int size() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+}
@@ -1,101 +1,669 @@
 package com.example.String_Analysis.service;
 
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.analysis.StreamingStringAnalyzer;
+import com.example.String_Analysis.analysis.StringAnalyzer;
+import com.example.String_Analysis.cluster.MisroutedException;
+import com.example.String_Analysis.cluster.ShardClient;
+import com.example.String_Analysis.cluster.ShardRouter;
+import com.example.String_Analysis.dto.StatsSnapshot;
+import com.example.String_Analysis.metrics.StringMetrics;
 import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.persistence.NoopStringJournal;
+import com.example.String_Analysis.persistence.StringJournal;
+import com.example.String_Analysis.store.MemoryBudget;
+import com.example.String_Analysis.store.ObjectStringStore;
+import com.example.String_Analysis.store.StringIndex;
+import com.example.String_Analysis.store.StringStore;
+import com.example.String_Analysis.store.ValueFileStore;
 import com.example.String_Analysis.util.HashUtils;
+import com.example.String_Analysis.util.PageCursor;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @Service
 public class StringService {
 
-    // Store by sha256 hash
-    private final Map<String, AnalyzedString> storeById = new ConcurrentHashMap<>();
-    // Map exact original value -> id (sha)
-    private final Map<String, String> idByValue = new ConcurrentHashMap<>();
+    private static final Logger log = LoggerFactory.getLogger(StringService.class);
+
+    private final StringAnalyzer analyzer;
+    // In-memory storage; object- or column-backed depending on string-analyzer.storage.mode, and
+    // spilling to disk past string-analyzer.memory.max-bytes
+    private final StringStore store;
+    // Durable log of creates/deletes; a no-op unless string-analyzer.persistence.enabled=true
+    private final StringJournal journal;
+    // Filter results, re-validated against the writes made since they were computed
+    private final FilterResultCache filterCache;
+    // Stage and filter timers; no-op outside Spring
+    private final StringMetrics metrics;
+    // Large streamed values live in files; only their properties are kept in the store
+    private final ValueFileStore valueFiles;
+    // Owner of each id when the keyspace is split across nodes; everything is local otherwise
+    private final ShardRouter shards;
+    // Stored ids; answers definite "not stored" without a store lookup
+    private final MembershipFilter membership;
+    // Creates and deletes pushed to GET /strings/changes subscribers
+    private final ChangeFeed changes;
+    // Striped by id: a store write, its change event and its journal record happen under one lock,
+    // so both see the writes of an id in the order the store applied them. Taken in index order
+    // when several are held.
+    private final ReentrantLock[] commitLocks = new ReentrantLock[64];
+    private final StreamingStringAnalyzer streamingAnalyzer = new StreamingStringAnalyzer();
+    // Aggregates for GET /strings/stats, kept up to date with every create and delete
+    private final StringStats stats = new StringStats();
+
+    public StringService(StringAnalyzer analyzer, StringStore store, StringJournal journal,
+                         FilterResultCache filterCache, StringMetrics metrics, ValueFileStore valueFiles,
+                         ShardRouter shards, MemoryBudget memory, MembershipFilter membership,
+                         ChangeFeed changes) {
+        this.analyzer = analyzer;
+        this.store = memory.apply(store);
+        this.journal = journal;
+        this.filterCache = filterCache;
+        this.metrics = metrics;
+        this.valueFiles = valueFiles;
+        this.shards = shards;
+        this.membership = membership;
+        this.changes = changes;
+        for (int i = 0; i < commitLocks.length; i++) commitLocks[i] = new ReentrantLock();
+    }
+
+    // For tests and benchmarks: a single-node, in-memory service unless told otherwise
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private StringAnalyzer analyzer = new SinglePassStringAnalyzer();
+        private StringStore store = new ObjectStringStore();
+        private StringJournal journal = new NoopStringJournal();
+        private FilterResultCache filterCache = new FilterResultCache(256, 60, 1024);
+        private StringMetrics metrics = StringMetrics.noop();
+        private ValueFileStore valueFiles;
+        private ShardRouter shards = ShardRouter.single();
+        private MemoryBudget memory = MemoryBudget.unbounded();
+        private MembershipFilter membership = new MembershipFilter(1 << 16, 0.01);
+        private ChangeFeed changes;
+
+        private Builder() {
+        }
+
+        public Builder analyzer(StringAnalyzer analyzer) { this.analyzer = analyzer; return this; }
+        public Builder store(StringStore store) { this.store = store; return this; }
+        public Builder journal(StringJournal journal) { this.journal = journal; return this; }
+        public Builder filterCache(FilterResultCache filterCache) { this.filterCache = filterCache; return this; }
+        public Builder metrics(StringMetrics metrics) { this.metrics = metrics; return this; }
+        public Builder valueFiles(ValueFileStore valueFiles) { this.valueFiles = valueFiles; return this; }
+        public Builder shards(ShardRouter shards) { this.shards = shards; return this; }
+        public Builder memory(MemoryBudget memory) { this.memory = memory; return this; }
+        public Builder membership(MembershipFilter membership) { this.membership = membership; return this; }
+        public Builder changes(ChangeFeed changes) { this.changes = changes; return this; }
+
+        public StringService build() {
+            ValueFileStore files = valueFiles != null ? valueFiles
+                    : new ValueFileStore(System.getProperty("java.io.tmpdir") + "/string-analyzer-values", 1 << 20);
+            ChangeFeed feed = changes != null ? changes : new ChangeFeed(10_000, 64L << 20, 1000, 256, 15);
+            return new StringService(analyzer, store, journal, filterCache, metrics, files, shards, memory,
+                    membership, feed);
+        }
+    }
+
+    // Rebuilds the store (and its indexes) from the journal before serving requests
+    @PostConstruct
+    public void recover() {
+        journal.open(new StringJournal.Replay() {
+            @Override
+            public void created(String value, Instant createdAt) {
+                StringId sha = HashUtils.sha256(value);
+                AnalyzedString entry = new AnalyzedString(sha, value, analyzer.analyze(value, sha), createdAt);
+                if (storeInsert(entry)) added(entry);
+            }
+
+            @Override
+            public void createdOnDisk(StringId id, Instant createdAt) {
+                Path file = valueFiles.pathFor(id);
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    AnalyzedString.Properties props = streamingAnalyzer.analyze(reader, OutputStream.nullOutputStream());
+                    if (!props.getSha256Key().equals(id)) throw new IOException("content does not match its id");
+                    AnalyzedString entry = new AnalyzedString(id, file, props, createdAt);
+                    if (storeInsert(entry)) added(entry);
+                } catch (IOException e) {
+                    log.warn("Skipping on-disk value {}: {}", file, e.toString());
+                }
+            }
+
+            @Override
+            public void deleted(String value) {
+                AnalyzedString removed = store.removeByValue(value);
+                if (removed != null) removed(removed);
+            }
+
+            // The value file is left alone: a later create of the same id in the log uses it again
+            @Override
+            public void deletedById(StringId id) {
+                AnalyzedString removed = store.removeById(id);
+                if (removed != null) removed(removed);
+            }
+        }, store::forEach);
+    }
 
     public AnalyzedString create(String value) {
         if (value == null) throw new IllegalArgumentException("value cannot be null");
-        String sha = HashUtils.sha256Hex(value);
-        if (storeById.containsKey(sha)) {
+        long start = System.nanoTime();
+        StringId sha = HashUtils.sha256(value);
+        long hashed = System.nanoTime();
+        metrics.recordHash(hashed - start);
+        ShardClient owner = shards.ownerOf(sha);
+        if (owner != null) return owner.create(value);
+        if (isStored(sha)) {
             throw new IllegalStateException("exists");
         }
-        AnalyzedString.Properties props = analyze(value, sha);
-        AnalyzedString entry = new AnalyzedString(sha, value, props, Instant.now());
-        storeById.put(sha, entry);
-        idByValue.put(value, sha);
+        AnalyzedString.Properties props = analyzer.analyze(value, sha);
+        metrics.recordAnalyze(System.nanoTime() - hashed);
+        return insert(value, props);
+    }
+
+    // Hash + analysis only, without touching the store, so batch ingest can run it in parallel
+    public AnalyzedString.Properties analyze(String value) {
+        if (value == null) throw new IllegalArgumentException("value cannot be null");
+        return analyzer.analyze(value, HashUtils.sha256(value));
+    }
+
+    // The same, for a caller that already hashed the value
+    public AnalyzedString.Properties analyze(String value, StringId sha256) {
+        return analyzer.analyze(value, sha256);
+    }
+
+    // Stores a value analyzed with analyze(); throws IllegalStateException if it already exists
+    public AnalyzedString insert(String value, AnalyzedString.Properties props) {
+        // The owning node analyzes it again; only its own result is stored
+        ShardClient owner = shards.ownerOf(props.getSha256Key());
+        if (owner != null) return owner.create(value);
+        long start = System.nanoTime();
+        AnalyzedString entry = new AnalyzedString(props.getSha256Key(), value, props, Instant.now());
+        if (!commitInsert(entry, () -> journal.appendCreate(value, entry.getCreatedAt()))) {
+            throw new IllegalStateException("exists");
+        }
+        metrics.recordInsert(System.nanoTime() - start);
         return entry;
     }
 
+    // Stores an all_or_nothing batch (values analyzed with analyze(), distinct ids) or none of
+    // it. Returns -1 once every value is stored, or the index of a value that already exists, in
+    // which case nothing is stored.
+    //
+    // The values this node owns are staged: the commit locks of all their ids are held while
+    // every id is checked, and then they are inserted, journaled together and announced. A
+    // conflict is found before anything is stored, so a failed batch leaves no change events or
+    // journal records behind; while the journal write is in flight the entries are readable,
+    // like any create. Values owned by other nodes can't be staged: they are created on their
+    // owners first and deleted again if the batch fails, so until then readers (and the owners'
+    // change feeds and journals) can see that part of the batch.
+    public int insertAll(List<String> values, List<AnalyzedString.Properties> props) {
+        List<Integer> local = new ArrayList<>();
+        List<Integer> remote = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            (shards.ownerOf(props.get(i).getSha256Key()) == null ? local : remote).add(i);
+        }
+        // In stripe order, so two batches can't deadlock
+        int[] stripes = local.stream().mapToInt(i -> stripe(props.get(i).getSha256Key())).distinct().sorted().toArray();
+        for (int stripe : stripes) commitLocks[stripe].lock();
+        try {
+            for (int i : local) {
+                if (isStored(props.get(i).getSha256Key())) return i;
+            }
+            List<Integer> created = new ArrayList<>();
+            try {
+                for (int i : remote) {
+                    try {
+                        shards.ownerOf(props.get(i).getSha256Key()).create(values.get(i));
+                    } catch (IllegalStateException e) {
+                        undoRemote(values, created);
+                        return i;
+                    }
+                    created.add(i);
+                }
+                List<AnalyzedString> entries = new ArrayList<>(local.size());
+                Instant now = Instant.now();
+                for (int i : local) {
+                    entries.add(new AnalyzedString(props.get(i).getSha256Key(), values.get(i), props.get(i), now));
+                }
+                int stored = 0;
+                try {
+                    for (AnalyzedString entry : entries) {
+                        // Checked above under the same locks
+                        if (!storeInsert(entry)) throw new IllegalStateException("exists");
+                        stored++;
+                    }
+                    journal.appendCreates(entries);
+                } catch (RuntimeException e) {
+                    // The entries were readable meanwhile, so filter results cached since then are
+                    // invalidated; no change events, as none were published for them
+                    for (int k = 0; k < stored; k++) {
+                        store.removeById(entries.get(k).getKey());
+                        membership.remove(entries.get(k).getKey());
+                        filterCache.written(entries.get(k));
+                    }
+                    throw e;
+                }
+                entries.forEach(this::added);
+                return -1;
+            } catch (RuntimeException e) {
+                undoRemote(values, created);
+                throw e;
+            }
+        } finally {
+            for (int k = stripes.length - 1; k >= 0; k--) commitLocks[stripes[k]].unlock();
+        }
+    }
+
+    // Best effort: a peer that is down keeps the value
+    private void undoRemote(List<String> values, List<Integer> created) {
+        for (int i : created) {
+            try {
+                deleteByValue(values.get(i));
+            } catch (RuntimeException e) {
+                log.warn("Could not undo the batch create of a value on its owner: {}", e.toString());
+            }
+        }
+    }
+
+    // Creates an entry from a stream of text (trimmed like create). Values longer than
+    // ValueFileStore.getInlineMaxChars() stay on disk and are never held on the heap.
+    public AnalyzedString createFromStream(InputStream in, Charset charset) throws IOException {
+        return createFromStream(in, charset, false);
+    }
+
+    // The id is only known once the whole value has been read, so a value owned by another node
+    // is spooled here and then forwarded from the temp file. forwarded: the upload comes from a
+    // peer that already routed it; MisroutedException if this node doesn't own it either.
+    public AnalyzedString createFromStream(InputStream in, Charset charset, boolean forwarded) throws IOException {
+        Path tmp = valueFiles.createTempFile();
+        try {
+            AnalyzedString.Properties props;
+            try (Reader reader = new InputStreamReader(in, charset);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16)) {
+                props = streamingAnalyzer.analyze(reader, out);
+            }
+            StringId sha = props.getSha256Key();
+            ShardClient owner = shards.ownerOf(sha);
+            if (owner != null) {
+                if (forwarded) throw new MisroutedException();
+                return owner.createFromFile(tmp);
+            }
+            if (isStored(sha)) {
+                throw new IllegalStateException("exists");
+            }
+            if (props.getLength() <= valueFiles.getInlineMaxChars()) {
+                return insert(Files.readString(tmp, StandardCharsets.UTF_8), props);
+            }
+
+            AnalyzedString entry = new AnalyzedString(sha, valueFiles.pathFor(sha), props, Instant.now());
+            // The file is moved into place under the commit lock, so a concurrent delete by id
+            // can't remove it after the move. On conflict the existing file is left alone.
+            ReentrantLock lock = commitLock(sha);
+            lock.lock();
+            try {
+                if (isStored(sha)) throw new IllegalStateException("exists");
+                valueFiles.commit(tmp, sha);
+                try {
+                    if (!commitInsert(entry, () -> journal.appendCreateOnDisk(sha, entry.getCreatedAt()))) {
+                        throw new IllegalStateException("exists");
+                    }
+                } catch (RuntimeException e) {
+                    try {
+                        if (!isStored(sha)) valueFiles.delete(sha);
+                    } catch (IOException suppressed) {
+                        e.addSuppressed(suppressed);
+                    }
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
+            }
+            return entry;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public boolean existsById(StringId id) {
+        return isStored(id);
+    }
+
     public AnalyzedString getByValue(String value) {
-        String sha = idByValue.get(value);
-        if (sha == null) return null;
-        return storeById.get(sha);
+        StringId sha = HashUtils.sha256(value);
+        ShardClient owner = shards.ownerOf(sha);
+        if (owner != null) return owner.getByValue(value);
+        return membership.mightContain(sha) ? store.getByValue(value) : null;
     }
 
+    // Whether each value is stored (on any node), in order. Unlike getByValue this counts
+    // values kept on disk, the same way create reports them as existing.
+    public boolean[] exists(List<String> values) {
+        if (!shards.isClustered()) return existsLocal(values);
+        boolean[] result = new boolean[values.size()];
+        Map<ShardClient, List<Integer>> remote = new LinkedHashMap<>();
+        for (int i = 0; i < result.length; i++) {
+            StringId sha = HashUtils.sha256(values.get(i));
+            ShardClient owner = shards.ownerOf(sha);
+            if (owner == null) {
+                result[i] = isStored(sha);
+            } else {
+                remote.computeIfAbsent(owner, k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<CompletableFuture<boolean[]>> answers = new ArrayList<>();
+        for (Map.Entry<ShardClient, List<Integer>> peer : remote.entrySet()) {
+            answers.add(peer.getKey().exists(peer.getValue().stream().map(values::get).toList()));
+        }
+        int p = 0;
+        for (List<Integer> positions : remote.values()) {
+            boolean[] answer = ShardClient.await(answers.get(p++));
+            for (int j = 0; j < positions.size(); j++) result[positions.get(j)] = answer[j];
+        }
+        return result;
+    }
+
+    // This node's answer to exists(), for a peer that already routed the values here
+    public boolean[] existsLocal(List<String> values) {
+        boolean[] result = new boolean[values.size()];
+        for (int i = 0; i < result.length; i++) result[i] = isStored(HashUtils.sha256(values.get(i)));
+        return result;
+    }
+
+    private boolean isStored(StringId id) {
+        if (!membership.mightContain(id)) return false;
+        if (store.containsId(id)) return true;
+        membership.falsePositive();
+        return false;
+    }
+
+    // The filter learns about an id before the store has it and forgets it only after removal
+    private boolean storeInsert(AnalyzedString entry) {
+        membership.add(entry.getKey());
+        if (store.insert(entry)) return true;
+        membership.remove(entry.getKey());
+        return false;
+    }
+
+    // False if another node owns this value, i.e. a request forwarded to us was misrouted
+    public boolean ownsValue(String value) {
+        return ownerOf(value) == null;
+    }
+
+    private ShardClient ownerOf(String value) {
+        return shards.isClustered() ? shards.ownerOf(HashUtils.sha256(value)) : null;
+    }
+
+    // Base URL of the node owning a hex id, or null if it is this node (or the id is malformed)
+    public String ownerUrl(String id) {
+        if (!shards.isClustered()) return null;
+        try {
+            ShardClient owner = shards.ownerOf(StringId.fromHex(id));
+            return owner == null ? null : owner.getBaseUrl();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Takes the hex id as exposed by the API
     public Optional<AnalyzedString> getById(String id) {
-        return Optional.ofNullable(storeById.get(id));
+        StringId key;
+        try {
+            key = StringId.fromHex(id);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(store.getById(key));
     }
 
     public List<AnalyzedString> listAll() {
-        return new ArrayList<>(storeById.values());
+        return store.listAll();
     }
 
-    public void deleteByValue(String value) {
-        String sha = idByValue.remove(value);
-        if (sha != null) storeById.remove(sha);
+    // Returns the removed entry, or null if the value was not stored. Of several concurrent
+    // deletes of the same value exactly one gets the entry.
+    public AnalyzedString deleteByValue(String value) {
+        StringId sha = HashUtils.sha256(value);
+        ShardClient owner = shards.ownerOf(sha);
+        if (owner != null) return owner.deleteByValue(value);
+        return commitRemove(sha, () -> store.removeByValue(value), removed -> journal.appendDelete(value));
     }
 
-    private AnalyzedString.Properties analyze(String value, String sha) {
-        int length = value.length();
+    // Deletes any entry by its hex id, the only way to reach a value kept on disk, and then its
+    // value file. Returns the removed entry, or null if the id was not stored.
+    public AnalyzedString deleteById(String id) {
+        StringId key;
+        try {
+            key = StringId.fromHex(id);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        ShardClient owner = shards.ownerOf(key);
+        if (owner != null) return owner.deleteById(key);
+        return commitRemove(key, () -> store.removeById(key), removed -> {
+            journal.appendDeleteById(key);
+            // Once the delete is durable; a file left behind by a crash is reused by the next upload
+            if (removed.isValueOnDisk()) {
+                try {
+                    valueFiles.delete(key);
+                } catch (IOException e) {
+                    log.warn("Could not delete value file of {}: {}", id, e.toString());
+                }
+            }
+        });
+    }
 
-        // Normalize to lowercase for case-insensitive analysis
-        String lower = value.toLowerCase(Locale.ROOT);
+    // Applies a create and journals it under the id's commit lock, so the journal records the
+    // creates and deletes of an id in the order the store applied them (recovery can't replay a
+    // delete before the create it removed). Applied before it is journaled, so a concurrent
+    // snapshot can't miss it; undone if the journal fails.
+    private boolean commitInsert(AnalyzedString entry, Runnable journaled) {
+        ReentrantLock lock = commitLock(entry.getKey());
+        lock.lock();
+        try {
+            if (!storeInsert(entry)) return false;
+            added(entry);
+            try {
+                journaled.run();
+            } catch (RuntimeException e) {
+                AnalyzedString undone = store.removeById(entry.getKey());
+                if (undone != null) removed(undone);
+                throw e;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        // is_palindrome: case-insensitive, compare full string as-is (including spaces and punctuation)
-        boolean isPalindrome = new StringBuilder(lower).reverse().toString().equals(lower);
+    private AnalyzedString commitRemove(StringId id, Supplier<AnalyzedString> remove,
+                                        Consumer<AnalyzedString> journaled) {
+        ReentrantLock lock = commitLock(id);
+        lock.lock();
+        try {
+            AnalyzedString removed = remove.get();
+            if (removed != null) {
+                removed(removed);
+                journaled.accept(removed);
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        // unique characters: distinct code points (case-insensitive because we used lower)
-        Set<Integer> uniqueChars = lower.chars().boxed().collect(Collectors.toSet());
-        int uniqueCount = uniqueChars.size();
+    private ReentrantLock commitLock(StringId id) {
+        return commitLocks[stripe(id)];
+    }
 
-        // word count: number of whitespace-separated tokens (trim, split on \\s+)
-        String trimmed = value.trim();
-        int wordCount = trimmed.isEmpty() ? 0 : trimmed.split("\\s+").length;
+    private int stripe(StringId id) {
+        return (int) (id.word(0) & (commitLocks.length - 1));
+    }
 
-        // character frequency map: build using lowercase characters as keys (strings)
-        Map<String, Integer> freq = new LinkedHashMap<>();
-        lower.chars().forEachOrdered(cp -> {
-            String ch = new String(Character.toChars(cp));
-            freq.put(ch, freq.getOrDefault(ch, 0) + 1);
-        });
+    // Bookkeeping once the store has applied a create or delete
+    private void added(AnalyzedString entry) {
+        filterCache.written(entry);
+        stats.added(entry);
+        changes.publish(ChangeFeed.Type.CREATED, entry);
+    }
+
+    private void removed(AnalyzedString entry) {
+        membership.remove(entry.getKey());
+        filterCache.written(entry);
+        stats.removed(entry);
+        changes.publish(ChangeFeed.Type.DELETED, entry);
+    }
+
+    // Pushes this node's creates and deletes matching the filters (as in filter()) to listener,
+    // from resumeToken if given. Each node of a cluster has its own feed of the ids it owns.
+    public ChangeFeed.Subscription subscribeChanges(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                                    Integer wordCount, String containsCharacter,
+                                                    String containsSubstring, String resumeToken,
+                                                    ChangeFeed.Listener listener) {
+        String containsCharLower = containsCharacter == null ? null : containsCharacter.toLowerCase(Locale.ROOT);
+        String substringLower = containsSubstring == null ? null : containsSubstring.toLowerCase(Locale.ROOT);
+        return changes.subscribe(event -> StringIndex.matches(event.properties(), event::value, isPalindrome,
+                minLength, maxLength, wordCount, containsCharLower, substringLower), resumeToken, listener);
+    }
 
-        return new AnalyzedString.Properties(length, isPalindrome, uniqueCount, wordCount, sha, freq);
+    // Aggregates over every entry, from the running counters of each node
+    public StatsSnapshot stats() {
+        List<CompletableFuture<StatsSnapshot>> remote = new ArrayList<>();
+        for (ShardClient peer : shards.peers()) remote.add(peer.stats());
+        StatsSnapshot merged = statsLocal();
+        for (CompletableFuture<StatsSnapshot> future : remote) merged = merged.merge(ShardClient.await(future));
+        return merged;
+    }
+
+    public StatsSnapshot statsLocal() {
+        return stats.snapshot();
+    }
+
+    // Aggregates over a filter result; evaluated like filter(), so it scans the matching entries
+    public StatsSnapshot stats(Boolean isPalindrome, Integer minLength, Integer maxLength, Integer wordCount,
+                               String containsCharacter, String containsSubstring) {
+        return StringStats.of(filter(isPalindrome, minLength, maxLength, wordCount, containsCharacter,
+                containsSubstring));
     }
 
-    // Filtering: support params described in spec
     public List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
                                        Integer wordCount, String containsCharacter) {
-        // Normalize containsCharacter to lowercase if provided
+        return filter(isPalindrome, minLength, maxLength, wordCount, containsCharacter, null);
+    }
+
+    // Filtering: support params described in spec. The returned list is read-only.
+    // containsSubstring matches case-insensitively, like containsCharacter.
+    // On a cluster every node is asked in parallel and the newest-first results are merged.
+    public List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                       Integer wordCount, String containsCharacter, String containsSubstring) {
+        if (!shards.isClustered()) {
+            return filterLocal(isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring);
+        }
+        List<CompletableFuture<List<AnalyzedString>>> remote = new ArrayList<>();
+        for (ShardClient peer : shards.peers()) {
+            remote.add(peer.filter(isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring,
+                    null, null, null));
+        }
+        List<AnalyzedString> local =
+                filterLocal(isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring);
+        return Collections.unmodifiableList(merge(local, remote, Integer.MAX_VALUE));
+    }
+
+    // This node's share of filter(); the returned list is shared and read-only
+    public List<AnalyzedString> filterLocal(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                            Integer wordCount, String containsCharacter, String containsSubstring) {
+        // Normalize containsCharacter/containsSubstring to lowercase if provided
         String containsCharLower = containsCharacter == null ? null : containsCharacter.toLowerCase(Locale.ROOT);
+        String substringLower = containsSubstring == null ? null : containsSubstring.toLowerCase(Locale.ROOT);
 
-        return storeById.values().stream()
-                .filter(e -> {
-                    AnalyzedString.Properties p = e.getProperties();
-                    if (isPalindrome != null && p.isIs_palindrome() != isPalindrome) return false;
-                    if (minLength != null && p.getLength() < minLength) return false;
-                    if (maxLength != null && p.getLength() > maxLength) return false;
-                    if (wordCount != null && p.getWord_count() != wordCount) return false;
-                    if (containsCharLower != null) {
-                        Map<String, Integer> freq = p.getCharacter_frequency_map();
-                        if (!freq.containsKey(containsCharLower)) return false;
-                    }
-                    return true;
-                })
-                .sorted(Comparator.comparing(AnalyzedString::getCreatedAt).reversed())
-                .collect(Collectors.toList());
+        long start = System.nanoTime();
+        List<AnalyzedString> result = filterCache.get(isPalindrome, minLength, maxLength, wordCount,
+                containsCharLower, substringLower, () -> Collections.unmodifiableList(store.filter(
+                        isPalindrome, minLength, maxLength, wordCount, containsCharLower, substringLower)));
+        metrics.recordFilter(isPalindrome, minLength, maxLength, wordCount, containsCharLower, substringLower,
+                System.nanoTime() - start);
+        return result;
+    }
+
+    public FilterResultCache getFilterCache() {
+        return filterCache;
+    }
+
+    // Up to limit filter results in newest-first order, starting right after the cursor (if any)
+    // and created strictly after createdAfter (if set).
+    // The cursor is a position in the global order, so each node returns at most limit entries
+    // past it and the page is the first limit of their merge.
+    public List<AnalyzedString> filterPage(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                           Integer wordCount, String containsCharacter, String containsSubstring,
+                                           PageCursor after, Instant createdAfter, int limit) {
+        if (!shards.isClustered()) {
+            return filterPageLocal(isPalindrome, minLength, maxLength, wordCount, containsCharacter,
+                    containsSubstring, after, createdAfter, limit);
+        }
+        List<CompletableFuture<List<AnalyzedString>>> remote = new ArrayList<>();
+        for (ShardClient peer : shards.peers()) {
+            remote.add(peer.filter(isPalindrome, minLength, maxLength, wordCount, containsCharacter,
+                    containsSubstring, after, createdAfter, limit));
+        }
+        List<AnalyzedString> local = filterPageLocal(isPalindrome, minLength, maxLength, wordCount,
+                containsCharacter, containsSubstring, after, createdAfter, limit);
+        return merge(local, remote, limit);
+    }
+
+    // Not cached: the store walks its newest-first order from the cursor and stops after
+    // limit matches, which costs about as much as a cache lookup would save
+    public List<AnalyzedString> filterPageLocal(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                                Integer wordCount, String containsCharacter, String containsSubstring,
+                                                PageCursor after, Instant createdAfter, int limit) {
+        String containsCharLower = containsCharacter == null ? null : containsCharacter.toLowerCase(Locale.ROOT);
+        String substringLower = containsSubstring == null ? null : containsSubstring.toLowerCase(Locale.ROOT);
+        long start = System.nanoTime();
+        List<AnalyzedString> result = store.filter(isPalindrome, minLength, maxLength, wordCount, containsCharLower,
+                substringLower, after, createdAfter, limit);
+        metrics.recordFilter(isPalindrome, minLength, maxLength, wordCount, containsCharLower, substringLower,
+                System.nanoTime() - start);
+        return result;
+    }
+
+    // k-way merge of newest-first lists, keeping the first limit entries
+    private static List<AnalyzedString> merge(List<AnalyzedString> local,
+                                              List<CompletableFuture<List<AnalyzedString>>> remote, int limit) {
+        List<List<AnalyzedString>> parts = new ArrayList<>(remote.size() + 1);
+        parts.add(local);
+        for (CompletableFuture<List<AnalyzedString>> f : remote) parts.add(ShardClient.await(f));
+
+        // {part, position} of each part's next entry
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> StringIndex.NEWEST_FIRST.compare(
+                parts.get(a[0]).get(a[1]), parts.get(b[0]).get(b[1])));
+        int total = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            total += parts.get(i).size();
+            if (!parts.get(i).isEmpty()) heads.add(new int[]{i, 0});
+        }
+        List<AnalyzedString> merged = new ArrayList<>(Math.min(total, limit));
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<AnalyzedString> part = parts.get(head[0]);
+            merged.add(part.get(head[1]));
+            if (++head[1] < part.size()) heads.add(head);
+        }
+        return merged;
     }
 }
@@ -0,0 +1,83 @@
+package com.example.String_Analysis.service;
+
+import com.example.String_Analysis.dto.StatsSnapshot;
+import com.example.String_Analysis.model.AnalyzedString;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Running aggregates over the stored entries, updated by StringService on every create and
+// delete in time independent of the store size (a few LongAdder increments, plus one per
+// distinct character of the entry). Lengths and word counts are counted per exact value, so
+// min/max stay exact after deletes; snapshot() folds them into histograms.
+//
+// Counters are updated independently: a snapshot taken during writes may see a write in some
+// counters and not yet in others. Once writes stop it is exact.
+public class StringStats {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder palindromes = new LongAdder();
+    private final LongAdder totalLength = new LongAdder();
+    private final LongAdder totalWords = new LongAdder();
+    private final Map<Integer, LongAdder> lengths = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> wordCounts = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> characters = new ConcurrentHashMap<>();
+
+    // Aggregates of a fixed set of entries, e.g. a filter result
+    public static StatsSnapshot of(Collection<AnalyzedString> entries) {
+        StringStats stats = new StringStats();
+        entries.forEach(stats::added);
+        return stats.snapshot();
+    }
+
+    public void added(AnalyzedString entry) {
+        apply(entry, 1);
+    }
+
+    public void removed(AnalyzedString entry) {
+        apply(entry, -1);
+    }
+
+    private void apply(AnalyzedString entry, int sign) {
+        AnalyzedString.Properties p = entry.getProperties();
+        count.add(sign);
+        if (p.isIs_palindrome()) palindromes.add(sign);
+        totalLength.add((long) sign * p.getLength());
+        totalWords.add((long) sign * p.getWord_count());
+        lengths.computeIfAbsent(p.getLength(), k -> new LongAdder()).add(sign);
+        wordCounts.computeIfAbsent(p.getWord_count(), k -> new LongAdder()).add(sign);
+        // Counters that drop to zero are kept (removing them would race with a concurrent add)
+        // and skipped by snapshot()
+        for (Map.Entry<String, Integer> f : p.getCharacter_frequency_map().entrySet()) {
+            characters.computeIfAbsent(f.getKey(), k -> new LongAdder()).add((long) sign * f.getValue());
+        }
+    }
+
+    public StatsSnapshot snapshot() {
+        Map<String, Long> frequencies = new TreeMap<>();
+        characters.forEach((c, n) -> {
+            long sum = n.sum();
+            if (sum > 0) frequencies.put(c, sum);
+        });
+        return new StatsSnapshot(count.sum(), palindromes.sum(), distribution(lengths, totalLength),
+                distribution(wordCounts, totalWords), frequencies);
+    }
+
+    private static StatsSnapshot.Distribution distribution(Map<Integer, LongAdder> counts, LongAdder total) {
+        long[] histogram = new long[StatsSnapshot.BUCKETS];
+        Long min = null;
+        Long max = null;
+        for (Map.Entry<Integer, LongAdder> e : counts.entrySet()) {
+            long n = e.getValue().sum();
+            if (n <= 0) continue;
+            long value = e.getKey();
+            histogram[StatsSnapshot.bucketOf(value)] += n;
+            if (min == null || value < min) min = value;
+            if (max == null || value > max) max = value;
+        }
+        return new StatsSnapshot.Distribution(min, max, total.sum(), histogram);
+    }
+}
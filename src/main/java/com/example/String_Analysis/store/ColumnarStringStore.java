@@ -0,0 +1,510 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import com.example.String_Analysis.util.PageCursor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+// Compact storage mode (string-analyzer.storage.mode=columnar).
+//
+// Every entry gets an ordinal (its row) in a set of parallel primitive columns:
+// the sha256 id as 4 longs, createdAt, length/word count/unique count, palindrome and
+// liveness bitsets, the value as Latin-1 bytes when possible (UTF-16 otherwise) and the
+// frequency map packed as [char, count, char, count, ...] in first-occurrence order.
+// There is no value -> id map; lookups by value hash the value. AnalyzedString objects
+// are only materialized for entries that are actually returned.
+//
+// Entries whose value is on disk keep the file path in the value column instead.
+// In-memory values are also in a trigram index over ordinals, for contains_substring.
+//
+// Rows of deleted entries are tombstoned. When the columns are full and at least a quarter of
+// the rows are tombstones, the live rows are slid down over them instead of growing the
+// columns, so ordinals stay in insertion order. That is creation order except for concurrent
+// creates racing for the lock; maxLateness bounds how far a row's createdAt can fall behind an
+// earlier row's, which lets newest-first scans stop early. Rows inserted far behind (entries
+// faulted back in from disk) are kept out of that bound, in a set sorted by createdAt that
+// scans walk separately.
+@Component
+@ConditionalOnProperty(name = "string-analyzer.storage.mode", havingValue = "columnar")
+public class ColumnarStringStore implements StringStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    // Lateness up to this counts towards maxLateness; rows later than that are "late" rows
+    private static final long MAX_LATENESS_NANOS = 1_000_000_000L;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Columns, indexed by ordinal (idWords by ordinal * 4)
+    private long[] idWords = new long[INITIAL_CAPACITY * 4];
+    private long[] createdNanos = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int[] wordCounts = new int[INITIAL_CAPACITY];
+    private int[] uniqueCounts = new int[INITIAL_CAPACITY];
+    private byte[][] values = new byte[INITIAL_CAPACITY][];
+    private int[][] frequencies = new int[INITIAL_CAPACITY][];
+    private final BitSet palindromes = new BitSet();
+    private final BitSet latin1 = new BitSet();
+    private final BitSet live = new BitSet();
+    private final BitSet onDisk = new BitSet();
+    private final BitSet late = new BitSet();
+    // Late rows, oldest first
+    private final TreeSet<Integer> lateByCreated = new TreeSet<>(
+            Comparator.<Integer>comparingLong(ord -> createdNanos[ord]).thenComparingInt(ord -> ord));
+
+    private int rows;
+    private int liveRows;
+    // Newest createdAt inserted so far, and the most any row was older than that when inserted
+    private long maxCreated = Long.MIN_VALUE;
+    private long maxLateness;
+    // Heap held by the per-row value and frequency arrays (the columns themselves are counted by size)
+    private long payloadBytes;
+    // forEach calls in progress; rows aren't compacted under them, as they walk by ordinal
+    private final AtomicInteger activeScans = new AtomicInteger();
+
+    // Open-addressing id -> ordinal table holding ordinal + 1 (0 = empty slot).
+    // Slots of deleted rows are skipped by lookups and reused by inserts.
+    private int[] idTable = new int[INITIAL_CAPACITY * 2];
+    private int usedSlots;
+
+    private TrigramIndex trigrams = new TrigramIndex();
+
+    @Override
+    public boolean containsId(StringId id) {
+        lock.readLock().lock();
+        try {
+            return find(id) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public AnalyzedString getById(StringId id) {
+        lock.readLock().lock();
+        try {
+            int ord = find(id);
+            return ord < 0 ? null : materialize(ord);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public AnalyzedString getByValue(String value) {
+        // Like the object store, values on disk are only reachable by id
+        AnalyzedString entry = getById(HashUtils.sha256(value));
+        return entry == null || entry.isValueOnDisk() ? null : entry;
+    }
+
+    @Override
+    public boolean insert(AnalyzedString entry) {
+        StringId key = entry.getKey();
+        AnalyzedString.Properties p = entry.getProperties();
+        String stored = entry.isValueOnDisk() ? entry.getValueFile().toString() : entry.getValue();
+        byte[] encoded = encode(stored);
+        int[] packed = pack(p.getCharacter_frequency_map());
+        long created = toNanos(entry.getCreatedAt());
+        String lowercased = entry.isValueOnDisk() ? null : stored.toLowerCase(Locale.ROOT);
+
+        lock.writeLock().lock();
+        try {
+            if (find(key) >= 0) return false;
+            if (rows == lengths.length) {
+                if (rows - liveRows >= rows / 4 && activeScans.get() == 0) compact();
+                else growColumns();
+            }
+
+            int ord = rows++;
+            for (int i = 0; i < 4; i++) idWords[ord * 4 + i] = key.word(i);
+            createdNanos[ord] = created;
+            if (created >= maxCreated) {
+                maxCreated = created;
+            } else if (maxCreated - created > MAX_LATENESS_NANOS) {
+                late.set(ord);
+                lateByCreated.add(ord);
+            } else {
+                maxLateness = Math.max(maxLateness, maxCreated - created);
+            }
+            lengths[ord] = p.getLength();
+            wordCounts[ord] = p.getWord_count();
+            uniqueCounts[ord] = p.getUnique_characters();
+            values[ord] = encoded;
+            frequencies[ord] = packed;
+            payloadBytes += arrayBytes(encoded.length, 1) + arrayBytes(packed.length, 4);
+            palindromes.set(ord, p.isIs_palindrome());
+            latin1.set(ord, encoded.length == stored.length());
+            onDisk.set(ord, entry.isValueOnDisk());
+            live.set(ord);
+            liveRows++;
+            addToIdTable(ord);
+            if (lowercased != null) trigrams.add(ord, lowercased);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public AnalyzedString removeByValue(String value) {
+        return remove(HashUtils.sha256(value), true);
+    }
+
+    @Override
+    public AnalyzedString removeById(StringId id) {
+        return remove(id, false);
+    }
+
+    private AnalyzedString remove(StringId key, boolean byValue) {
+        lock.writeLock().lock();
+        try {
+            int ord = find(key);
+            if (ord < 0 || (byValue && onDisk.get(ord))) return null;
+            AnalyzedString removed = materialize(ord);
+            if (!removed.isValueOnDisk()) trigrams.remove(ord, removed.getValue().toLowerCase(Locale.ROOT));
+            live.clear(ord);
+            liveRows--;
+            if (late.get(ord)) {
+                lateByCreated.remove(ord);
+                late.clear(ord);
+            }
+            // Drop the row's payload; the primitive columns stay as a tombstone
+            payloadBytes -= arrayBytes(values[ord].length, 1) + arrayBytes(frequencies[ord].length, 4);
+            values[ord] = null;
+            frequencies[ord] = null;
+            return removed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                       Integer wordCount, String containsCharacter, String containsSubstring,
+                                       PageCursor after, Instant createdAfter, int limit) {
+        if (containsCharacter != null && containsCharacter.length() != 1) return new ArrayList<>();
+        if (containsSubstring != null && containsSubstring.isEmpty()) return new ArrayList<>();
+        int ch = containsCharacter == null ? -1 : containsCharacter.charAt(0);
+        boolean useTrigrams = containsSubstring != null && containsSubstring.length() >= TrigramIndex.GRAM;
+        long cursorNanos = after == null ? Long.MAX_VALUE : toNanos(after.getCreatedAt());
+        long lowerNanos = createdAfter == null ? Long.MIN_VALUE : toNanos(createdAfter);
+
+        List<AnalyzedString> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            // Every row at or before ord was created no later than createdNanos[ord] + maxLateness
+            long oldestKept = Long.MAX_VALUE;
+            // Newest rows last, so walk backwards: over all live rows, or over the (sorted)
+            // rows holding every trigram of the substring. Late rows are walked afterwards.
+            int[] candidates = useTrigrams ? trigrams.candidates(containsSubstring) : null;
+            int c = useTrigrams ? candidates.length - 1 : -1;
+            for (int ord = useTrigrams ? (c >= 0 ? candidates[c] : -1) : live.previousSetBit(rows - 1);
+                 ord >= 0;
+                 ord = useTrigrams ? (--c >= 0 ? candidates[c] : -1) : live.previousSetBit(ord - 1)) {
+                if (late.get(ord)) continue;
+                long created = createdNanos[ord];
+                long newestBefore = created + maxLateness;
+                if (newestBefore <= lowerNanos) break;
+                // Nothing from here on is newer than the oldest of the limit entries already kept
+                if (result.size() >= limit && newestBefore < oldestKept) break;
+                if (created <= lowerNanos || !beforeCursor(ord, created, after, cursorNanos)) continue;
+                if (!matches(ord, isPalindrome, minLength, maxLength, wordCount, ch, containsSubstring)) continue;
+                result.add(materialize(ord));
+                oldestKept = Math.min(oldestKept, created);
+            }
+
+            // Late rows newest first, down to the oldest entry that can still make the page
+            result.sort(StringIndex.NEWEST_FIRST);
+            long cutoff = result.size() >= limit ? toNanos(result.get(limit - 1).getCreatedAt()) : Long.MIN_VALUE;
+            int lateKept = 0;
+            for (Integer ord : lateByCreated.descendingSet()) {
+                long created = createdNanos[ord];
+                if (created < cutoff || created <= lowerNanos || lateKept >= limit) break;
+                if (!beforeCursor(ord, created, after, cursorNanos)) continue;
+                if (!matches(ord, isPalindrome, minLength, maxLength, wordCount, ch, containsSubstring)) continue;
+                result.add(materialize(ord));
+                lateKept++;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Sorting an almost sorted list is linear
+        result.sort(StringIndex.NEWEST_FIRST);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    // Whether the row comes after the cursor in newest-first order
+    private boolean beforeCursor(int ord, long created, PageCursor after, long cursorNanos) {
+        return created < cursorNanos || (created == cursorNanos && idAt(ord).compareTo(after.getId()) > 0);
+    }
+
+    private boolean matches(int ord, Boolean isPalindrome, Integer minLength, Integer maxLength,
+                            Integer wordCount, int ch, String containsSubstring) {
+        if (isPalindrome != null && palindromes.get(ord) != isPalindrome) return false;
+        if (minLength != null && lengths[ord] < minLength) return false;
+        if (maxLength != null && lengths[ord] > maxLength) return false;
+        if (wordCount != null && wordCounts[ord] != wordCount) return false;
+        if (ch >= 0 && !containsChar(frequencies[ord], ch)) return false;
+        return containsSubstring == null || containsSubstring(ord, containsSubstring);
+    }
+
+    // Cheap per-char check against the frequency table before decoding the value
+    private boolean containsSubstring(int ord, String needle) {
+        if (onDisk.get(ord)) return false;
+        for (int i = 0; i < needle.length(); i++) {
+            if (!containsChar(frequencies[ord], needle.charAt(i))) return false;
+        }
+        return decode(values[ord], latin1.get(ord)).toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private static long toNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    @Override
+    public List<AnalyzedString> listAll() {
+        List<AnalyzedString> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1)) {
+                result.add(materialize(ord));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    // One row at a time, so the action (e.g. a snapshot write) runs without the lock held
+    @Override
+    public void forEach(Consumer<AnalyzedString> action) {
+        activeScans.incrementAndGet();
+        try {
+            for (int ord = 0; ; ord++) {
+                AnalyzedString entry;
+                lock.readLock().lock();
+                try {
+                    ord = live.nextSetBit(ord);
+                    if (ord < 0) return;
+                    entry = materialize(ord);
+                } finally {
+                    lock.readLock().unlock();
+                }
+                action.accept(entry);
+            }
+        } finally {
+            activeScans.decrementAndGet();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        lock.readLock().lock();
+        try {
+            long columns = arrayBytes(idWords.length, 8) + arrayBytes(createdNanos.length, 8)
+                    + 3 * arrayBytes(lengths.length, 4) + 2 * arrayBytes(values.length, 4)
+                    + arrayBytes(idTable.length, 4) + 5 * (rows / 8 + 16);
+            // A TreeMap node and a boxed ordinal per late row
+            return columns + payloadBytes + trigrams.estimatedBytes() + 56L * lateByCreated.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        return (16 + (long) length * elementSize + 7) & ~7L;
+    }
+
+    private AnalyzedString materialize(int ord) {
+        StringId id = idAt(ord);
+        int[] packed = frequencies[ord];
+        Map<String, Integer> freq = new LinkedHashMap<>((int) (packed.length / 2 / 0.75f) + 1);
+        for (int i = 0; i < packed.length; i += 2) {
+            freq.put(String.valueOf((char) packed[i]), packed[i + 1]);
+        }
+        AnalyzedString.Properties props = new AnalyzedString.Properties(lengths[ord], palindromes.get(ord),
+                uniqueCounts[ord], wordCounts[ord], id, freq);
+        long created = createdNanos[ord];
+        Instant createdAt = Instant.ofEpochSecond(Math.floorDiv(created, 1_000_000_000L),
+                Math.floorMod(created, 1_000_000_000L));
+        String stored = decode(values[ord], latin1.get(ord));
+        return onDisk.get(ord)
+                ? new AnalyzedString(id, Path.of(stored), props, createdAt)
+                : new AnalyzedString(id, stored, props, createdAt);
+    }
+
+    private static boolean containsChar(int[] packed, int ch) {
+        for (int i = 0; i < packed.length; i += 2) {
+            if (packed[i] == ch) return true;
+        }
+        return false;
+    }
+
+    private static int[] pack(Map<String, Integer> freq) {
+        int[] packed = new int[freq.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, Integer> e : freq.entrySet()) {
+            packed[i++] = e.getKey().charAt(0);
+            packed[i++] = e.getValue();
+        }
+        return packed;
+    }
+
+    // Latin-1 bytes when every char fits, otherwise 2 bytes per char (lone surrogates survive)
+    private static byte[] encode(String value) {
+        int n = value.length();
+        boolean fitsLatin1 = true;
+        for (int i = 0; i < n && fitsLatin1; i++) {
+            fitsLatin1 = value.charAt(i) <= 0xFF;
+        }
+        if (fitsLatin1) {
+            byte[] bytes = new byte[n];
+            for (int i = 0; i < n; i++) bytes[i] = (byte) value.charAt(i);
+            return bytes;
+        }
+        byte[] bytes = new byte[n * 2];
+        for (int i = 0; i < n; i++) {
+            char c = value.charAt(i);
+            bytes[i * 2] = (byte) (c >>> 8);
+            bytes[i * 2 + 1] = (byte) c;
+        }
+        return bytes;
+    }
+
+    private static String decode(byte[] bytes, boolean isLatin1) {
+        if (isLatin1) {
+            char[] chars = new char[bytes.length];
+            for (int i = 0; i < bytes.length; i++) chars[i] = (char) (bytes[i] & 0xFF);
+            return new String(chars);
+        }
+        char[] chars = new char[bytes.length / 2];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (((bytes[i * 2] & 0xFF) << 8) | (bytes[i * 2 + 1] & 0xFF));
+        }
+        return new String(chars);
+    }
+
+    private StringId idAt(int ord) {
+        int base = ord * 4;
+        return new StringId(idWords[base], idWords[base + 1], idWords[base + 2], idWords[base + 3]);
+    }
+
+    private int find(StringId key) {
+        long w0 = key.word(0), w1 = key.word(1), w2 = key.word(2), w3 = key.word(3);
+        int mask = idTable.length - 1;
+        for (int slot = spread(w0) & mask, t; (t = idTable[slot]) != 0; slot = (slot + 1) & mask) {
+            int ord = t - 1;
+            int base = ord * 4;
+            if (live.get(ord) && idWords[base] == w0 && idWords[base + 1] == w1
+                    && idWords[base + 2] == w2 && idWords[base + 3] == w3) {
+                return ord;
+            }
+        }
+        return -1;
+    }
+
+    private void addToIdTable(int ord) {
+        if ((usedSlots + 1) * 2 > idTable.length) rehash();
+        int mask = idTable.length - 1;
+        int slot = spread(idWords[ord * 4]) & mask;
+        while (idTable[slot] != 0 && live.get(idTable[slot] - 1)) slot = (slot + 1) & mask;
+        if (idTable[slot] == 0) usedSlots++;
+        idTable[slot] = ord + 1;
+    }
+
+    // Rebuilds the table from live rows only, growing it if needed
+    private void rehash() {
+        int capacity = INITIAL_CAPACITY * 2;
+        while (capacity < (liveRows + 1) * 4) capacity <<= 1;
+        idTable = new int[capacity];
+        usedSlots = 0;
+        int mask = capacity - 1;
+        for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1)) {
+            int slot = spread(idWords[ord * 4]) & mask;
+            while (idTable[slot] != 0) slot = (slot + 1) & mask;
+            idTable[slot] = ord + 1;
+            usedSlots++;
+        }
+    }
+
+    // Slides the live rows down over the tombstones, keeping their order, and rebuilds what
+    // refers to rows by ordinal; maxLateness is recomputed over the rows that remain
+    private void compact() {
+        lateByCreated.clear();
+        TrigramIndex rebuilt = new TrigramIndex();
+        long newest = Long.MIN_VALUE;
+        long lateness = 0;
+        int to = 0;
+        for (int from = live.nextSetBit(0); from >= 0; from = live.nextSetBit(from + 1), to++) {
+            if (from != to) {
+                System.arraycopy(idWords, from * 4, idWords, to * 4, 4);
+                createdNanos[to] = createdNanos[from];
+                lengths[to] = lengths[from];
+                wordCounts[to] = wordCounts[from];
+                uniqueCounts[to] = uniqueCounts[from];
+                values[to] = values[from];
+                frequencies[to] = frequencies[from];
+                palindromes.set(to, palindromes.get(from));
+                latin1.set(to, latin1.get(from));
+                onDisk.set(to, onDisk.get(from));
+                late.set(to, late.get(from));
+            }
+            long created = createdNanos[to];
+            if (late.get(to)) {
+                lateByCreated.add(to);
+            } else if (created >= newest) {
+                newest = created;
+            } else {
+                lateness = Math.max(lateness, newest - created);
+            }
+            if (!onDisk.get(to)) rebuilt.add(to, decode(values[to], latin1.get(to)).toLowerCase(Locale.ROOT));
+        }
+        Arrays.fill(values, to, rows, null);
+        Arrays.fill(frequencies, to, rows, null);
+        palindromes.clear(to, rows);
+        latin1.clear(to, rows);
+        onDisk.clear(to, rows);
+        late.clear(to, rows);
+        live.clear();
+        live.set(0, to);
+        rows = to;
+        maxLateness = lateness;
+        trigrams = rebuilt;
+        rehash();
+    }
+
+    private void growColumns() {
+        int capacity = lengths.length * 2;
+        idWords = Arrays.copyOf(idWords, capacity * 4);
+        createdNanos = Arrays.copyOf(createdNanos, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        wordCounts = Arrays.copyOf(wordCounts, capacity);
+        uniqueCounts = Arrays.copyOf(uniqueCounts, capacity);
+        values = Arrays.copyOf(values, capacity);
+        frequencies = Arrays.copyOf(frequencies, capacity);
+    }
+
+    // The id is a sha256 prefix, so its bits are already uniformly distributed
+    private static int spread(long word) {
+        return (int) (word ^ (word >>> 32));
+    }
+}
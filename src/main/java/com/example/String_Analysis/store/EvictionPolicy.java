@@ -0,0 +1,42 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Chooses which in-memory entries TieredStringStore moves to disk. Implementations are told
+// about every entry entering or leaving memory and about point lookups, and must be thread-safe.
+public interface EvictionPolicy {
+
+    void inserted(AnalyzedString entry);
+
+    void accessed(StringId id);
+
+    void removed(StringId id);
+
+    // The next entry to evict while memory is over budget (no longer tracked afterwards), or null
+    StringId victim();
+
+    // An entry to evict even within budget, or null
+    default StringId expired(Instant now) {
+        return null;
+    }
+
+    // Whether a spilled entry that was looked up should move back into memory. False for one
+    // the policy would evict again straight away: it is served from disk instead, rather than
+    // costing a new spill record on every read.
+    default boolean admits(AnalyzedString entry, Instant now) {
+        return true;
+    }
+
+    // string-analyzer.memory.eviction: "lru" or "oldest" (by created_at, with an optional max age)
+    static EvictionPolicy of(String name, Duration maxAge) {
+        return switch (name.toLowerCase()) {
+            case "lru" -> new LruEvictionPolicy();
+            case "oldest" -> new OldestFirstEvictionPolicy(maxAge);
+            default -> throw new IllegalArgumentException("string-analyzer.memory.eviction must be lru or oldest, not " + name);
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Evicts the entry least recently created or looked up by value/id. Filter results don't
+// count as accesses, so one large listing can't flush the entries point lookups keep hot.
+//
+// Approximate, so that lookups don't serialize: an access only stamps the entry's last use,
+// and a victim is the least recently used of the next few entries a hand walking the map
+// passes. Only TieredStringStore's evicting thread calls victim(), so the hand is unshared.
+class LruEvictionPolicy implements EvictionPolicy {
+
+    // Entries compared per victim
+    private static final int SAMPLE = 8;
+
+    private final Map<StringId, Stamp> stamps = new ConcurrentHashMap<>();
+    private Iterator<Map.Entry<StringId, Stamp>> hand;
+
+    @Override
+    public void inserted(AnalyzedString entry) {
+        stamps.put(entry.getKey(), new Stamp());
+    }
+
+    @Override
+    public void accessed(StringId id) {
+        Stamp stamp = stamps.get(id);
+        if (stamp != null) stamp.lastUsed = System.nanoTime();
+    }
+
+    @Override
+    public void removed(StringId id) {
+        stamps.remove(id);
+    }
+
+    @Override
+    public StringId victim() {
+        while (!stamps.isEmpty()) {
+            Map.Entry<StringId, Stamp> victim = null;
+            for (int i = 0; i < SAMPLE; i++) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = stamps.entrySet().iterator();
+                    if (!hand.hasNext()) break;
+                }
+                Map.Entry<StringId, Stamp> candidate = hand.next();
+                if (victim == null || candidate.getValue().lastUsed < victim.getValue().lastUsed) {
+                    victim = candidate;
+                }
+            }
+            // The hand may pass entries removed since it started; pick again if this was one
+            if (victim != null && stamps.remove(victim.getKey(), victim.getValue())) return victim.getKey();
+        }
+        return null;
+    }
+
+    private static final class Stamp {
+        // System.nanoTime() of the insert or last lookup
+        volatile long lastUsed = System.nanoTime();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.String_Analysis.store;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+// string-analyzer.memory.*: how much heap the stored entries may use before the least valuable
+// ones (per the eviction policy) are spilled to disk. Unbounded by default.
+@Component
+public class MemoryBudget {
+
+    private final long maxBytes;
+    private final String eviction;
+    private final Duration maxAge;
+    private final Path spillDir;
+    private final long segmentBytes;
+    private TieredStringStore tiered;
+
+    public MemoryBudget(@Value("${string-analyzer.memory.max-bytes:0}") long maxBytes,
+                        @Value("${string-analyzer.memory.eviction:lru}") String eviction,
+                        @Value("${string-analyzer.memory.max-age-seconds:0}") long maxAgeSeconds,
+                        @Value("${string-analyzer.memory.spill-dir:spill}") String spillDir,
+                        @Value("${string-analyzer.memory.segment-bytes:67108864}") long segmentBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("string-analyzer.memory.max-bytes must be >= 0");
+        if (segmentBytes <= 0) throw new IllegalArgumentException("string-analyzer.memory.segment-bytes must be > 0");
+        this.maxBytes = maxBytes;
+        this.eviction = eviction;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+        this.spillDir = Path.of(spillDir);
+        this.segmentBytes = segmentBytes;
+        // Fail at startup rather than on the first eviction
+        EvictionPolicy.of(eviction, maxAge);
+    }
+
+    public static MemoryBudget unbounded() {
+        return new MemoryBudget(0, "lru", 0, "spill", 67108864);
+    }
+
+    public boolean isBounded() {
+        return maxBytes > 0;
+    }
+
+    // The store to use in place of store: store itself when unbounded, otherwise the same
+    // TieredStringStore around it on every call
+    public synchronized StringStore apply(StringStore store) {
+        if (!isBounded()) return store;
+        if (tiered == null || tiered.getMemory() != store) {
+            tiered = new TieredStringStore(store, new SpillStore(spillDir, segmentBytes),
+                    EvictionPolicy.of(eviction, maxAge), maxBytes);
+        }
+        return tiered;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import com.example.String_Analysis.util.PageCursor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Default storage: one AnalyzedString object per entry plus secondary indexes.
+//
+// Entries live in a single map keyed by sha256 id. A lookup by value hashes the value
+// instead of keeping a second value -> id map, so create and delete are each one atomic
+// map operation (putIfAbsent / conditional remove) and there is no window in which an
+// entry is visible by id but not by value or the other way round.
+@Component
+@ConditionalOnProperty(name = "string-analyzer.storage.mode", havingValue = "objects", matchIfMissing = true)
+public class ObjectStringStore implements StringStore {
+
+    // Store by sha256 hash
+    private final Map<StringId, AnalyzedString> storeById = new ConcurrentHashMap<>();
+    // Secondary indexes for filter (length, word count, palindrome, characters)
+    private final StringIndex index = new StringIndex();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder estimatedBytes = new LongAdder();
+
+    @Override
+    public boolean containsId(StringId id) {
+        return storeById.containsKey(id);
+    }
+
+    @Override
+    public AnalyzedString getById(StringId id) {
+        return storeById.get(id);
+    }
+
+    @Override
+    public AnalyzedString getByValue(String value) {
+        AnalyzedString entry = storeById.get(HashUtils.sha256(value));
+        return isStoredValue(entry, value) ? entry : null;
+    }
+
+    @Override
+    public boolean insert(AnalyzedString entry) {
+        if (storeById.putIfAbsent(entry.getKey(), entry) != null) return false;
+        count.increment();
+        estimatedBytes.add(estimateBytes(entry));
+        index.add(entry);
+        // A delete that ran between putIfAbsent and index.add found nothing to unindex
+        if (storeById.get(entry.getKey()) != entry) index.remove(entry);
+        return true;
+    }
+
+    @Override
+    public AnalyzedString removeByValue(String value) {
+        AnalyzedString entry = storeById.get(HashUtils.sha256(value));
+        // Values on disk are only reachable by id
+        if (!isStoredValue(entry, value)) return null;
+        return remove(entry);
+    }
+
+    @Override
+    public AnalyzedString removeById(StringId id) {
+        AnalyzedString entry = storeById.get(id);
+        return entry == null ? null : remove(entry);
+    }
+
+    // Only the caller whose conditional remove succeeds unindexes the entry
+    private AnalyzedString remove(AnalyzedString entry) {
+        if (!storeById.remove(entry.getKey(), entry)) return null;
+        count.decrement();
+        estimatedBytes.add(-estimateBytes(entry));
+        index.remove(entry);
+        return entry;
+    }
+
+    private static boolean isStoredValue(AnalyzedString entry, String value) {
+        return entry != null && !entry.isValueOnDisk() && entry.getValue().equals(value);
+    }
+
+    @Override
+    public List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                       Integer wordCount, String containsCharacter, String containsSubstring,
+                                       PageCursor after, Instant createdAfter, int limit) {
+        // Served from the secondary indexes, already ordered newest first
+        return index.query(isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring,
+                after, createdAfter, limit);
+    }
+
+    @Override
+    public List<AnalyzedString> listAll() {
+        return new ArrayList<>(storeById.values());
+    }
+
+    @Override
+    public void forEach(Consumer<AnalyzedString> action) {
+        storeById.values().forEach(action);
+    }
+
+    @Override
+    public int size() {
+        return count.intValue();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return estimatedBytes.sum() + index.substringIndexBytes();
+    }
+
+    // Entry object graph, its map node, and one skip-list node (plus average index
+    // levels) per posting: all, length, word count, palindrome and one per distinct character
+    static long estimateBytes(AnalyzedString entry) {
+        // Values on disk cost only their path here
+        String value = entry.isValueOnDisk() ? entry.getValueFile().toString() : entry.getValue();
+        int distinct = entry.getProperties().getCharacter_frequency_map().size();
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) latin1 = value.charAt(i) <= 0xFF;
+        long valueBytes = 24 + align(16 + (long) value.length() * (latin1 ? 1 : 2));
+        int table = Integer.highestOneBit(Math.max(1, (int) (distinct / 0.75f)) * 2 - 1);
+        // LinkedHashMap + table + per character: node, 1-char key String, Integer count
+        long freqBytes = 56 + align(16 + 4L * table) + distinct * (40L + 48 + 16);
+        long postings = (4L + distinct) * 40;
+        return 24 /* AnalyzedString */ + 40 /* StringId */ + valueBytes + 40 /* Properties */
+                + 24 /* Instant */ + freqBytes + 32 /* map node */ + postings;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
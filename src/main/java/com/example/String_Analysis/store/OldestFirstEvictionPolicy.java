@@ -0,0 +1,70 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Evicts by created_at, oldest first, ignoring lookups. With a max age (TTL), entries older
+// than it are evicted even when memory is within budget.
+class OldestFirstEvictionPolicy implements EvictionPolicy {
+
+    private record Tracked(Instant createdAt, StringId id) {
+    }
+
+    private final ConcurrentSkipListSet<Tracked> byCreated = new ConcurrentSkipListSet<>(
+            Comparator.comparing(Tracked::createdAt).thenComparing(Tracked::id));
+    private final Map<StringId, Tracked> tracked = new ConcurrentHashMap<>();
+    // Null for no max age
+    private final Duration maxAge;
+
+    OldestFirstEvictionPolicy(Duration maxAge) {
+        this.maxAge = maxAge == null || maxAge.isZero() || maxAge.isNegative() ? null : maxAge;
+    }
+
+    @Override
+    public void inserted(AnalyzedString entry) {
+        Tracked t = new Tracked(entry.getCreatedAt(), entry.getKey());
+        tracked.put(t.id(), t);
+        byCreated.add(t);
+    }
+
+    @Override
+    public void accessed(StringId id) {
+    }
+
+    @Override
+    public void removed(StringId id) {
+        Tracked t = tracked.remove(id);
+        if (t != null) byCreated.remove(t);
+    }
+
+    @Override
+    public StringId victim() {
+        Tracked oldest = byCreated.pollFirst();
+        if (oldest == null) return null;
+        tracked.remove(oldest.id(), oldest);
+        return oldest.id();
+    }
+
+    // Past its max age, or older than everything in memory (the next victim)
+    @Override
+    public boolean admits(AnalyzedString entry, Instant now) {
+        if (maxAge != null && entry.getCreatedAt().isBefore(now.minus(maxAge))) return false;
+        Tracked oldest = byCreated.isEmpty() ? null : byCreated.first();
+        return oldest == null || entry.getCreatedAt().isAfter(oldest.createdAt());
+    }
+
+    @Override
+    public StringId expired(Instant now) {
+        if (maxAge == null || byCreated.isEmpty()) return null;
+        Tracked oldest = byCreated.first();
+        return oldest.createdAt().isBefore(now.minus(maxAge)) && byCreated.remove(oldest)
+                && tracked.remove(oldest.id(), oldest) ? oldest.id() : null;
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.String_Analysis.store;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Compressed set of non-negative ints, roaring-style: values are grouped by their high 16 bits
+// and each group (container) is a sorted char[] of low halves while it holds up to 4096
+// values, or a 65536-bit long[] bitmap above that. Sparse sets cost ~2 bytes per value,
+// dense ones ~1 bit. Not thread-safe.
+final class OrdinalBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    // Sorted high halves, and per container either a char[] or a long[] plus its cardinality
+    private char[] keys = new char[1];
+    private Object[] containers = new Object[1];
+    private int[] cardinalities = new int[1];
+    private int size;
+    private int cardinality;
+    private long bytes = 16 + 24 * 3;
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    // Rough heap footprint, kept up to date as containers grow or change kind
+    long sizeInBytes() {
+        return bytes;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    // Returns false if value was already present
+    boolean add(int value) {
+        char hi = (char) (value >>> 16);
+        char lo = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, hi);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, hi);
+        }
+        int n = cardinalities[i];
+        if (containers[i] instanceof long[] bits) {
+            long mask = 1L << lo;
+            if ((bits[lo >>> 6] & mask) != 0) return false;
+            bits[lo >>> 6] |= mask;
+        } else {
+            char[] array = (char[]) containers[i];
+            int at = Arrays.binarySearch(array, 0, n, lo);
+            if (at >= 0) return false;
+            at = -at - 1;
+            if (n == ARRAY_MAX) {
+                long[] bits = toBitmap(array, n);
+                bits[lo >>> 6] |= 1L << lo;
+                containers[i] = bits;
+                bytes += arrayBytes(BITMAP_WORDS, 8) - arrayBytes(array.length, 2);
+            } else {
+                if (n == array.length) {
+                    char[] grown = Arrays.copyOf(array, Math.min(ARRAY_MAX, Math.max(4, n * 2)));
+                    bytes += arrayBytes(grown.length, 2) - arrayBytes(array.length, 2);
+                    containers[i] = array = grown;
+                }
+                System.arraycopy(array, at, array, at + 1, n - at);
+                array[at] = lo;
+            }
+        }
+        cardinalities[i] = n + 1;
+        cardinality++;
+        return true;
+    }
+
+    // Returns false if value was not present
+    boolean remove(int value) {
+        char hi = (char) (value >>> 16);
+        char lo = (char) value;
+        int i = Arrays.binarySearch(keys, 0, size, hi);
+        if (i < 0) return false;
+        int n = cardinalities[i];
+        if (containers[i] instanceof long[] bits) {
+            long mask = 1L << lo;
+            if ((bits[lo >>> 6] & mask) == 0) return false;
+            bits[lo >>> 6] &= ~mask;
+            if (n - 1 == ARRAY_MAX) {
+                containers[i] = toArray(bits, n - 1);
+                bytes += arrayBytes(ARRAY_MAX, 2) - arrayBytes(BITMAP_WORDS, 8);
+            }
+        } else {
+            char[] array = (char[]) containers[i];
+            int at = Arrays.binarySearch(array, 0, n, lo);
+            if (at < 0) return false;
+            System.arraycopy(array, at + 1, array, at, n - at - 1);
+        }
+        cardinalities[i] = n - 1;
+        cardinality--;
+        if (n == 1) removeContainer(i);
+        return true;
+    }
+
+    boolean contains(int value) {
+        int i = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return i >= 0 && containerContains(i, (char) value);
+    }
+
+    // Sorted values present in every bitmap. Walks the smallest one and probes the others,
+    // which skip whole containers whose high half they don't have.
+    static int[] intersect(List<OrdinalBitmap> bitmaps) {
+        if (bitmaps.isEmpty()) return new int[0];
+        OrdinalBitmap smallest = bitmaps.get(0);
+        for (OrdinalBitmap b : bitmaps) {
+            if (b.cardinality < smallest.cardinality) smallest = b;
+        }
+        int[] out = new int[smallest.cardinality];
+        int count = 0;
+        int[] at = new int[bitmaps.size()];
+        for (int c = 0; c < smallest.size; c++) {
+            char hi = smallest.keys[c];
+            boolean all = true;
+            for (int k = 0; k < bitmaps.size() && all; k++) {
+                OrdinalBitmap b = bitmaps.get(k);
+                at[k] = b == smallest ? c : Arrays.binarySearch(b.keys, 0, b.size, hi);
+                all = at[k] >= 0;
+            }
+            if (!all) continue;
+
+            int base = hi << 16;
+            int n = smallest.cardinalities[c];
+            Object container = smallest.containers[c];
+            for (int j = 0, lo = -1; j < n; j++) {
+                lo = container instanceof long[] bits ? nextSetBit(bits, lo + 1) : ((char[]) container)[j];
+                boolean inAll = true;
+                for (int k = 0; k < bitmaps.size() && inAll; k++) {
+                    OrdinalBitmap b = bitmaps.get(k);
+                    if (b != smallest) inAll = b.containerContains(at[k], (char) lo);
+                }
+                if (inAll) out[count++] = base | lo;
+            }
+        }
+        return Arrays.copyOf(out, count);
+    }
+
+    private boolean containerContains(int i, char lo) {
+        if (containers[i] instanceof long[] bits) return (bits[lo >>> 6] & (1L << lo)) != 0;
+        return Arrays.binarySearch((char[]) containers[i], 0, cardinalities[i], lo) >= 0;
+    }
+
+    private void insertContainer(int i, char hi) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            bytes += (long) (capacity - keys.length) * (2 + 4 + 4);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+            cardinalities = Arrays.copyOf(cardinalities, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        System.arraycopy(cardinalities, i, cardinalities, i + 1, size - i);
+        keys[i] = hi;
+        containers[i] = new char[4];
+        cardinalities[i] = 0;
+        bytes += arrayBytes(4, 2);
+        size++;
+    }
+
+    private void removeContainer(int i) {
+        Object container = containers[i];
+        bytes -= container instanceof long[] ? arrayBytes(BITMAP_WORDS, 8) : arrayBytes(((char[]) container).length, 2);
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+        System.arraycopy(cardinalities, i + 1, cardinalities, i, size - i - 1);
+        size--;
+        containers[size] = null;
+    }
+
+    private static long[] toBitmap(char[] array, int n) {
+        long[] bits = new long[BITMAP_WORDS];
+        for (int j = 0; j < n; j++) bits[array[j] >>> 6] |= 1L << array[j];
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int n) {
+        char[] array = new char[ARRAY_MAX];
+        for (int j = 0, lo = nextSetBit(bits, 0); j < n; j++, lo = nextSetBit(bits, lo + 1)) array[j] = (char) lo;
+        return array;
+    }
+
+    private static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) return -1;
+        long word = bits[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == bits.length) return -1;
+            word = bits[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static long arrayBytes(int length, int elementSize) {
+        return (16 + (long) length * elementSize + 7) & ~7L;
+    }
+}
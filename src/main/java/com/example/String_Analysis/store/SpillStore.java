@@ -0,0 +1,328 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.PageCursor;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Disk tier for entries evicted from memory (see TieredStringStore). Entries are appended to
+// segment files as self-contained records (id, created_at, value or value file, properties);
+// only a small slot per entry stays on the heap: where its record is, plus the fields numeric
+// filters need, so filters read records only for entries that pass those.
+//
+// Records are never rewritten. A segment file is deleted once every entry in it has been
+// removed or faulted back into memory. The directory is emptied on startup: spilled entries
+// are rebuilt from the journal like the rest of the store.
+public class SpillStore {
+
+    // Same order as StringIndex.NEWEST_FIRST
+    private static final Comparator<Slot> NEWEST_FIRST = Comparator.comparing(Slot::createdAt).reversed()
+            .thenComparing(Slot::id);
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final Map<StringId, Slot> slots = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Slot> byCreated = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+    private Segment active;
+
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder diskBytes = new LongAdder();
+
+    public SpillStore(Path dir, long segmentBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> old = Files.newDirectoryStream(dir, "segment-*.dat")) {
+                for (Path file : old) Files.delete(file);
+            }
+            active = openSegment(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public boolean contains(StringId id) {
+        return slots.containsKey(id);
+    }
+
+    public AnalyzedString get(StringId id) {
+        Slot slot = slots.get(id);
+        return slot == null ? null : read(slot);
+    }
+
+    // Appends the entry; callers hold TieredStringStore's lock for its id
+    public void put(AnalyzedString entry) {
+        byte[] record = encode(entry);
+        AnalyzedString.Properties p = entry.getProperties();
+        Slot slot;
+        synchronized (this) {
+            if (active.size + record.length > segmentBytes && active.size > 0) {
+                Segment full = active;
+                try {
+                    active = openSegment(full.number + 1);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (full.live.get() == 0) closeSegment(full);
+            }
+            write(active, active.size, record);
+            slot = new Slot(entry.getKey(), entry.getCreatedAt(), p.getLength(), p.getWord_count(),
+                    p.isIs_palindrome(), active, active.size, record.length);
+            active.size += record.length;
+            active.live.incrementAndGet();
+        }
+        diskBytes.add(record.length);
+        Slot previous = slots.put(entry.getKey(), slot);
+        if (previous != null) release(previous);
+        byCreated.add(slot);
+    }
+
+    // Returns the removed entry, or null if it was not spilled
+    public AnalyzedString remove(StringId id) {
+        Slot slot = slots.get(id);
+        if (slot == null) return null;
+        AnalyzedString entry = read(slot);
+        if (!slots.remove(id, slot)) return null;
+        release(slot);
+        return entry;
+    }
+
+    // Same as remove, without reading the record back (e.g. once it is in memory again)
+    public boolean discard(StringId id) {
+        Slot slot = slots.remove(id);
+        if (slot == null) return false;
+        release(slot);
+        return true;
+    }
+
+    private void release(Slot slot) {
+        byCreated.remove(slot);
+        diskBytes.add(-slot.size);
+        Segment segment = slot.segment;
+        if (segment.live.decrementAndGet() == 0) {
+            synchronized (this) {
+                if (segment != active && segment.live.get() == 0) closeSegment(segment);
+            }
+        }
+    }
+
+    // Same contract as StringStore.filter, over the spilled entries
+    public List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                       Integer wordCount, String containsCharacter, String containsSubstring,
+                                       PageCursor after, Instant createdAfter, int limit) {
+        List<AnalyzedString> result = new ArrayList<>();
+        Iterable<Slot> walk = after == null ? byCreated
+                : byCreated.tailSet(new Slot(after.getId(), after.getCreatedAt(), 0, 0, false, null, 0, 0), false);
+        for (Slot slot : walk) {
+            if (result.size() >= limit) break;
+            if (createdAfter != null && !slot.createdAt.isAfter(createdAfter)) break;
+            if (isPalindrome != null && slot.palindrome != isPalindrome) continue;
+            if (minLength != null && slot.length < minLength) continue;
+            if (maxLength != null && slot.length > maxLength) continue;
+            if (wordCount != null && slot.wordCount != wordCount) continue;
+            AnalyzedString entry = slots.get(slot.id) == slot ? read(slot) : null;
+            if (entry != null && StringIndex.matches(entry, null, null, null, null, containsCharacter,
+                    containsSubstring)) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    public List<AnalyzedString> listAll() {
+        List<AnalyzedString> all = new ArrayList<>(slots.size());
+        for (Slot slot : slots.values()) {
+            AnalyzedString entry = read(slot);
+            if (entry != null) all.add(entry);
+        }
+        return all;
+    }
+
+    // Reads one record at a time
+    public void forEach(Consumer<AnalyzedString> action) {
+        for (Slot slot : slots.values()) {
+            AnalyzedString entry = read(slot);
+            if (entry != null) action.accept(entry);
+        }
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    // Map node, slot and skip-list node per spilled entry
+    public long estimatedHeapBytes() {
+        return slots.size() * 200L;
+    }
+
+    public long getBytesWritten() { return bytesWritten.sum(); }
+    public long getBytesRead() { return bytesRead.sum(); }
+
+    // Bytes of records still in use; segment files also hold the records of removed entries
+    public long getDiskBytes() { return diskBytes.sum(); }
+
+    // Null if the slot's segment was deleted meanwhile, i.e. the entry is no longer spilled
+    private AnalyzedString read(Slot slot) {
+        ByteBuffer buffer = ByteBuffer.allocate(slot.size);
+        try {
+            while (buffer.hasRemaining()) {
+                int n = slot.segment.channel().read(buffer, slot.offset + buffer.position());
+                if (n < 0) throw new IOException("truncated spill record");
+            }
+        } catch (ClosedByInterruptException e) {
+            // Interrupting a thread in a FileChannel read closes the channel for every thread
+            slot.segment.reopen();
+            throw new UncheckedIOException(e);
+        } catch (IOException e) {
+            if (slots.get(slot.id) != slot) return null;
+            throw new UncheckedIOException(e);
+        }
+        bytesRead.add(slot.size);
+        return decode(buffer.array());
+    }
+
+    private void write(Segment segment, long position, byte[] record) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        try {
+            while (buffer.hasRemaining()) segment.channel().write(buffer, position + buffer.position());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        bytesWritten.add(record.length);
+    }
+
+    private Segment openSegment(int number) throws IOException {
+        Path file = dir.resolve("segment-" + number + ".dat");
+        Files.deleteIfExists(file);
+        return new Segment(number, file);
+    }
+
+    private void closeSegment(Segment segment) {
+        try {
+            segment.close();
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Spill files are scratch space, not durable storage: no fsync. The value is written as UTF-16
+    // chars, like the columnar store and the journal keep it, so lone surrogates survive.
+    private static byte[] encode(AnalyzedString entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + (entry.isValueOnDisk() ? 0 : entry.getValue().length() * 2));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            StringId id = entry.getKey();
+            for (int i = 0; i < 4; i++) out.writeLong(id.word(i));
+            out.writeLong(entry.getCreatedAt().getEpochSecond());
+            out.writeInt(entry.getCreatedAt().getNano());
+            out.writeBoolean(entry.isValueOnDisk());
+            String value = entry.isValueOnDisk() ? entry.getValueFile().toString() : entry.getValue();
+            out.writeInt(value.length());
+            out.writeChars(value);
+            AnalyzedString.Properties p = entry.getProperties();
+            out.writeInt(p.getLength());
+            out.writeBoolean(p.isIs_palindrome());
+            out.writeInt(p.getUnique_characters());
+            out.writeInt(p.getWord_count());
+            out.writeInt(p.getCharacter_frequency_map().size());
+            for (Map.Entry<String, Integer> f : p.getCharacter_frequency_map().entrySet()) {
+                out.writeUTF(f.getKey());
+                out.writeInt(f.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static AnalyzedString decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            StringId id = new StringId(in.readLong(), in.readLong(), in.readLong(), in.readLong());
+            Instant createdAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            boolean onDisk = in.readBoolean();
+            char[] value = new char[in.readInt()];
+            for (int i = 0; i < value.length; i++) value[i] = in.readChar();
+            int length = in.readInt();
+            boolean palindrome = in.readBoolean();
+            int unique = in.readInt();
+            int words = in.readInt();
+            int distinct = in.readInt();
+            Map<String, Integer> freq = new LinkedHashMap<>((int) (distinct / 0.75f) + 1);
+            for (int i = 0; i < distinct; i++) freq.put(in.readUTF(), in.readInt());
+            AnalyzedString.Properties props = new AnalyzedString.Properties(length, palindrome, unique, words, id, freq);
+            String text = new String(value);
+            return onDisk ? new AnalyzedString(id, Path.of(text), props, createdAt)
+                    : new AnalyzedString(id, text, props, createdAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Slot(StringId id, Instant createdAt, int length, int wordCount, boolean palindrome,
+                        Segment segment, long offset, int size) {
+    }
+
+    private static final class Segment {
+        final int number;
+        final Path file;
+        final AtomicInteger live = new AtomicInteger();
+        // Guarded by the SpillStore
+        long size;
+        private FileChannel channel;
+        private boolean closed;
+
+        Segment(int number, Path file) throws IOException {
+            this.number = number;
+            this.file = file;
+            this.channel = open();
+        }
+
+        synchronized FileChannel channel() {
+            return channel;
+        }
+
+        synchronized void reopen() {
+            if (closed || channel.isOpen()) return;
+            try {
+                channel = open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        synchronized void close() throws IOException {
+            closed = true;
+            channel.close();
+        }
+
+        private FileChannel open() throws IOException {
+            return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+    }
+}
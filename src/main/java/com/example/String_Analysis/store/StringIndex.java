@@ -0,0 +1,305 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.util.PageCursor;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// Secondary indexes used by StringService.filter so a query only walks the
+// entries of its most selective predicate instead of the whole store.
+public class StringIndex {
+
+    // Newest first; ties on createdAt are broken by id so two entries never compare equal
+    public static final Comparator<AnalyzedString> NEWEST_FIRST =
+            Comparator.comparing(AnalyzedString::getCreatedAt).reversed()
+                    .thenComparing(AnalyzedString::getKey);
+
+    private final Posting all = new Posting();
+    private final ConcurrentSkipListMap<Integer, Posting> byLength = new ConcurrentSkipListMap<>();
+    private final Map<Integer, Posting> byWordCount = new ConcurrentHashMap<>();
+    private final Posting palindromes = new Posting();
+    private final Posting nonPalindromes = new Posting();
+    private final Map<String, Posting> byCharacter = new ConcurrentHashMap<>();
+
+    // contains_substring: trigram postings over small int ordinals handed out per entry (and
+    // reused after deletes). Values on disk are not indexed. Guarded by substringLock.
+    private final ReadWriteLock substringLock = new ReentrantReadWriteLock();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final Map<AnalyzedString, Integer> ordinals = new IdentityHashMap<>();
+    private AnalyzedString[] byOrdinal = new AnalyzedString[1024];
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+    private int nextOrdinal;
+
+    public void add(AnalyzedString entry) {
+        AnalyzedString.Properties p = entry.getProperties();
+        all.add(entry);
+        byLength.computeIfAbsent(p.getLength(), k -> new Posting()).add(entry);
+        byWordCount.computeIfAbsent(p.getWord_count(), k -> new Posting()).add(entry);
+        (p.isIs_palindrome() ? palindromes : nonPalindromes).add(entry);
+        for (String ch : p.getCharacter_frequency_map().keySet()) {
+            byCharacter.computeIfAbsent(ch, k -> new Posting()).add(entry);
+        }
+        if (!entry.isValueOnDisk()) addTrigrams(entry);
+    }
+
+    public void remove(AnalyzedString entry) {
+        AnalyzedString.Properties p = entry.getProperties();
+        all.remove(entry);
+        removeFrom(byLength.get(p.getLength()), entry);
+        removeFrom(byWordCount.get(p.getWord_count()), entry);
+        (p.isIs_palindrome() ? palindromes : nonPalindromes).remove(entry);
+        for (String ch : p.getCharacter_frequency_map().keySet()) {
+            removeFrom(byCharacter.get(ch), entry);
+        }
+        if (!entry.isValueOnDisk()) removeTrigrams(entry);
+    }
+
+    // Idempotent like the postings: a second add or remove of the same entry does nothing
+    private void addTrigrams(AnalyzedString entry) {
+        String lowercased = entry.getValue().toLowerCase(Locale.ROOT);
+        substringLock.writeLock().lock();
+        try {
+            if (ordinals.containsKey(entry)) return;
+            int ordinal = freeCount > 0 ? freeOrdinals[--freeCount] : nextOrdinal++;
+            if (ordinal == byOrdinal.length) byOrdinal = Arrays.copyOf(byOrdinal, ordinal * 2);
+            byOrdinal[ordinal] = entry;
+            ordinals.put(entry, ordinal);
+            trigrams.add(ordinal, lowercased);
+        } finally {
+            substringLock.writeLock().unlock();
+        }
+    }
+
+    private void removeTrigrams(AnalyzedString entry) {
+        String lowercased = entry.getValue().toLowerCase(Locale.ROOT);
+        substringLock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(entry);
+            if (ordinal == null) return;
+            trigrams.remove(ordinal, lowercased);
+            byOrdinal[ordinal] = null;
+            if (freeCount == freeOrdinals.length) freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            freeOrdinals[freeCount++] = ordinal;
+        } finally {
+            substringLock.writeLock().unlock();
+        }
+    }
+
+    // Entries whose value may contain needle (lowercased, at least TrigramIndex.GRAM chars)
+    private List<AnalyzedString> substringCandidates(String needle) {
+        substringLock.readLock().lock();
+        try {
+            int[] matches = trigrams.candidates(needle);
+            List<AnalyzedString> result = new ArrayList<>(matches.length);
+            for (int ordinal : matches) result.add(byOrdinal[ordinal]);
+            return result;
+        } finally {
+            substringLock.readLock().unlock();
+        }
+    }
+
+    // Heap held by the trigram postings
+    public long substringIndexBytes() {
+        substringLock.readLock().lock();
+        try {
+            return trigrams.estimatedBytes() + 4L * byOrdinal.length + 48L * ordinals.size();
+        } finally {
+            substringLock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return all.size();
+    }
+
+    // Returns matching entries newest first: only entries past the cursor position (if any) and
+    // created strictly after createdAfter (if set), and at most limit of them. containsCharacter
+    // and containsSubstring must already be lowercased. Postings are walked newest first from
+    // the cursor and the walk stops at the limit-th match or the first entry that is too old,
+    // so "latest 50 palindromes" visits about 50 entries.
+    public List<AnalyzedString> query(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                      Integer wordCount, String containsCharacter, String containsSubstring,
+                                      PageCursor after, Instant createdAfter, int limit) {
+        // Pick the smallest candidate set; the other predicates are checked per entry,
+        // which is the same as intersecting with their postings.
+        Collection<Posting> candidates = List.of(all);
+        int best = all.size();
+
+        if (isPalindrome != null) {
+            Posting p = isPalindrome ? palindromes : nonPalindromes;
+            if (p.size() < best) { candidates = List.of(p); best = p.size(); }
+        }
+        if (wordCount != null) {
+            Posting p = byWordCount.get(wordCount);
+            if (p == null) return new ArrayList<>();
+            if (p.size() < best) { candidates = List.of(p); best = p.size(); }
+        }
+        if (containsCharacter != null) {
+            Posting p = byCharacter.get(containsCharacter);
+            if (p == null) return new ArrayList<>();
+            if (p.size() < best) { candidates = List.of(p); best = p.size(); }
+        }
+        if (minLength != null || maxLength != null) {
+            Collection<Posting> range = lengthRange(minLength, maxLength);
+            if (range.isEmpty()) return new ArrayList<>();
+            int size = 0;
+            for (Posting p : range) size += p.size();
+            if (size < best) { candidates = range; best = size; }
+        }
+        if (containsSubstring != null) {
+            if (containsSubstring.isEmpty()) return new ArrayList<>();
+            // Every char of the needle must be in the value, so its char postings are candidates too
+            for (int i = 0; i < containsSubstring.length(); i++) {
+                Posting p = byCharacter.get(String.valueOf(containsSubstring.charAt(i)));
+                if (p == null) return new ArrayList<>();
+                if (p.size() < best) { candidates = List.of(p); best = p.size(); }
+            }
+            if (containsSubstring.length() >= TrigramIndex.GRAM) {
+                List<AnalyzedString> found = substringCandidates(containsSubstring);
+                if (found.size() < best) {
+                    // Unordered, but few: verify, then sort what is left
+                    List<AnalyzedString> result = new ArrayList<>();
+                    for (AnalyzedString e : found) {
+                        if ((after == null || after.isBefore(e))
+                                && (createdAfter == null || e.getCreatedAt().isAfter(createdAfter))
+                                && matches(e, isPalindrome, minLength, maxLength, wordCount, containsCharacter,
+                                containsSubstring)) {
+                            result.add(e);
+                        }
+                    }
+                    result.sort(NEWEST_FIRST);
+                    return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+                }
+            }
+        }
+
+        AnalyzedString start = after == null ? null : probe(after);
+        Iterator<AnalyzedString> walk;
+        if (candidates.size() == 1) {
+            walk = candidates.iterator().next().from(start).iterator();
+        } else {
+            // A multi-bucket length range: merge its postings lazily instead of sorting them all
+            List<Iterator<AnalyzedString>> parts = new ArrayList<>(candidates.size());
+            for (Posting p : candidates) parts.add(p.from(start).iterator());
+            walk = new MergingIterator(parts);
+        }
+
+        List<AnalyzedString> result = new ArrayList<>();
+        while (result.size() < limit && walk.hasNext()) {
+            AnalyzedString e = walk.next();
+            if (createdAfter != null && !e.getCreatedAt().isAfter(createdAfter)) break;
+            if (matches(e, isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+    // Sorts at the cursor position: the comparator only looks at createdAt and id
+    private static AnalyzedString probe(PageCursor position) {
+        return new AnalyzedString(position.getId(), (String) null, null, position.getCreatedAt());
+    }
+
+    // containsSubstring is matched case-insensitively against values in memory; values on disk never match
+    public static boolean matches(AnalyzedString e, Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                  Integer wordCount, String containsCharacter, String containsSubstring) {
+        if (!matches(e.getProperties(), isPalindrome, minLength, maxLength, wordCount, containsCharacter)) return false;
+        return containsSubstring == null || (!e.isValueOnDisk()
+                && e.getValue().toLowerCase(Locale.ROOT).contains(containsSubstring));
+    }
+
+    // The same, for an entry known by its properties; value is only asked for with a
+    // containsSubstring filter, and gives null for a value on disk
+    public static boolean matches(AnalyzedString.Properties p, Supplier<String> value, Boolean isPalindrome,
+                                  Integer minLength, Integer maxLength, Integer wordCount,
+                                  String containsCharacter, String containsSubstring) {
+        if (!matches(p, isPalindrome, minLength, maxLength, wordCount, containsCharacter)) return false;
+        if (containsSubstring == null) return true;
+        String v = value.get();
+        return v != null && v.toLowerCase(Locale.ROOT).contains(containsSubstring);
+    }
+
+    private static boolean matches(AnalyzedString.Properties p, Boolean isPalindrome, Integer minLength,
+                                   Integer maxLength, Integer wordCount, String containsCharacter) {
+        if (isPalindrome != null && p.isIs_palindrome() != isPalindrome) return false;
+        if (minLength != null && p.getLength() < minLength) return false;
+        if (maxLength != null && p.getLength() > maxLength) return false;
+        if (wordCount != null && p.getWord_count() != wordCount) return false;
+        return containsCharacter == null || p.getCharacter_frequency_map().containsKey(containsCharacter);
+    }
+
+    private Collection<Posting> lengthRange(Integer minLength, Integer maxLength) {
+        int from = minLength == null ? Integer.MIN_VALUE : minLength;
+        int to = maxLength == null ? Integer.MAX_VALUE : maxLength;
+        if (from > to) return List.of();
+        List<Posting> range = new ArrayList<>();
+        for (Posting p : byLength.subMap(from, true, to, true).values()) {
+            if (p.size() > 0) range.add(p);
+        }
+        return range;
+    }
+
+    private static void removeFrom(Posting p, AnalyzedString entry) {
+        if (p != null) p.remove(entry);
+    }
+
+    // Ordered set of entries plus an O(1) size (ConcurrentSkipListSet.size() is a full walk)
+    private static class Posting {
+        private final ConcurrentSkipListSet<AnalyzedString> entries = new ConcurrentSkipListSet<>(NEWEST_FIRST);
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(AnalyzedString e) {
+            if (entries.add(e)) size.incrementAndGet();
+        }
+
+        void remove(AnalyzedString e) {
+            if (entries.remove(e)) size.decrementAndGet();
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        // Entries after start in newest-first order (all of them if start is null)
+        NavigableSet<AnalyzedString> from(AnalyzedString start) {
+            return start == null ? entries : entries.tailSet(start, false);
+        }
+    }
+
+    // Newest-first merge of newest-first iterators
+    private static class MergingIterator implements Iterator<AnalyzedString> {
+        // Each part's next entry, with the part it came from
+        private final PriorityQueue<Map.Entry<AnalyzedString, Iterator<AnalyzedString>>> heads =
+                new PriorityQueue<>(Map.Entry.comparingByKey(NEWEST_FIRST));
+
+        MergingIterator(List<Iterator<AnalyzedString>> parts) {
+            for (Iterator<AnalyzedString> it : parts) advance(it);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public AnalyzedString next() {
+            Map.Entry<AnalyzedString, Iterator<AnalyzedString>> head = heads.poll();
+            if (head == null) throw new NoSuchElementException();
+            advance(head.getValue());
+            return head.getKey();
+        }
+
+        private void advance(Iterator<AnalyzedString> it) {
+            if (it.hasNext()) heads.add(Map.entry(it.next(), it));
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.PageCursor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Storage behind StringService, keyed by binary sha256 id. containsCharacter and
+// containsSubstring passed to filter are already lowercased. Results of filter are ordered
+// newest first.
+public interface StringStore {
+
+    boolean containsId(StringId id);
+
+    AnalyzedString getById(StringId id);
+
+    AnalyzedString getByValue(String value);
+
+    // Returns false (and stores nothing) if an entry with the same id already exists
+    boolean insert(AnalyzedString entry);
+
+    // Returns the removed entry, or null if the value was not stored
+    AnalyzedString removeByValue(String value);
+
+    // Same as removeByValue, for entries (such as values on disk) only known by id
+    AnalyzedString removeById(StringId id);
+
+    default List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                        Integer wordCount, String containsCharacter, String containsSubstring) {
+        return filter(isPalindrome, minLength, maxLength, wordCount, containsCharacter, containsSubstring,
+                null, null, Integer.MAX_VALUE);
+    }
+
+    // The first limit matches after the cursor position (null = from the newest) that were
+    // created strictly after createdAfter (null = no bound). Stores stop scanning once no
+    // further entry can make it into the result.
+    List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                Integer wordCount, String containsCharacter, String containsSubstring,
+                                PageCursor after, Instant createdAfter, int limit);
+
+    List<AnalyzedString> listAll();
+
+    // Passes every entry to action (e.g. for a journal snapshot) without collecting them first.
+    // Entries created or removed meanwhile may or may not be visited.
+    default void forEach(Consumer<AnalyzedString> action) {
+        listAll().forEach(action);
+    }
+
+    int size();
+
+    // Rough heap footprint of the stored entries and their indexes (compressed oops assumed)
+    long estimatedHeapBytes();
+}
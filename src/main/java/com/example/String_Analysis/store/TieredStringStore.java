@@ -0,0 +1,271 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import com.example.String_Analysis.util.PageCursor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// Bounds the heap used by another store (string-analyzer.memory.max-bytes). Once the entries in
+// memory exceed the budget, the EvictionPolicy picks entries to move to a SpillStore on disk;
+// lookups by value or id fault them back in. Filters read spilled entries in place without
+// bringing them back, so one listing over cold data doesn't evict everything that is hot.
+//
+// Moves between the tiers happen under a per-id lock, so an entry is always in at least one tier
+// and creates see entries wherever they are. Each entry is copied to disk before it is removed
+// from memory; filter, listAll and forEach drop the duplicate if they see both copies.
+public class TieredStringStore implements StringStore {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final StringStore memory;
+    private final SpillStore spill;
+    private final EvictionPolicy policy;
+    private final long maxBytes;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Estimated like ObjectStringStore does for its entries, whatever the memory store's layout
+    private final AtomicLong residentBytes = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    // Entries in either tier; kept here because an entry being moved is briefly in both
+    private final AtomicInteger count = new AtomicInteger();
+    // One forEach at a time; entries faulted in while it runs
+    private final Object visitLock = new Object();
+    private volatile Queue<AnalyzedString> faultedDuringVisit;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder spillHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TieredStringStore(StringStore memory, SpillStore spill, EvictionPolicy policy, long maxBytes) {
+        this.memory = memory;
+        this.spill = spill;
+        this.policy = policy;
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+        // Entries already in memory (e.g. recovered before the budget was applied) count too
+        memory.forEach(this::resident);
+        count.set(memory.size() + spill.size());
+        evictIfNeeded();
+    }
+
+    StringStore getMemory() { return memory; }
+
+    public long getResidentBytes() { return residentBytes.get(); }
+    public long getMemoryHits() { return memoryHits.sum(); }
+    public long getSpillHits() { return spillHits.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+    public int getSpilledCount() { return spill.size(); }
+    public long getSpillBytesWritten() { return spill.getBytesWritten(); }
+    public long getSpillBytesRead() { return spill.getBytesRead(); }
+    public long getSpillDiskBytes() { return spill.getDiskBytes(); }
+
+    @Override
+    public boolean containsId(StringId id) {
+        return memory.containsId(id) || spill.contains(id);
+    }
+
+    @Override
+    public AnalyzedString getById(StringId id) {
+        AnalyzedString entry = memory.getById(id);
+        if (entry != null) {
+            memoryHits.increment();
+            policy.accessed(id);
+            return entry;
+        }
+        return spill.contains(id) ? faultIn(id) : null;
+    }
+
+    @Override
+    public AnalyzedString getByValue(String value) {
+        AnalyzedString entry = memory.getByValue(value);
+        if (entry != null) {
+            memoryHits.increment();
+            policy.accessed(entry.getKey());
+            return entry;
+        }
+        StringId id = HashUtils.sha256(value);
+        if (!spill.contains(id)) return null;
+        entry = faultIn(id);
+        // Values on disk are only reachable by id
+        return entry != null && !entry.isValueOnDisk() && entry.getValue().equals(value) ? entry : null;
+    }
+
+    // Moves a spilled entry back into memory, possibly evicting others to make room, unless the
+    // policy would spill it again right away
+    private AnalyzedString faultIn(StringId id) {
+        AnalyzedString entry;
+        synchronized (lockFor(id)) {
+            entry = memory.getById(id);
+            if (entry != null) return entry;
+            entry = spill.get(id);
+            if (entry == null) return null;
+            spillHits.increment();
+            if (!policy.admits(entry, Instant.now())) return entry;
+            // Into memory before off disk, so it is never in neither
+            if (memory.insert(entry)) resident(entry);
+            spill.discard(id);
+            // Checked after the discard: a visit that started later sees the entry in memory
+            Queue<AnalyzedString> visiting = faultedDuringVisit;
+            if (visiting != null) visiting.add(entry);
+        }
+        evictIfNeeded();
+        return entry;
+    }
+
+    @Override
+    public boolean insert(AnalyzedString entry) {
+        synchronized (lockFor(entry.getKey())) {
+            if (spill.contains(entry.getKey()) || !memory.insert(entry)) return false;
+            resident(entry);
+            count.incrementAndGet();
+        }
+        evictIfNeeded();
+        return true;
+    }
+
+    @Override
+    public AnalyzedString removeByValue(String value) {
+        StringId id = HashUtils.sha256(value);
+        synchronized (lockFor(id)) {
+            AnalyzedString removed = memory.removeByValue(value);
+            if (removed != null) return removedEntry(evicted(removed));
+            AnalyzedString spilled = spill.get(id);
+            if (spilled == null || spilled.isValueOnDisk() || !spilled.getValue().equals(value)) return null;
+            return spill.discard(id) ? removedEntry(spilled) : null;
+        }
+    }
+
+    @Override
+    public AnalyzedString removeById(StringId id) {
+        synchronized (lockFor(id)) {
+            AnalyzedString removed = memory.removeById(id);
+            return removedEntry(removed != null ? evicted(removed) : spill.remove(id));
+        }
+    }
+
+    private AnalyzedString removedEntry(AnalyzedString removed) {
+        if (removed != null) count.decrementAndGet();
+        return removed;
+    }
+
+    private void resident(AnalyzedString entry) {
+        residentBytes.addAndGet(ObjectStringStore.estimateBytes(entry));
+        policy.inserted(entry);
+    }
+
+    // Bookkeeping for an entry that left memory
+    private AnalyzedString evicted(AnalyzedString entry) {
+        residentBytes.addAndGet(-ObjectStringStore.estimateBytes(entry));
+        policy.removed(entry.getKey());
+        return entry;
+    }
+
+    // One thread evicts at a time; writers arriving meanwhile leave the work to it
+    private void evictIfNeeded() {
+        while (evicting.compareAndSet(false, true)) {
+            try {
+                while (residentBytes.get() > maxBytes) {
+                    StringId victim = policy.victim();
+                    if (victim == null) break;
+                    spillOut(victim);
+                }
+                Instant now = Instant.now();
+                for (StringId expired; (expired = policy.expired(now)) != null; ) spillOut(expired);
+            } finally {
+                evicting.set(false);
+            }
+            if (residentBytes.get() <= maxBytes) return;
+        }
+    }
+
+    private void spillOut(StringId id) {
+        synchronized (lockFor(id)) {
+            AnalyzedString entry = memory.getById(id);
+            if (entry == null) return;
+            spill.put(entry);
+            memory.removeById(id);
+            residentBytes.addAndGet(-ObjectStringStore.estimateBytes(entry));
+        }
+        evictions.increment();
+    }
+
+    @Override
+    public List<AnalyzedString> filter(Boolean isPalindrome, Integer minLength, Integer maxLength,
+                                       Integer wordCount, String containsCharacter, String containsSubstring,
+                                       PageCursor after, Instant createdAfter, int limit) {
+        List<AnalyzedString> inMemory = memory.filter(isPalindrome, minLength, maxLength, wordCount,
+                containsCharacter, containsSubstring, after, createdAfter, limit);
+        if (spill.size() == 0) return inMemory;
+        List<AnalyzedString> spilled = spill.filter(isPalindrome, minLength, maxLength, wordCount,
+                containsCharacter, containsSubstring, after, createdAfter, limit);
+        if (spilled.isEmpty()) return inMemory;
+        // Merge of two newest-first lists
+        List<AnalyzedString> result = new ArrayList<>(Math.min(limit, inMemory.size() + spilled.size()));
+        Set<StringId> seen = new HashSet<>();
+        int i = 0;
+        int j = 0;
+        while (result.size() < limit && (i < inMemory.size() || j < spilled.size())) {
+            AnalyzedString next = j == spilled.size()
+                    || (i < inMemory.size() && StringIndex.NEWEST_FIRST.compare(inMemory.get(i), spilled.get(j)) <= 0)
+                    ? inMemory.get(i++) : spilled.get(j++);
+            if (seen.add(next.getKey())) result.add(next);
+        }
+        return result;
+    }
+
+    @Override
+    public List<AnalyzedString> listAll() {
+        Map<StringId, AnalyzedString> all = new LinkedHashMap<>();
+        for (AnalyzedString entry : memory.listAll()) all.put(entry.getKey(), entry);
+        for (AnalyzedString entry : spill.listAll()) all.putIfAbsent(entry.getKey(), entry);
+        return new ArrayList<>(all.values());
+    }
+
+    // Memory first, then the spill tier, skipping entries that are in both (being moved).
+    // An entry faulted in from the spill tier after the memory pass is in neither pass, so
+    // fault-ins during a visit are recorded and visited at the end.
+    @Override
+    public void forEach(Consumer<AnalyzedString> action) {
+        synchronized (visitLock) {
+            Queue<AnalyzedString> faulted = new ConcurrentLinkedQueue<>();
+            faultedDuringVisit = faulted;
+            try {
+                memory.forEach(action);
+                spill.forEach(entry -> {
+                    if (!memory.containsId(entry.getKey())) action.accept(entry);
+                });
+            } finally {
+                faultedDuringVisit = null;
+            }
+            faulted.forEach(action);
+        }
+    }
+
+    @Override
+    public int size() {
+        return count.get();
+    }
+
+    @Override
+    public long estimatedHeapBytes() {
+        return memory.estimatedHeapBytes() + spill.estimatedHeapBytes();
+    }
+
+    private Object lockFor(StringId id) {
+        return locks[(id.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.String_Analysis.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Inverted index from each 3-char sequence (UTF-16 chars of the lowercased value) to the
+// ordinals of the values containing it, for contains_substring. A needle of 3+ chars can only
+// occur in values holding all of its trigrams, so intersecting their postings gives a small
+// candidate set that is then verified with String.contains.
+// Callers pass values already lowercased with Locale.ROOT and synchronize access.
+public class TrigramIndex {
+
+    public static final int GRAM = 3;
+
+    private final Map<Long, OrdinalBitmap> postings = new HashMap<>();
+    private long postingBytes;
+
+    public void add(int ordinal, String lowercased) {
+        for (int i = 0; i + GRAM <= lowercased.length(); i++) {
+            OrdinalBitmap bitmap = postings.computeIfAbsent(key(lowercased, i), k -> {
+                OrdinalBitmap created = new OrdinalBitmap();
+                postingBytes += 48 + 32 + created.sizeInBytes(); // map node + boxed key + the empty bitmap
+                return created;
+            });
+            long before = bitmap.sizeInBytes();
+            bitmap.add(ordinal);
+            postingBytes += bitmap.sizeInBytes() - before;
+        }
+    }
+
+    public void remove(int ordinal, String lowercased) {
+        for (int i = 0; i + GRAM <= lowercased.length(); i++) {
+            long key = key(lowercased, i);
+            OrdinalBitmap bitmap = postings.get(key);
+            if (bitmap == null) continue;
+            long before = bitmap.sizeInBytes();
+            bitmap.remove(ordinal);
+            postingBytes += bitmap.sizeInBytes() - before;
+            if (bitmap.isEmpty()) {
+                postings.remove(key);
+                postingBytes -= bitmap.sizeInBytes() + 48 + 32;
+            }
+        }
+    }
+
+    // Sorted ordinals of the values that may contain needle (lowercased, at least GRAM chars)
+    public int[] candidates(String needle) {
+        List<OrdinalBitmap> required = new ArrayList<>(needle.length() - GRAM + 1);
+        for (int i = 0; i + GRAM <= needle.length(); i++) {
+            OrdinalBitmap bitmap = postings.get(key(needle, i));
+            if (bitmap == null) return new int[0];
+            required.add(bitmap);
+        }
+        return OrdinalBitmap.intersect(required);
+    }
+
+    public long estimatedBytes() {
+        return postingBytes;
+    }
+
+    private static long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+}
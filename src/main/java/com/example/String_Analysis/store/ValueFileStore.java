@@ -0,0 +1,54 @@
+package com.example.String_Analysis.store;
+
+import com.example.String_Analysis.model.StringId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+// Directory of values too large to keep on the heap, one UTF-8 file per entry named by its
+// sha256 id. Uploads are written to a temp file first and moved into place once analyzed.
+@Component
+public class ValueFileStore {
+
+    private final Path dir;
+    private final int inlineMaxChars;
+
+    public ValueFileStore(@Value("${string-analyzer.large-values.dir:large-values}") String dir,
+                          @Value("${string-analyzer.large-values.inline-max-chars:1048576}") int inlineMaxChars) {
+        this.dir = Path.of(dir);
+        this.inlineMaxChars = inlineMaxChars;
+    }
+
+    // Streamed values up to this many chars are stored in memory like any other value
+    public int getInlineMaxChars() {
+        return inlineMaxChars;
+    }
+
+    public Path createTempFile() throws IOException {
+        Files.createDirectories(dir);
+        return Files.createTempFile(dir, "upload-", ".tmp");
+    }
+
+    // Makes the file durable and gives it its final name; the same id always has the same content
+    public Path commit(Path tmp, StringId id) throws IOException {
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        return Files.move(tmp, pathFor(id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Once its entry is deleted; false if there was no file
+    public boolean delete(StringId id) throws IOException {
+        return Files.deleteIfExists(pathFor(id));
+    }
+
+    public Path pathFor(StringId id) {
+        return dir.resolve(id.toHex() + ".txt");
+    }
+}
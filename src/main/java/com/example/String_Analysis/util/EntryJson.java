@@ -0,0 +1,57 @@
+package com.example.String_Analysis.util;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+// One entry as GET /strings/{value} returns it (same fields as StringController.toResponse),
+// written field by field. Shared by the HTTP message converters and the change feed.
+public final class EntryJson {
+
+    private EntryJson() {
+    }
+
+    // linkDiskValues: values kept on disk become a value_url instead of being copied in
+    public static void write(JsonGenerator gen, AnalyzedString entry, boolean linkDiskValues) throws IOException {
+        AnalyzedString.Properties p = entry.getProperties();
+        gen.writeStartObject();
+        gen.writeStringField("id", entry.getId());
+        if (entry.isValueOnDisk() && linkDiskValues) {
+            gen.writeStringField("value_url", "/strings/stream/" + entry.getId());
+        } else if (entry.isValueOnDisk()) {
+            gen.writeFieldName("value");
+            writeFileValue(gen, entry.getValueFile());
+        } else {
+            gen.writeStringField("value", entry.getValue());
+        }
+        gen.writeObjectFieldStart("properties");
+        gen.writeNumberField("length", p.getLength());
+        gen.writeBooleanField("is_palindrome", p.isIs_palindrome());
+        gen.writeNumberField("unique_characters", p.getUnique_characters());
+        gen.writeNumberField("word_count", p.getWord_count());
+        gen.writeStringField("sha256_hash", p.getSha256_hash());
+        gen.writeObjectFieldStart("character_frequency_map");
+        for (Map.Entry<String, Integer> f : p.getCharacter_frequency_map().entrySet()) {
+            gen.writeNumberField(f.getKey(), f.getValue());
+        }
+        gen.writeEndObject();
+        gen.writeEndObject();
+        gen.writeStringField("created_at", DateTimeFormatter.ISO_INSTANT.format(entry.getCreatedAt()));
+        gen.writeEndObject();
+    }
+
+    // A value kept on disk, as a JSON string copied from the file through a Reader, so the value
+    // is never materialized on the heap
+    public static void writeFileValue(JsonGenerator gen, Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            gen.writeString(reader, -1);
+        }
+    }
+}
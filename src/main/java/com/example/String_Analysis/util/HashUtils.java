@@ -1,25 +1,60 @@
 package com.example.String_Analysis.util;
 
-import java.nio.charset.StandardCharsets;
+import com.example.String_Analysis.model.StringId;
+
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 public class HashUtils {
-    public static String sha256Hex(String input) {
+    // MessageDigest.getInstance is a provider lookup; reuse one digest per thread instead
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
         try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] digest = md.digest(input.getBytes(StandardCharsets.UTF_8));
-            return bytesToHex(digest);
+            return MessageDigest.getInstance("SHA-256");
         } catch (NoSuchAlgorithmException e) {
             throw new RuntimeException("SHA-256 not available", e);
         }
+    });
+    // UTF-8 is encoded into this buffer chunk by chunk rather than via getBytes()
+    private static final ThreadLocal<byte[]> UTF8_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    public static String sha256Hex(String input) {
+        return sha256(input).toHex();
     }
 
-    private static String bytesToHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(String.format("%02x", b & 0xff));
+    // SHA-256 of the UTF-8 encoding, identical to digest(input.getBytes(UTF_8))
+    // (unpaired surrogates become '?', as getBytes does)
+    public static StringId sha256(String input) {
+        MessageDigest md = SHA256.get();
+        byte[] buf = UTF8_BUFFER.get();
+        int n = 0;
+        for (int i = 0, len = input.length(); i < len; i++) {
+            if (n > buf.length - 4) {
+                md.update(buf, 0, n);
+                n = 0;
+            }
+            char c = input.charAt(i);
+            if (c < 0x80) {
+                buf[n++] = (byte) c;
+            } else if (c < 0x800) {
+                buf[n++] = (byte) (0xC0 | (c >> 6));
+                buf[n++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(input.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, input.charAt(++i));
+                    buf[n++] = (byte) (0xF0 | (cp >> 18));
+                    buf[n++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[n++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[n++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    buf[n++] = '?';
+                }
+            } else {
+                buf[n++] = (byte) (0xE0 | (c >> 12));
+                buf[n++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[n++] = (byte) (0x80 | (c & 0x3F));
+            }
         }
-        return sb.toString();
+        md.update(buf, 0, n);
+        return StringId.fromBytes(md.digest());
     }
 }
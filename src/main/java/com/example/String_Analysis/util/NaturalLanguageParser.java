@@ -1,85 +1,95 @@
 package com.example.String_Analysis.util;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class NaturalLanguageParser {
 
-    public static class ParseResult {
-        private final String original;
-        private final Map<String, Object> parsedFilters;
+    // Compiled once; Pattern is thread-safe, only the Matchers are per call
+    private static final Pattern LONGER_THAN = Pattern.compile("longer than (\\d+)");
+    private static final Pattern SHORTER_THAN = Pattern.compile("shorter than (\\d+)");
+    private static final Pattern LETTER = Pattern.compile("letter ([a-z])");
+    // containing 'abc' / contain "abc" / contains the text 'abc'
+    private static final Pattern QUOTED = Pattern.compile(
+            "contain(?:s|ing)? (?:the (?:substring|text|word|string) )?(['\"])(.+?)\\1");
 
-        public ParseResult(String original, Map<String, Object> parsedFilters) {
-            this.original = original;
-            this.parsedFilters = parsedFilters;
-        }
-
-        public String getOriginal() {
-            return original;
-        }
-
-        public Map<String, Object> getParsedFilters() {
-            return parsedFilters;
-        }
+    // Cache key for a query: parse() gives the same plan for queries that normalize equally
+    public static String normalize(String query) {
+        return query.toLowerCase().trim();
     }
 
-    public static ParseResult parse(String query) {
+    public static QueryPlan parse(String query) {
         if (query == null || query.trim().isEmpty()) {
             throw new IllegalArgumentException("Query cannot be empty");
         }
 
-        query = query.toLowerCase().trim();
-        Map<String, Object> filters = new HashMap<>();
+        query = normalize(query);
+        Boolean isPalindrome = null;
+        Integer wordCount = null;
+        Integer minLength = null;
+        Integer maxLength = null;
+        String containsCharacter = null;
+        String containsSubstring = null;
 
         // --- Rule 1: Palindromic strings ---
         if (query.contains("palindromic")) {
-            filters.put("is_palindrome", true);
+            isPalindrome = true;
         } else if (query.contains("non-palindromic")) {
-            filters.put("is_palindrome", false);
+            isPalindrome = false;
         }
 
         // --- Rule 2: Single word / multi word ---
         if (query.contains("single word")) {
-            filters.put("word_count", 1);
+            wordCount = 1;
         } else if (query.contains("two word")) {
-            filters.put("word_count", 2);
+            wordCount = 2;
         } else if (query.contains("three word")) {
-            filters.put("word_count", 3);
+            wordCount = 3;
         }
 
         // --- Rule 3: Length-based filters ---
-        Matcher longerThan = Pattern.compile("longer than (\\d+)").matcher(query);
-        Matcher shorterThan = Pattern.compile("shorter than (\\d+)").matcher(query);
+        Matcher longerThan = LONGER_THAN.matcher(query);
         if (longerThan.find()) {
-            int value = Integer.parseInt(longerThan.group(1));
-            filters.put("min_length", value + 1);
-        } else if (shorterThan.find()) {
-            int value = Integer.parseInt(shorterThan.group(1));
-            filters.put("max_length", value - 1);
+            minLength = Integer.parseInt(longerThan.group(1)) + 1;
+        } else {
+            Matcher shorterThan = SHORTER_THAN.matcher(query);
+            if (shorterThan.find()) {
+                maxLength = Integer.parseInt(shorterThan.group(1)) - 1;
+            }
         }
 
         // --- Rule 4: Contains letter or vowel ---
-        Matcher letterMatcher = Pattern.compile("letter ([a-z])").matcher(query);
+        Matcher letterMatcher = LETTER.matcher(query);
         if (letterMatcher.find()) {
-            filters.put("contains_character", letterMatcher.group(1));
+            containsCharacter = letterMatcher.group(1);
         } else if (query.contains("first vowel")) {
-            filters.put("contains_character", "a"); // heuristic
+            containsCharacter = "a"; // heuristic
+        }
+
+        // --- Rule 5: Contains quoted text; a single quoted char is the same as Rule 4 ---
+        Matcher quoted = QUOTED.matcher(query);
+        if (quoted.find()) {
+            String text = quoted.group(2);
+            if (text.length() == 1 && containsCharacter == null) {
+                containsCharacter = text;
+            } else if (text.length() > 1) {
+                containsSubstring = text;
+            }
         }
 
         // --- Check for conflicts (e.g., contradictory filters) ---
-        Integer minLen = (Integer) filters.get("min_length");
-        Integer maxLen = (Integer) filters.get("max_length");
-        if (minLen != null && maxLen != null && minLen > maxLen) {
+        if (minLength != null && maxLength != null && minLength > maxLength) {
             throw new IllegalStateException("Parsed filters conflict: min_length > max_length");
         }
 
+        QueryPlan plan = new QueryPlan(query, isPalindrome, minLength, maxLength, wordCount, containsCharacter,
+                containsSubstring);
+
         // --- No recognizable filters ---
-        if (filters.isEmpty()) {
+        if (plan.isEmpty()) {
             throw new IllegalArgumentException("Unable to parse natural language query");
         }
 
-        return new ParseResult(query, filters);
+        return plan;
     }
 }
@@ -0,0 +1,63 @@
+package com.example.String_Analysis.util;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Opaque position in the newest-first (createdAt desc, id asc) listing order.
+// Encoded as base64url("<epochSecond>:<nano>:<id>") of the last entry on a page.
+public class PageCursor {
+    private final Instant createdAt;
+    private final StringId id;
+
+    public PageCursor(Instant createdAt, StringId id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    public static PageCursor after(AnalyzedString entry) {
+        return new PageCursor(entry.getCreatedAt(), entry.getKey());
+    }
+
+    // Position ahead of every entry created before t: the first entry after it is the newest
+    // one created strictly before t
+    public static PageCursor createdBefore(Instant t) {
+        return new PageCursor(t, new StringId(-1, -1, -1, -1));
+    }
+
+    // Whichever of a and b is further along the listing order; either may be null
+    public static PageCursor furthest(PageCursor a, PageCursor b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        int c = a.createdAt.compareTo(b.createdAt);
+        return c < 0 || (c == 0 && a.id.compareTo(b.id) > 0) ? a : b;
+    }
+
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            Instant createdAt = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new PageCursor(createdAt, StringId.fromHex(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt.getEpochSecond() + ":" + createdAt.getNano() + ":" + id.toHex();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // True if the entry comes after this cursor in newest-first order
+    public boolean isBefore(AnalyzedString entry) {
+        int c = entry.getCreatedAt().compareTo(createdAt);
+        return c < 0 || (c == 0 && entry.getKey().compareTo(id) > 0);
+    }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public StringId getId() { return id; }
+}
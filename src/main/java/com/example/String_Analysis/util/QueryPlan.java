@@ -0,0 +1,84 @@
+package com.example.String_Analysis.util;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.store.StringIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Typed, immutable result of NaturalLanguageParser. Plans are shared through
+// QueryPlanCache, so nothing here may change after construction.
+public final class QueryPlan implements Predicate<AnalyzedString> {
+
+    private final String original;
+    private final Boolean isPalindrome;
+    private final Integer minLength;
+    private final Integer maxLength;
+    private final Integer wordCount;
+    private final String containsCharacter;
+    private final String containsSubstring;
+    // Same keys and values as the old untyped result, for interpreted_query.parsed_filters
+    private final Map<String, Object> parsedFilters;
+    // AND of one leaf predicate per filter that is set
+    private final Predicate<AnalyzedString> predicate;
+
+    public QueryPlan(String original, Boolean isPalindrome, Integer minLength, Integer maxLength,
+                     Integer wordCount, String containsCharacter, String containsSubstring) {
+        this.original = original;
+        this.isPalindrome = isPalindrome;
+        this.minLength = minLength;
+        this.maxLength = maxLength;
+        this.wordCount = wordCount;
+        this.containsCharacter = containsCharacter;
+        this.containsSubstring = containsSubstring;
+
+        Map<String, Object> filters = new HashMap<>();
+        List<Predicate<AnalyzedString>> leaves = new ArrayList<>();
+        if (isPalindrome != null) {
+            filters.put("is_palindrome", isPalindrome);
+            leaves.add(e -> e.getProperties().isIs_palindrome() == isPalindrome);
+        }
+        if (wordCount != null) {
+            filters.put("word_count", wordCount);
+            leaves.add(e -> e.getProperties().getWord_count() == wordCount);
+        }
+        if (minLength != null) {
+            filters.put("min_length", minLength);
+            leaves.add(e -> e.getProperties().getLength() >= minLength);
+        }
+        if (maxLength != null) {
+            filters.put("max_length", maxLength);
+            leaves.add(e -> e.getProperties().getLength() <= maxLength);
+        }
+        if (containsCharacter != null) {
+            filters.put("contains_character", containsCharacter);
+            leaves.add(e -> e.getProperties().getCharacter_frequency_map().containsKey(containsCharacter));
+        }
+        if (containsSubstring != null) {
+            filters.put("contains_substring", containsSubstring);
+            leaves.add(e -> StringIndex.matches(e, null, null, null, null, null, containsSubstring));
+        }
+        this.parsedFilters = Collections.unmodifiableMap(filters);
+        this.predicate = leaves.stream().reduce(Predicate::and).orElse(e -> true);
+    }
+
+    @Override
+    public boolean test(AnalyzedString entry) {
+        return predicate.test(entry);
+    }
+
+    public boolean isEmpty() { return parsedFilters.isEmpty(); }
+
+    public String getOriginal() { return original; }
+    public Boolean getIsPalindrome() { return isPalindrome; }
+    public Integer getMinLength() { return minLength; }
+    public Integer getMaxLength() { return maxLength; }
+    public Integer getWordCount() { return wordCount; }
+    public String getContainsCharacter() { return containsCharacter; }
+    public String getContainsSubstring() { return containsSubstring; }
+    public Map<String, Object> getParsedFilters() { return parsedFilters; }
+}
@@ -0,0 +1,230 @@
+package com.example.String_Analysis.stringAnalyzer;
+
+import com.example.String_Analysis.StringAnalysisApplication;
+import com.example.String_Analysis.cluster.HashRing;
+import com.example.String_Analysis.cluster.ShardRouter;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.util.UriUtils;
+
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two nodes on localhost splitting the keyspace
+public class ShardedClusterTests {
+
+    private static final HttpClient http = HttpClient.newHttpClient();
+    private static final ObjectMapper json = new ObjectMapper();
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static String node1;
+    private static String node2;
+
+    @TempDir
+    static Path valueDirs;
+
+    @BeforeAll
+    static void startNodes() throws Exception {
+        int port1 = freePort(), port2 = freePort();
+        node1 = "http://localhost:" + port1;
+        node2 = "http://localhost:" + port2;
+        for (int port : new int[]{port1, port2}) {
+            nodes.add(new SpringApplicationBuilder(StringAnalysisApplication.class).run(
+                    "--server.port=" + port,
+                    "--string-analyzer.cluster.nodes=" + node1 + "," + node2,
+                    "--string-analyzer.cluster.self=http://localhost:" + port,
+                    "--string-analyzer.large-values.dir=" + valueDirs.resolve(String.valueOf(port)),
+                    "--string-analyzer.large-values.inline-max-chars=64"));
+        }
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    public void ringSpreadsIdsAndOnlyMovesThoseOfAnAddedNode() {
+        HashRing two = new HashRing(List.of("a", "b"), 128);
+        HashRing three = new HashRing(List.of("a", "b", "c"), 128);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            StringId id = HashUtils.sha256("value " + i);
+            counts.merge(two.ownerOf(id), 1, Integer::sum);
+            String after = three.ownerOf(id);
+            if (!after.equals("c")) assertEquals(two.ownerOf(id), after);
+        }
+        assertTrue(counts.get("a") > 4_000 && counts.get("b") > 4_000, counts.toString());
+    }
+
+    @Test
+    public void pointOperationsRouteAndFiltersGatherFromEveryNode() throws Exception {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            String value = "shard test " + i;
+            values.add(value);
+            // Alternate the node receiving the create; the owner stores it either way
+            assertEquals(201, send(i % 2 == 0 ? node1 : node2, "POST", "/strings",
+                    json.writeValueAsString(Map.of("value", value)), false).statusCode());
+        }
+        assertEquals(409, send(node2, "POST", "/strings",
+                json.writeValueAsString(Map.of("value", values.get(0))), false).statusCode());
+
+        // Both nodes hold a share, and together exactly the created values
+        int local1 = count(send(node1, "GET", "/strings?min_length=12", null, true));
+        int local2 = count(send(node2, "GET", "/strings?min_length=12", null, true));
+        assertTrue(local1 > 0 && local2 > 0, local1 + " / " + local2);
+        assertEquals(values.size(), local1 + local2);
+
+        // Either node answers the full, newest-first listing
+        JsonNode all = json.readTree(send(node2, "GET", "/strings?min_length=12", null, false).body());
+        assertEquals(values.size(), all.get("count").asInt());
+        for (int i = 1; i < all.get("data").size(); i++) {
+            String newer = all.get("data").get(i - 1).get("created_at").asText();
+            String older = all.get("data").get(i).get("created_at").asText();
+            assertTrue(newer.compareTo(older) >= 0);
+        }
+
+        // Paging through node1 visits every entry once, in the same order
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = json.readTree(send(node1, "GET", "/strings?min_length=12&limit=7"
+                    + (cursor == null ? "" : "&cursor=" + cursor), null, false).body());
+            page.get("data").forEach(e -> paged.add(e.get("value").asText()));
+            cursor = page.hasNonNull("next_cursor") ? page.get("next_cursor").asText() : null;
+        } while (cursor != null);
+        List<String> listed = new ArrayList<>();
+        all.get("data").forEach(e -> listed.add(e.get("value").asText()));
+        assertEquals(listed, paged);
+
+        // Stats add up the running counters of both nodes
+        JsonNode stats = json.readTree(send(node2, "GET", "/strings/stats", null, false).body());
+        assertTrue(stats.get("count").asInt() >= values.size());
+        assertEquals(values.size(), json.readTree(send(node1, "GET", "/strings/stats?min_length=12", null, false)
+                .body()).get("count").asInt());
+
+        // Bulk existence checks split the values by owner
+        List<String> probe = new ArrayList<>(values.subList(0, 10));
+        probe.add("shard test missing");
+        JsonNode exists = json.readTree(send(node2, "POST", "/strings/exists",
+                json.writeValueAsString(Map.of("values", probe)), false).body());
+        assertEquals(10, exists.get("match_count").asInt());
+        assertFalse(exists.get("exists").get(10).asBoolean());
+        assertEquals(200, send(node1, "HEAD", "/strings/" + UriUtils.encodePathSegment(values.get(1),
+                StandardCharsets.UTF_8), null, false).statusCode());
+
+        // Natural language queries fan out too
+        JsonNode nl = json.readTree(send(node1, "GET", "/strings/filter-by-natural-language?query="
+                + UriUtils.encodeQueryParam("strings longer than 11 characters", StandardCharsets.UTF_8),
+                null, false).body());
+        assertEquals(values.size(), nl.get("count").asInt());
+
+        for (String value : values) {
+            String path = "/strings/" + UriUtils.encodePathSegment(value, StandardCharsets.UTF_8);
+            assertEquals(200, send(node1, "GET", path, null, false).statusCode());
+            assertEquals(204, send(node2, "DELETE", path, null, false).statusCode());
+            assertEquals(404, send(node1, "GET", path, null, false).statusCode());
+        }
+        assertEquals(0, count(send(node1, "GET", "/strings?min_length=12", null, false)));
+    }
+
+    @Test
+    public void streamedValuesAreStoredAndDeletedByTheirOwner() throws Exception {
+        HttpClient redirecting = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build();
+        for (int i = 0; i < 6; i++) {
+            // Long enough to stay on disk
+            String value = ("streamed value " + i + " ").repeat(8).trim();
+            String id = HashUtils.sha256Hex(value);
+            String receiver = i % 2 == 0 ? node1 : node2;
+            HttpResponse<String> created = http.send(HttpRequest.newBuilder(URI.create(receiver + "/strings/stream"))
+                    .header("Content-Type", "text/plain; charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofString(value)).build(), HttpResponse.BodyHandlers.ofString());
+            assertEquals(201, created.statusCode(), created.body());
+            assertEquals(id, json.readTree(created.body()).get("id").asText());
+
+            // Only the owner has it; either node serves the value and deletes it
+            boolean onNode1 = send(node1, "GET", "/strings/stream/" + id, null, false).statusCode() == 200;
+            boolean onNode2 = send(node2, "GET", "/strings/stream/" + id, null, false).statusCode() == 200;
+            assertTrue(onNode1 != onNode2, value);
+            for (String node : List.of(node1, node2)) {
+                HttpResponse<String> read = redirecting.send(HttpRequest.newBuilder(
+                        URI.create(node + "/strings/stream/" + id)).build(), HttpResponse.BodyHandlers.ofString());
+                assertEquals(value, read.body());
+            }
+            assertEquals(204, send(node2, "DELETE", "/strings/stream/" + id, null, false).statusCode());
+            assertEquals(404, send(node1, "DELETE", "/strings/stream/" + id, null, false).statusCode());
+            assertEquals(404, redirecting.send(HttpRequest.newBuilder(URI.create(node1 + "/strings/stream/" + id))
+                    .build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    public void bestEffortBatchReportsItemsOwnedByADownPeer() throws Exception {
+        int port = freePort(), downPort = freePort();
+        String self = "http://localhost:" + port;
+        try (ConfigurableApplicationContext node = new SpringApplicationBuilder(StringAnalysisApplication.class).run(
+                "--server.port=" + port,
+                "--string-analyzer.cluster.nodes=" + self + ",http://localhost:" + downPort,
+                "--string-analyzer.cluster.self=" + self,
+                "--string-analyzer.large-values.dir=" + valueDirs.resolve("down-peer"))) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 20; i++) body.append("{\"value\":\"peer down ").append(i).append("\"}\n");
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(self + "/strings/batch"))
+                    .header("Content-Type", "application/x-ndjson")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+
+            // Every item gets its line: created here, or 503 for the ones the down peer owns
+            List<String> lines = response.body().lines().toList();
+            assertEquals(20, lines.size(), response.body());
+            Map<Integer, Integer> statuses = new HashMap<>();
+            for (String line : lines) {
+                JsonNode result = json.readTree(line);
+                statuses.merge(result.get("status").asInt(), 1, Integer::sum);
+            }
+            assertEquals(Set.of(201, 503), statuses.keySet(), response.body());
+        }
+    }
+
+    private static HttpResponse<String> send(String node, String method, String path, String body,
+                                             boolean shardLocal) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(node + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body));
+        if (shardLocal) request.header(ShardRouter.LOCAL_HEADER, "true");
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static int count(HttpResponse<String> response) throws Exception {
+        assertEquals(200, response.statusCode(), response.body());
+        return json.readTree(response.body()).get("count").asInt();
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.String_Analysis.stringAnalyzer;
+
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.analysis.StreamingStringAnalyzer;
+import com.example.String_Analysis.analysis.StringAnalyzer;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.util.HashUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StringAnalyzerTests {
+
+    private static final StringId SHA = new StringId(0, 0, 0, 0);
+
+    private final StringAnalyzer analyzer = new SinglePassStringAnalyzer();
+
+    @Test
+    public void matchesOriginalAnalysis() {
+        List<String> inputs = new ArrayList<>(List.of(
+                "", " ", "a", "Level", "A man", "hello world", "  two   words  ",
+                "\u0001", "\u0001 abc \u0002", "a \u0001\u0002 b", "tab\tand\nnewline",
+                "Ÿÿ", "ÀbcBà", "İstanbul", "ΟΔΟΣ", "日本語 テキスト",
+                "😀x😀", "\uD800𐀀", "ab\uDC00ba"));
+
+        Random random = new Random(42);
+        char[] alphabet = "aAbB \t\u0001éÉÿΣσ日😀".toCharArray();
+        for (int i = 0; i < 2000; i++) {
+            char[] chars = new char[random.nextInt(12)];
+            for (int j = 0; j < chars.length; j++) chars[j] = alphabet[random.nextInt(alphabet.length)];
+            inputs.add(new String(chars));
+        }
+
+        for (String input : inputs) {
+            AnalyzedString.Properties expected = original(input);
+            AnalyzedString.Properties actual = analyzer.analyze(input, SHA);
+            String label = "input: " + input.codePoints().mapToObj(Integer::toHexString).toList();
+            assertEquals(expected.getLength(), actual.getLength(), label);
+            assertEquals(expected.isIs_palindrome(), actual.isIs_palindrome(), label);
+            assertEquals(expected.getUnique_characters(), actual.getUnique_characters(), label);
+            assertEquals(expected.getWord_count(), actual.getWord_count(), label);
+            assertEquals(new ArrayList<>(expected.getCharacter_frequency_map().entrySet()),
+                    new ArrayList<>(actual.getCharacter_frequency_map().entrySet()), label);
+        }
+    }
+
+    @Test
+    public void streamingMatchesInMemoryAnalysis() throws Exception {
+        StreamingStringAnalyzer streaming = new StreamingStringAnalyzer();
+        Random random = new Random(7);
+        List<String> inputs = new ArrayList<>(List.of(
+                "Level", "  A man  ", " \u0001 ab\tcd \n", "ΟΔΟΣ ΟΔΟΣ", "İstanbul", "😀x😀", "abc\u00A0cba"));
+        // Long enough to be split into several pieces, with and without whitespace to cut at.
+        // Decoded input never has unpaired surrogates, so whole code points are appended.
+        String[] spaced = {"a", "A", "b", "Σ", "σ", "é", " ", "😀", "\n"};
+        String[] solid = {"a", "A", "b", "é", "日", "😀"};
+        for (String[] alphabet : List.of(spaced, solid)) {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < 1_300_000) sb.append(alphabet[random.nextInt(alphabet.length)]);
+            inputs.add(sb.toString());
+        }
+        String solidText = inputs.get(inputs.size() - 1);
+        String half = solidText.substring(0, Character.isHighSurrogate(solidText.charAt(699_999)) ? 699_999 : 700_000);
+        String palindrome = half + new StringBuilder(half).reverse();
+        inputs.add(palindrome);
+        assertTrue(streaming.analyze(new StringReader(palindrome), new ByteArrayOutputStream()).isIs_palindrome());
+
+        for (String input : inputs) {
+            String trimmed = input.trim();
+            AnalyzedString.Properties expected = analyzer.analyze(trimmed, HashUtils.sha256(trimmed));
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            AnalyzedString.Properties actual = streaming.analyze(new StringReader(input), sink);
+            String label = "input of length " + input.length();
+            assertEquals(trimmed, sink.toString(StandardCharsets.UTF_8), label);
+            assertEquals(expected.getSha256_hash(), actual.getSha256_hash(), label);
+            assertEquals(expected.getLength(), actual.getLength(), label);
+            assertEquals(expected.isIs_palindrome(), actual.isIs_palindrome(), label);
+            assertEquals(expected.getUnique_characters(), actual.getUnique_characters(), label);
+            assertEquals(expected.getWord_count(), actual.getWord_count(), label);
+            assertEquals(new ArrayList<>(expected.getCharacter_frequency_map().entrySet()),
+                    new ArrayList<>(actual.getCharacter_frequency_map().entrySet()), label);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> streaming.analyze(new StringReader(" \n "), new ByteArrayOutputStream()));
+    }
+
+    // The multi-pass implementation StringService used before the analyzer was extracted
+    private static AnalyzedString.Properties original(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        boolean isPalindrome = new StringBuilder(lower).reverse().toString().equals(lower);
+        Set<Integer> uniqueChars = lower.chars().boxed().collect(Collectors.toSet());
+        String trimmed = value.trim();
+        int wordCount = trimmed.isEmpty() ? 0 : trimmed.split("\\s+").length;
+        Map<String, Integer> freq = new LinkedHashMap<>();
+        lower.chars().forEachOrdered(cp -> {
+            String ch = new String(Character.toChars(cp));
+            freq.put(ch, freq.getOrDefault(ch, 0) + 1);
+        });
+        return new AnalyzedString.Properties(value.length(), isPalindrome, uniqueChars.size(), wordCount, SHA, freq);
+    }
+}
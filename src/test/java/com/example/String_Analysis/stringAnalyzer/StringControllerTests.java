@@ -1,19 +1,42 @@
 package com.example.String_Analysis;
 
+import com.example.String_Analysis.controller.EntryJsonCache;
+import com.example.String_Analysis.controller.StringPageMessageConverter;
 import com.example.String_Analysis.dto.CreateStringRequest;
+import com.example.String_Analysis.dto.StringPage;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.service.StringService;
+import com.example.String_Analysis.util.HashUtils;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
+@AutoConfigureObservability
 @AutoConfigureMockMvc
 public class StringControllerTests {
 
@@ -49,5 +72,375 @@ public class StringControllerTests {
                         .param("is_palindrome", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.count").isNumber());
+
+        mvc.perform(get("/strings")
+                        .param("is_palindrome", "true")
+                        .param("created_after", "2000-01-01T00:00:00Z")
+                        .param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.filters_applied.created_after").value("2000-01-01T00:00:00Z"));
+        mvc.perform(get("/strings").param("created_before", "2000-01-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0));
+        mvc.perform(get("/strings").param("created_after", "yesterday"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void substringFilter() throws Exception {
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("Needle in a Haystack"))))
+                .andExpect(status().isCreated());
+
+        mvc.perform(get("/strings").param("contains_substring", "HAYST"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filters_applied.contains_substring").value("HAYST"))
+                .andExpect(jsonPath("$.data[?(@.value == 'Needle in a Haystack')]").exists());
+        mvc.perform(get("/strings").param("contains_substring", "haystacks"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(0));
+        mvc.perform(get("/strings").param("contains_substring", ""))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/strings/filter-by-natural-language").param("query", "strings containing 'needle in'"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interpreted_query.parsed_filters.contains_substring").value("needle in"))
+                .andExpect(jsonPath("$.data[?(@.value == 'Needle in a Haystack')]").exists());
+    }
+
+    @Test
+    public void naturalLanguageFilterUsesPlanCache() throws Exception {
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("racecar"))))
+                .andExpect(status().isCreated());
+
+        for (String query : List.of("single word palindromic strings", "  Single Word Palindromic Strings ")) {
+            mvc.perform(get("/strings/filter-by-natural-language").param("query", query))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.interpreted_query.original").value("single word palindromic strings"))
+                    .andExpect(jsonPath("$.interpreted_query.parsed_filters.is_palindrome").value(true))
+                    .andExpect(jsonPath("$.interpreted_query.parsed_filters.word_count").value(1))
+                    .andExpect(jsonPath("$.data[?(@.value == 'racecar')]").exists());
+        }
+        mvc.perform(get("/strings/filter-by-natural-language").param("query", "nothing useful"))
+                .andExpect(status().isBadRequest());
+
+        mvc.perform(get("/strings/filter-by-natural-language/plan-cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    public void prometheusScrapeHasRouteAndStageMetrics() throws Exception {
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("metrics probe"))))
+                .andExpect(status().isCreated());
+        mvc.perform(get("/strings").param("word_count", "2")).andExpect(status().isOk());
+
+        String scrape = mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket"), scrape);
+        assertTrue(scrape.contains("uri=\"/strings\""));
+        assertTrue(scrape.contains("strings_create_stage_seconds_count{stage=\"analyze\"}"));
+        assertTrue(scrape.contains("strings_filter_seconds_count{predicates=\"word_count\"}"));
+        assertTrue(scrape.contains("strings_store_size"));
+        assertTrue(scrape.contains("strings_store_heap_per_entry_bytes"));
+    }
+
+    @Test
+    public void streamCreateReturnsValueLink() throws Exception {
+        String id = JsonPath.read(mvc.perform(post("/strings/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("  streamed body text \n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.value").doesNotExist())
+                .andExpect(jsonPath("$.properties.word_count").value(3))
+                .andReturn().getResponse().getContentAsString(), "$.id");
+
+        mvc.perform(get("/strings/stream/" + id))
+                .andExpect(status().isOk())
+                .andExpect(content().string("streamed body text"));
+        mvc.perform(post("/strings/stream").contentType(MediaType.TEXT_PLAIN).content("streamed body text"))
+                .andExpect(status().isConflict());
+        mvc.perform(post("/strings/stream").contentType(MediaType.TEXT_PLAIN).content("   "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void batchCreate() throws Exception {
+        MvcResult bestEffort = mvc.perform(post("/strings/batch")
+                        .contentType("application/x-ndjson")
+                        .content("{\"value\":\"batch one\"}\n{\"value\":\"batch one\"}\n{\"value\":5}\n{}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String lines = mvc.perform(asyncDispatch(bestEffort))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(lines.contains("\"index\":0,\"status\":201"));
+        assertTrue(lines.contains("\"index\":1,\"status\":409"));
+        assertTrue(lines.contains("\"index\":2,\"status\":422"));
+        assertTrue(lines.contains("\"index\":3,\"status\":400"));
+
+        MvcResult atomic = mvc.perform(post("/strings/batch")
+                        .param("mode", "all_or_nothing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"value\":\"batch two\"},{\"value\":\"batch one\"}]"))
+                .andReturn();
+        lines = mvc.perform(asyncDispatch(atomic)).andReturn().getResponse().getContentAsString();
+        assertTrue(lines.contains("\"index\":0,\"status\":424"));
+        assertTrue(lines.contains("\"index\":1,\"status\":409"));
+        mvc.perform(get("/strings/batch two")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void listPagesWithCursor() throws Exception {
+        for (String v : List.of("zz1", "zz2", "zz3")) {
+            mvc.perform(post("/strings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateStringRequest(v))))
+                    .andExpect(status().isCreated());
+        }
+
+        String first = mvc.perform(get("/strings").param("contains_character", "z").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.filters_applied.contains_character").value("z"))
+                .andExpect(jsonPath("$.next_cursor").isString())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(first).get("next_cursor").asText();
+
+        mvc.perform(get("/strings").param("contains_character", "z").param("limit", "2").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.next_cursor").doesNotExist());
+
+        mvc.perform(get("/strings").param("limit", "0")).andExpect(status().isBadRequest());
+        mvc.perform(get("/strings").param("cursor", "%%%")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void statsEndpoint() throws Exception {
+        for (String value : List.of("stats noon", "refer")) {
+            mvc.perform(post("/strings")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateStringRequest(value))))
+                    .andExpect(status().isCreated());
+        }
+        mvc.perform(get("/strings/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(greaterThanOrEqualTo(2)))
+                .andExpect(jsonPath("$.palindrome_count").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.length.min").isNumber())
+                .andExpect(jsonPath("$.length.histogram[0].count").isNumber())
+                .andExpect(jsonPath("$.character_frequency.r").value(greaterThanOrEqualTo(2)));
+
+        mvc.perform(get("/strings/stats").param("contains_substring", "stats noon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1))
+                .andExpect(jsonPath("$.length.min").value(10))
+                .andExpect(jsonPath("$.length.mean").value(10.0))
+                .andExpect(jsonPath("$.word_count.histogram[0].min").value(2))
+                .andExpect(jsonPath("$.word_count.histogram[0].max").value(3))
+                .andExpect(jsonPath("$.character_frequency.o").value(2));
+        mvc.perform(get("/strings/stats").param("min_length", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void asyncCreateIsAcceptedAndReportsItsStatus() throws Exception {
+        String id = JsonPath.read(mvc.perform(post("/strings?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("queued value"))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/strings/status/" + HashUtils.sha256("queued value").toHex()))
+                .andExpect(jsonPath("$.status").value("pending"))
+                .andReturn().getResponse().getContentAsString(), "$.id");
+
+        String state = "pending";
+        for (long deadline = System.nanoTime() + 5_000_000_000L; state.equals("pending") && System.nanoTime() < deadline; ) {
+            Thread.sleep(10);
+            state = JsonPath.read(mvc.perform(get("/strings/status/" + id)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.status");
+        }
+        assertEquals("created", state);
+        mvc.perform(get("/strings/queued value")).andExpect(status().isOk());
+        mvc.perform(post("/strings?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("queued value"))))
+                .andExpect(status().isConflict());
+        mvc.perform(post("/strings?async=true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/strings/status/" + HashUtils.sha256("never submitted").toHex()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void changeFeedStreamsMatchingWrites() throws Exception {
+        MvcResult stream = mvc.perform(get("/strings/changes?contains_substring=feedprobe"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("unrelated feed value"))))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("a feedprobe value"))))
+                .andExpect(status().isCreated());
+        mvc.perform(delete("/strings/a feedprobe value")).andExpect(status().isNoContent());
+
+        String body = "";
+        for (long deadline = System.nanoTime() + 5_000_000_000L; System.nanoTime() < deadline; Thread.sleep(10)) {
+            body = stream.getResponse().getContentAsString();
+            if (body.contains("event:deleted")) break;
+        }
+        assertTrue(body.startsWith("id:") || body.contains("\nid:"), body);
+        assertTrue(body.contains("event:created\ndata:{\"id\":"), body);
+        assertTrue(body.contains("\"value\":\"a feedprobe value\""), body);
+        assertTrue(body.contains("event:deleted"), body);
+        assertTrue(!body.contains("unrelated"), body);
+
+        mvc.perform(get("/strings/changes?resume=garbage"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/strings/changes?min_length=-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void headAndBulkExists() throws Exception {
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateStringRequest("exists probe"))))
+                .andExpect(status().isCreated());
+        mvc.perform(head("/strings/exists probe"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(""));
+        mvc.perform(head("/strings/no such probe"))
+                .andExpect(status().isNotFound());
+
+        mvc.perform(post("/strings/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"values\": [\"no such probe\", \"exists probe\", \"\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.exists[0]").value(false))
+                .andExpect(jsonPath("$.exists[1]").value(true))
+                .andExpect(jsonPath("$.exists[2]").value(false))
+                .andExpect(jsonPath("$.match_count").value(1));
+        mvc.perform(post("/strings/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"values\": [1]}"))
+                .andExpect(status().isUnprocessableEntity());
+        mvc.perform(post("/strings/exists")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void binaryFormatsByAcceptAndContentType() throws Exception {
+        ObjectMapper cbor = new CBORMapper();
+        ObjectMapper smile = new SmileMapper();
+        mvc.perform(post("/strings")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cbor.writeValueAsBytes(Map.of("value", "binary level"))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+
+        byte[] one = mvc.perform(get("/strings/binary level").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode json = objectMapper.readTree(mvc.perform(get("/strings/binary level"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getContentAsString());
+        assertEquals(json, cbor.readTree(one));
+
+        byte[] page = mvc.perform(get("/strings").param("word_count", "2")
+                        .accept(MediaType.parseMediaType("application/x-jackson-smile")))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode listed = smile.readTree(page);
+        assertEquals(listed.get("count").asInt(), listed.get("data").size());
+        assertTrue(listed.get("data").findValuesAsText("value").contains("binary level"));
+
+        mvc.perform(get("/strings/no such value").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+    }
+
+    @Test
+    public void responseCacheWritesTheSameJson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        EntryJsonCache cache = new EntryJsonCache(true, 1 << 20, mapper);
+        StringService service = StringService.builder().build();
+        List<AnalyzedString> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) entries.add(service.create("cached entry " + i));
+        StringPage page = new StringPage(entries, "filters_applied", Map.of("min_length", 1), "next");
+
+        String plain = write(new StringPageMessageConverter(mapper, new EntryJsonCache(false, 0, mapper)), page);
+        StringPageMessageConverter cached = new StringPageMessageConverter(mapper, cache);
+        assertEquals(plain, write(cached, page));
+        assertEquals(plain, write(cached, page));
+        assertEquals(entries.size(), cache.getHits());
+
+        // A page larger than the budget evicts the oldest encodings
+        EntryJsonCache small = new EntryJsonCache(true, 16 * 1024, mapper);
+        assertEquals(plain, write(new StringPageMessageConverter(mapper, small), page));
+        assertTrue(small.getBytes() > 0 && small.getBytes() <= 16 * 1024, String.valueOf(small.getBytes()));
+
+        // A value created again gets a new created_at, so the old encoding is not reused
+        AnalyzedString first = entries.get(entries.size() - 1);
+        service.deleteByValue(first.getValue());
+        Thread.sleep(1);
+        AnalyzedString again = service.create(first.getValue());
+        assertEquals(mapper.readTree(write(new StringPageMessageConverter(mapper, new EntryJsonCache(false, 0, mapper)),
+                        new StringPage(List.of(again), "q", Map.of(), null))),
+                mapper.readTree(write(cached, new StringPage(List.of(again), "q", Map.of(), null))));
+    }
+
+    @Test
+    public void responseCacheStaysWithinBudgetUnderConcurrentMisses() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        EntryJsonCache cache = new EntryJsonCache(true, 16 * 1024, mapper);
+        StringService service = StringService.builder().build();
+        List<AnalyzedString> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) entries.add(service.create("concurrently cached entry " + i));
+        EntryJsonCache plain = new EntryJsonCache(false, 0, mapper);
+
+        List<Thread> threads = new ArrayList<>();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int offset = t * 37;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5000; i++) {
+                        AnalyzedString entry = entries.get((offset + i) % entries.size());
+                        assertArrayEquals(plain.get(entry), cache.get(entry));
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) thread.join();
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertTrue(cache.getBytes() > 0 && cache.getBytes() <= 16 * 1024, String.valueOf(cache.getBytes()));
+        // Freeing every entry brings the accounting back to exactly zero
+        entries.forEach(e -> cache.evict(e.getKey()));
+        assertEquals(0, cache.getBytes());
+    }
+
+    private static String write(StringPageMessageConverter converter, StringPage page) throws Exception {
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(page, MediaType.APPLICATION_JSON, out);
+        return out.getBodyAsString();
     }
 }
@@ -1,8 +1,52 @@
 package com.example.String_Analysis.stringAnalyzer;
 
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.dto.StatsSnapshot;
 import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import com.example.String_Analysis.persistence.FileStringJournal;
+import com.example.String_Analysis.persistence.NoopStringJournal;
 import com.example.String_Analysis.service.StringService;
+import com.example.String_Analysis.service.StringStats;
+import com.example.String_Analysis.store.ColumnarStringStore;
+import com.example.String_Analysis.store.MemoryBudget;
+import com.example.String_Analysis.service.AsyncIngestService;
+import com.example.String_Analysis.service.ChangeFeed;
+import com.example.String_Analysis.service.FilterResultCache;
+import com.example.String_Analysis.service.MembershipFilter;
+import com.example.String_Analysis.store.ObjectStringStore;
+import com.example.String_Analysis.store.StringIndex;
+import com.example.String_Analysis.store.StringStore;
+import com.example.String_Analysis.store.TieredStringStore;
+import com.example.String_Analysis.store.ValueFileStore;
+import com.example.String_Analysis.util.HashUtils;
+import com.example.String_Analysis.util.PageCursor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -10,7 +54,7 @@ public class StringServiceTests {
 
     @Test
     public void analyzeAndStore() {
-        StringService s = new StringService();
+        StringService s = StringService.builder().build();
         AnalyzedString a = s.create("Level");
         assertNotNull(a.getId());
         assertEquals("Level", a.getValue());
@@ -19,9 +63,18 @@ public class StringServiceTests {
         assertEquals(3, a.getProperties().getUnique_characters()); // L e v l ? depends on case; this implementation counts chars as-is
     }
 
+    @Test
+    public void hashMatchesDigestOfUtf8Bytes() throws Exception {
+        String longText = "é日😀".repeat(5000);
+        for (String input : List.of("", "abc", "Ÿÿ é", "日本語", "😀x", "\uD800 lone", "ab\uDC00", longText)) {
+            byte[] expected = MessageDigest.getInstance("SHA-256").digest(input.getBytes(StandardCharsets.UTF_8));
+            assertEquals(HexFormat.of().formatHex(expected), HashUtils.sha256Hex(input), input);
+        }
+    }
+
     @Test
     public void duplicateThrows() {
-        StringService s = new StringService();
+        StringService s = StringService.builder().build();
         s.create("abc");
         try {
             s.create("abc");
@@ -30,4 +83,755 @@ public class StringServiceTests {
             // ok
         }
     }
+
+    @Test
+    public void filterUsesIndexesAndKeepsNewestFirst() {
+        StringService s = StringService.builder().build();
+        s.create("racecar");
+        s.create("hello world");
+        s.create("noon");
+        s.create("abc");
+
+        List<AnalyzedString> palindromes = s.filter(true, null, null, null, null);
+        assertEquals(Set.of("noon", "racecar"), palindromes.stream().map(AnalyzedString::getValue).collect(Collectors.toSet()));
+        assertFalse(palindromes.get(0).getCreatedAt().isBefore(palindromes.get(1).getCreatedAt()));
+
+        List<AnalyzedString> ranged = s.filter(null, 3, 7, 1, "A");
+        assertEquals(Set.of("abc", "racecar"), ranged.stream().map(AnalyzedString::getValue).collect(Collectors.toSet()));
+        assertFalse(ranged.get(0).getCreatedAt().isBefore(ranged.get(1).getCreatedAt()));
+
+        assertTrue(s.filter(null, null, null, 5, null).isEmpty());
+
+        s.deleteByValue("noon");
+        assertEquals(1, s.filter(true, null, null, null, null).size());
+    }
+
+    @Test
+    public void filterCacheRevalidatesOnlyAgainstMatchingWrites() {
+        StringService s = StringService.builder().build();
+        s.create("noon");
+        List<AnalyzedString> first = s.filter(true, null, null, null, null);
+        assertSame(first, s.filter(true, null, null, null, null));
+
+        // A write the filter can't see keeps the cached result
+        s.create("abc");
+        assertSame(first, s.filter(true, null, null, null, null));
+        long misses = s.getFilterCache().getMisses();
+
+        // A matching create or delete forces a recompute
+        s.create("level");
+        assertEquals(Set.of("noon", "level"), s.filter(true, null, null, null, null).stream()
+                .map(AnalyzedString::getValue).collect(Collectors.toSet()));
+        s.deleteByValue("noon");
+        assertEquals(List.of("level"), s.filter(true, null, null, null, null).stream()
+                .map(AnalyzedString::getValue).toList());
+        assertEquals(misses + 2, s.getFilterCache().getMisses());
+    }
+
+    @Test
+    public void timeWindowsAndLimitsMatchSortingEverything() {
+        SinglePassStringAnalyzer analyzer = new SinglePassStringAnalyzer();
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        List<Supplier<StringStore>> stores = List.of(ObjectStringStore::new, ColumnarStringStore::new);
+        for (Supplier<StringStore> factory : stores) {
+            StringStore store = factory.get();
+            Random random = new Random(42);
+            List<AnalyzedString> all = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String value = (i % 3 == 0 ? "abba " : "word ") + i;
+                // Mostly increasing, with ties and some entries inserted late, like racing creates
+                Instant createdAt = base.plusMillis(i / 2 - (random.nextInt(10) == 0 ? random.nextInt(50) : 0));
+                AnalyzedString entry = new AnalyzedString(HashUtils.sha256(value), value,
+                        analyzer.analyze(value, HashUtils.sha256(value)), createdAt);
+                store.insert(entry);
+                all.add(entry);
+            }
+            for (int i = 0; i < 2000; i += 7) store.removeByValue(all.get(i).getValue());
+            all.sort(StringIndex.NEWEST_FIRST);
+
+            Instant after = base.plusMillis(200);
+            PageCursor before = PageCursor.createdBefore(base.plusMillis(800));
+            for (Boolean palindrome : new Boolean[]{null, true}) {
+                for (Integer minLength : new Integer[]{null, 8}) {
+                    for (int limit : new int[]{1, 50, Integer.MAX_VALUE}) {
+                        List<AnalyzedString> expected = all.stream()
+                                .filter(e -> store.getById(e.getKey()) != null)
+                                .filter(e -> StringIndex.matches(e, palindrome, minLength, null, null, null, null))
+                                .filter(e -> e.getCreatedAt().isAfter(after) && before.isBefore(e))
+                                .limit(limit)
+                                .toList();
+                        List<AnalyzedString> actual = store.filter(palindrome, minLength, null, null, null, null,
+                                before, after, limit);
+                        assertEquals(expected.stream().map(AnalyzedString::getId).toList(),
+                                actual.stream().map(AnalyzedString::getId).toList());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void runningStatsMatchRecomputingFromTheStore() {
+        StringService s = StringService.builder().build();
+        Random random = new Random(5);
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String value = i % 7 == 0 ? "level" + "x".repeat(i % 13) + "level"
+                    : "word ".repeat(1 + random.nextInt(6)) + random.nextInt(100_000);
+            if (s.getByValue(value) != null) continue;
+            s.create(value);
+            values.add(value);
+        }
+        // Removing the longest and shortest values has to move min/max
+        values.sort(Comparator.comparingInt(String::length));
+        s.deleteByValue(values.get(0));
+        s.deleteByValue(values.get(values.size() - 1));
+        for (int i = 1; i < values.size() - 1; i += 3) s.deleteByValue(values.get(i));
+
+        List<AnalyzedString> all = s.listAll();
+        StatsSnapshot stats = s.stats();
+        assertEquals(all.size(), stats.getCount());
+        assertEquals(all.stream().filter(e -> e.getProperties().isIs_palindrome()).count(), stats.getPalindromeCount());
+        IntSummaryStatistics lengths = all.stream().mapToInt(e -> e.getProperties().getLength()).summaryStatistics();
+        assertEquals(lengths.getMin(), stats.getLength().getMin());
+        assertEquals(lengths.getMax(), stats.getLength().getMax());
+        assertEquals(lengths.getSum(), stats.getLength().getTotal());
+        assertEquals(all.size(), Arrays.stream(stats.getWordCount().getHistogram()).sum());
+
+        StatsSnapshot recomputed = StringStats.of(all);
+        assertArrayEquals(recomputed.getLength().getHistogram(), stats.getLength().getHistogram());
+        assertArrayEquals(recomputed.getWordCount().getHistogram(), stats.getWordCount().getHistogram());
+        assertEquals(recomputed.getCharacterFrequency(), stats.getCharacterFrequency());
+
+        StatsSnapshot palindromes = s.stats(true, null, null, null, null, null);
+        assertEquals(stats.getPalindromeCount(), palindromes.getCount());
+        assertEquals(palindromes.getCount(), palindromes.getPalindromeCount());
+    }
+
+    @Test
+    public void substringSearchMatchesScanningEveryValue() {
+        List<Supplier<StringStore>> stores = List.of(ObjectStringStore::new, ColumnarStringStore::new);
+        for (Supplier<StringStore> store : stores) {
+            StringService s = StringService.builder().store(store.get()).build();
+            Random random = new Random(3);
+            int[] alphabet = "abcAB É日😀 ".codePoints().toArray();
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                StringBuilder sb = new StringBuilder();
+                int len = 1 + random.nextInt(20);
+                for (int j = 0; j < len; j++) sb.appendCodePoint(alphabet[random.nextInt(alphabet.length)]);
+                String value = sb.toString().trim();
+                if (value.isEmpty() || s.getByValue(value) != null) continue;
+                s.create(value);
+                values.add(value);
+            }
+            for (int i = 0; i < values.size(); i += 5) s.deleteByValue(values.get(i));
+
+            for (String needle : List.of("a", "ab", "abc", "ABCA", "bcab", "é日", "😀", "日😀 a", "zzz", "a b c")) {
+                Set<String> expected = s.listAll().stream().map(AnalyzedString::getValue)
+                        .filter(v -> v.toLowerCase().contains(needle.toLowerCase()))
+                        .collect(Collectors.toSet());
+                List<AnalyzedString> found = s.filter(null, null, null, null, null, needle);
+                assertEquals(expected, found.stream().map(AnalyzedString::getValue).collect(Collectors.toSet()), needle);
+                assertEquals(found.stream().sorted(StringIndex.NEWEST_FIRST).map(AnalyzedString::getId).toList(),
+                        found.stream().map(AnalyzedString::getId).toList(), needle);
+            }
+            assertFalse(s.filter(null, null, null, null, null, "abc").isEmpty());
+            List<String> combined = s.listAll().stream()
+                    .filter(e -> StringIndex.matches(e, null, 3, 6, null, "b", "abc"))
+                    .sorted(StringIndex.NEWEST_FIRST).map(AnalyzedString::getId).toList();
+            assertEquals(combined, s.filter(null, 3, 6, null, "b", "abc").stream().map(AnalyzedString::getId).toList());
+        }
+    }
+
+    @Test
+    public void columnarStoreBehavesLikeObjectStore() {
+        StringService s = StringService.builder().store(new ColumnarStringStore()).build();
+        AnalyzedString created = s.create("Été été");
+        s.create("😀 ok");
+        s.create("abc");
+
+        AnalyzedString read = s.getByValue("Été été");
+        assertEquals(created.getId(), read.getId());
+        assertEquals("Été été", read.getValue());
+        assertEquals(created.getCreatedAt(), read.getCreatedAt());
+        assertEquals(created.getProperties().getCharacter_frequency_map(), read.getProperties().getCharacter_frequency_map());
+        assertEquals("😀 ok", s.getByValue("😀 ok").getValue());
+
+        assertEquals(Set.of("Été été", "😀 ok"),
+                s.filter(null, null, null, 2, null).stream().map(AnalyzedString::getValue).collect(Collectors.toSet()));
+        assertEquals(1, s.filter(null, null, null, null, "É").size());
+
+        assertThrows(IllegalStateException.class, () -> s.create("abc"));
+        s.deleteByValue("abc");
+        assertNull(s.getByValue("abc"));
+        assertNotNull(s.create("abc"));
+        assertEquals(3, s.listAll().size());
+    }
+
+    @Test
+    public void columnarStoreReusesDeletedRowsAndPagesLateEntries() {
+        SinglePassStringAnalyzer analyzer = new SinglePassStringAnalyzer();
+        Instant base = Instant.now();
+        ColumnarStringStore churned = new ColumnarStringStore();
+        ColumnarStringStore fresh = new ColumnarStringStore();
+        for (int i = 0; i < 5000; i++) {
+            String value = "value " + i;
+            StringId id = HashUtils.sha256(value);
+            AnalyzedString entry = new AnalyzedString(id, value, analyzer.analyze(value, id), base.plusMillis(i));
+            churned.insert(entry);
+            if (i < 3000) churned.removeById(id);
+            else fresh.insert(entry);
+        }
+        // The deleted rows were reused rather than the columns grown past the live entries
+        assertTrue(churned.estimatedHeapBytes() < fresh.estimatedHeapBytes() * 5 / 4);
+
+        // Entries faulted back in from disk arrive long after newer ones
+        for (int i = 0; i < 50; i++) {
+            String value = "faulted " + i;
+            StringId id = HashUtils.sha256(value);
+            churned.insert(new AnalyzedString(id, value, analyzer.analyze(value, id), base.minusSeconds(3600 - i)));
+        }
+        List<String> expected = churned.listAll().stream().sorted(StringIndex.NEWEST_FIRST)
+                .map(AnalyzedString::getId).toList();
+        List<String> paged = new ArrayList<>();
+        PageCursor after = null;
+        for (List<AnalyzedString> page; !(page = churned.filter(null, null, null, null, null, null, after, null, 100)).isEmpty(); ) {
+            page.forEach(e -> paged.add(e.getId()));
+            AnalyzedString last = page.get(page.size() - 1);
+            after = new PageCursor(last.getCreatedAt(), last.getKey());
+        }
+        assertEquals(expected, paged);
+        assertEquals(List.of("faulted 49", "faulted 48"), churned.filter(null, null, null, null, null, "faulted",
+                null, null, 2).stream().map(AnalyzedString::getValue).toList());
+        assertEquals("value 4999", churned.getByValue("value 4999").getValue());
+        assertNull(churned.getByValue("value 0"));
+    }
+
+    @Test
+    public void journalRecoversAfterRestart(@TempDir Path dir) throws Exception {
+        FileStringJournal journal = new FileStringJournal(dir.toString(), "group", 10, Long.MAX_VALUE, 3600);
+        StringService s = StringService.builder().journal(journal).build();
+        s.recover();
+        AnalyzedString kept = s.create("kept");
+        s.create("deleted");
+        s.deleteByValue("deleted");
+        journal.snapshot();
+        s.create("after snapshot \uD800");
+        journal.close();
+
+        FileStringJournal reopened = new FileStringJournal(dir.toString(), "sync", 10, Long.MAX_VALUE, 3600);
+        StringService restarted = StringService.builder().journal(reopened).build();
+        restarted.recover();
+        assertEquals(kept.getCreatedAt(), restarted.getByValue("kept").getCreatedAt());
+        assertNull(restarted.getByValue("deleted"));
+        assertNotNull(restarted.getByValue("after snapshot \uD800"));
+        assertEquals(1, reopened.getRecoveredSnapshotEntries());
+        assertEquals(1, reopened.getRecoveredLogRecords());
+        assertEquals(2, restarted.filter(null, null, null, null, "e").size());
+        reopened.close();
+    }
+
+    @Test
+    public void expiredEntriesAreServedFromDiskWithoutRespilling(@TempDir Path dir) {
+        MemoryBudget memory = new MemoryBudget(1 << 20, "oldest", 60, dir.toString(), 16 * 1024);
+        TieredStringStore tiered = (TieredStringStore) memory.apply(new ObjectStringStore());
+        SinglePassStringAnalyzer analyzer = new SinglePassStringAnalyzer();
+        String value = "an old entry";
+        StringId id = HashUtils.sha256(value);
+        tiered.insert(new AnalyzedString(id, value, analyzer.analyze(value, id), Instant.now().minusSeconds(3600)));
+        assertEquals(1, tiered.getSpilledCount());
+        long written = tiered.getSpillBytesWritten();
+        for (int i = 0; i < 5; i++) assertEquals(value, tiered.getById(id).getValue());
+        assertEquals(written, tiered.getSpillBytesWritten());
+        assertEquals(1, tiered.getSpilledCount());
+        assertEquals(1, tiered.size());
+        assertEquals(value, tiered.removeById(id).getValue());
+        assertEquals(0, tiered.size());
+    }
+
+    @Test
+    public void allOrNothingInsertStoresNothingOnConflict(@TempDir Path dir) {
+        FileStringJournal journal = new FileStringJournal(dir.toString(), "group", 10, Long.MAX_VALUE, 3600);
+        StringService s = StringService.builder().journal(journal).build();
+        s.recover();
+        s.create("gamma");
+        List<String> batch = List.of("alpha", "beta", "gamma");
+        assertEquals(2, s.insertAll(batch, batch.stream().map(s::analyze).toList()));
+        assertNull(s.getByValue("alpha"));
+        assertNull(s.getByValue("beta"));
+
+        List<String> retry = List.of("alpha", "beta");
+        assertEquals(-1, s.insertAll(retry, retry.stream().map(s::analyze).toList()));
+        assertEquals(3, s.listAll().size());
+        journal.close();
+
+        // The failed batch left no create/delete pairs in the journal
+        FileStringJournal reopened = new FileStringJournal(dir.toString(), "sync", 10, Long.MAX_VALUE, 3600);
+        StringService restarted = StringService.builder().journal(reopened).build();
+        restarted.recover();
+        assertEquals(3, reopened.getRecoveredLogRecords());
+        assertEquals(3, restarted.listAll().size());
+        reopened.close();
+    }
+
+    @Test
+    public void failedAllOrNothingJournalWriteLeavesNoCachedFilterResults() {
+        List<StringService> service = new ArrayList<>();
+        StringService s = StringService.builder().journal(new NoopStringJournal() {
+            @Override
+            public void appendCreates(List<AnalyzedString> entries) {
+                // A filter running while the batch is staged sees (and caches) its entries
+                assertEquals(2, service.get(0).filter(null, 5, null, null, null).size());
+                throw new UncheckedIOException(new IOException("disk full"));
+            }
+        }).build();
+        service.add(s);
+        List<String> batch = List.of("alpha", "omega");
+        assertThrows(UncheckedIOException.class, () -> s.insertAll(batch, batch.stream().map(s::analyze).toList()));
+        assertTrue(s.filter(null, 5, null, null, null).isEmpty());
+        assertNull(s.getByValue("alpha"));
+    }
+
+    @Test
+    public void journalOrderMatchesStoreOrderUnderConcurrentCreatesAndDeletes(@TempDir Path dir) throws Exception {
+        FileStringJournal journal = new FileStringJournal(dir.toString(), "group", 10, Long.MAX_VALUE, 3600);
+        StringService s = StringService.builder().journal(journal).build();
+        s.recover();
+        List<String> values = List.of("flip", "flop", "flap");
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            boolean creator = t % 2 == 0;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 300; i++) {
+                    String value = values.get(i % values.size());
+                    if (creator) {
+                        try {
+                            s.create(value);
+                        } catch (IllegalStateException e) {
+                            // Already there
+                        }
+                    } else {
+                        s.deleteByValue(value);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) thread.join();
+        journal.close();
+
+        FileStringJournal reopened = new FileStringJournal(dir.toString(), "sync", 10, Long.MAX_VALUE, 3600);
+        StringService restarted = StringService.builder().journal(reopened).build();
+        restarted.recover();
+        for (String value : values) {
+            assertEquals(s.getByValue(value) != null, restarted.getByValue(value) != null, value);
+        }
+        reopened.close();
+    }
+
+    @Test
+    public void largeStreamedValuesStayOnDiskAndSurviveRestart(@TempDir Path dir) throws Exception {
+        ValueFileStore files = new ValueFileStore(dir.resolve("values").toString(), 16);
+        FileStringJournal journal = new FileStringJournal(dir.toString(), "sync", 10, Long.MAX_VALUE, 3600);
+        StringService s = StringService.builder()
+                .journal(journal)
+                .filterCache(new FilterResultCache(16, 60, 64))
+                .valueFiles(files)
+                .build();
+        s.recover();
+
+        String big = "never odd or even, a long palindrome? no";
+        AnalyzedString onDisk = s.createFromStream(
+                new ByteArrayInputStream(("  " + big + "\n").getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        assertTrue(onDisk.isValueOnDisk());
+        assertEquals(big, Files.readString(onDisk.getValueFile()));
+        assertEquals(HashUtils.sha256Hex(big), onDisk.getId());
+        assertEquals(8, onDisk.getProperties().getWord_count());
+        assertThrows(IllegalStateException.class, () -> s.createFromStream(
+                new ByteArrayInputStream(big.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+
+        AnalyzedString small = s.createFromStream(
+                new ByteArrayInputStream("short".getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+        assertFalse(small.isValueOnDisk());
+        assertEquals(small.getId(), s.getByValue("short").getId());
+        journal.close();
+
+        FileStringJournal reopened = new FileStringJournal(dir.toString(), "sync", 10, Long.MAX_VALUE, 3600);
+        StringService restarted = StringService.builder()
+                .journal(reopened)
+                .filterCache(new FilterResultCache(16, 60, 64))
+                .valueFiles(files)
+                .build();
+        restarted.recover();
+        AnalyzedString recovered = restarted.getById(onDisk.getId()).orElseThrow();
+        assertTrue(recovered.isValueOnDisk());
+        assertEquals(onDisk.getCreatedAt(), recovered.getCreatedAt());
+        assertEquals(List.of(onDisk.getId()), restarted.filter(null, 20, null, null, null).stream()
+                .map(AnalyzedString::getId).toList());
+
+        // Deleting by id removes the file, frees the id for a new upload and survives a restart
+        assertEquals(onDisk.getId(), restarted.deleteById(onDisk.getId()).getId());
+        assertFalse(Files.exists(onDisk.getValueFile()));
+        assertNull(restarted.deleteById(onDisk.getId()));
+        assertEquals(small.getId(), restarted.deleteById(small.getId()).getId());
+        assertTrue(restarted.getById(small.getId()).isEmpty());
+        assertNotNull(restarted.createFromStream(
+                new ByteArrayInputStream(big.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+        assertEquals(onDisk.getId(), restarted.deleteById(onDisk.getId()).getId());
+        reopened.close();
+
+        FileStringJournal again = new FileStringJournal(dir.toString(), "sync", 10, Long.MAX_VALUE, 3600);
+        StringService third = StringService.builder()
+                .journal(again)
+                .filterCache(new FilterResultCache(16, 60, 64))
+                .valueFiles(files)
+                .build();
+        third.recover();
+        assertTrue(third.getById(onDisk.getId()).isEmpty());
+        assertTrue(third.getById(small.getId()).isEmpty());
+        again.close();
+    }
+
+    @Test
+    public void membershipFilterHasNoFalseNegativesAcrossDeletes(@TempDir Path dir) {
+        // Undersized on purpose, so counters are shared and some saturate
+        MembershipFilter membership = new MembershipFilter(500, 0.05);
+        StringService s = StringService.builder()
+                .filterCache(new FilterResultCache(0, 60, 64))
+                .valueFiles(new ValueFileStore(dir.toString(), 1 << 20))
+                .membership(membership)
+                .build();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) values.add("member " + i);
+        values.forEach(s::create);
+        for (int i = 0; i < values.size(); i += 2) s.deleteByValue(values.get(i));
+
+        boolean[] exists = s.exists(values);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i % 2 == 1, exists[i], values.get(i));
+            assertEquals(i % 2 == 1, s.getByValue(values.get(i)) != null, values.get(i));
+        }
+        assertThrows(IllegalStateException.class, () -> s.create(values.get(1)));
+        assertNotNull(s.create(values.get(0)));
+
+        List<String> absent = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) absent.add("absent " + i);
+        long before = membership.getNegatives();
+        for (boolean e : s.exists(absent)) assertFalse(e);
+        assertTrue(membership.getNegatives() - before > 0);
+    }
+
+    @Test
+    public void boundedMemorySpillsToDiskAndFaultsBackIn(@TempDir Path dir) {
+        long budget = 64 * 1024;
+        for (String eviction : List.of("lru", "oldest")) {
+            MemoryBudget memory = new MemoryBudget(budget, eviction, 0, dir.resolve(eviction).toString(), 16 * 1024);
+            StringStore inner = new ObjectStringStore();
+            TieredStringStore tiered = (TieredStringStore) memory.apply(inner);
+            StringService s = StringService.builder()
+                    .store(inner)
+                    .filterCache(new FilterResultCache(0, 60, 64))
+                    .valueFiles(new ValueFileStore(dir.resolve("values").toString(), 1 << 20))
+                    .memory(memory)
+                    .build();
+            StringService unbounded = StringService.builder().build();
+            // Created first, so it is among the first spilled
+            String lone = "lone surrogate \uD800";
+            s.create(lone);
+            unbounded.create(lone);
+            Random random = new Random(5);
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                StringBuilder sb = new StringBuilder();
+                int len = 1 + random.nextInt(30);
+                for (int j = 0; j < len; j++) sb.append("ab cdE".charAt(random.nextInt(6)));
+                String value = sb.toString().trim() + i;
+                s.create(value);
+                unbounded.create(value);
+                values.add(value);
+                assertTrue(tiered.getResidentBytes() <= budget, eviction);
+            }
+            assertTrue(tiered.getSpilledCount() > 0, eviction);
+            // The value comes back from disk unchanged, so it is still found by value
+            assertFalse(inner.containsId(HashUtils.sha256(lone)), eviction);
+            assertEquals(lone, s.getByValue(lone).getValue());
+            assertEquals(lone, s.getByValue(lone).getValue());
+            values.add(lone);
+            assertEquals(values.size(), s.listAll().size());
+
+            // Spilled entries are still found and keep their 409
+            String cold = values.get(0);
+            assertFalse(inner.containsId(HashUtils.sha256(cold)), eviction);
+            assertThrows(IllegalStateException.class, () -> s.create(cold));
+            assertEquals(cold, s.getByValue(cold).getValue());
+            // Oldest-first serves the oldest entry from disk, since it would be spilled again right
+            // away; LRU keeps it as most recent
+            assertEquals(eviction.equals("lru"), inner.containsId(HashUtils.sha256(cold)), eviction);
+            assertTrue(tiered.getSpillHits() > 0, eviction);
+            long written = tiered.getSpillBytesWritten();
+            assertEquals(cold, s.getByValue(cold).getValue());
+            if (eviction.equals("oldest")) assertEquals(written, tiered.getSpillBytesWritten());
+            assertEquals(values.size(), tiered.size(), eviction);
+
+            for (int i = 1; i < values.size(); i += 7) {
+                assertNotNull(s.deleteByValue(values.get(i)), values.get(i));
+                unbounded.deleteByValue(values.get(i));
+            }
+            for (int i = 0; i < values.size(); i += 3) {
+                String value = values.get(i);
+                assertEquals(i % 7 != 1, s.getByValue(value) != null, value);
+            }
+            assertEquals(unbounded.listAll().size(), s.listAll().size());
+            // forEach, the snapshot source, visits each entry of both tiers once
+            List<String> visited = new ArrayList<>();
+            tiered.forEach(entry -> visited.add(entry.getValue()));
+            assertEquals(unbounded.listAll().stream().map(AnalyzedString::getValue).sorted().toList(),
+                    visited.stream().sorted().toList(), eviction);
+
+            for (List<Object> f : Arrays.asList(Arrays.asList(null, null, null, null, null, null),
+                    Arrays.<Object>asList(true, null, null, null, null, null),
+                    Arrays.<Object>asList(null, 5, 12, null, "e", null),
+                    Arrays.<Object>asList(null, null, null, 2, null, "ab"))) {
+                List<AnalyzedString> found = s.filter((Boolean) f.get(0), (Integer) f.get(1), (Integer) f.get(2),
+                        (Integer) f.get(3), (String) f.get(4), (String) f.get(5));
+                assertEquals(unbounded.filter((Boolean) f.get(0), (Integer) f.get(1), (Integer) f.get(2),
+                                (Integer) f.get(3), (String) f.get(4), (String) f.get(5)).stream()
+                                .map(AnalyzedString::getValue).collect(Collectors.toSet()),
+                        found.stream().map(AnalyzedString::getValue).collect(Collectors.toSet()), f.toString());
+                assertEquals(found.stream().sorted(StringIndex.NEWEST_FIRST).map(AnalyzedString::getId).toList(),
+                        found.stream().map(AnalyzedString::getId).toList(), f.toString());
+                assertEquals(found.stream().limit(25).map(AnalyzedString::getId).toList(),
+                        tiered.filter((Boolean) f.get(0), (Integer) f.get(1), (Integer) f.get(2), (Integer) f.get(3),
+                                (String) f.get(4), (String) f.get(5), null, null, 25).stream()
+                                .map(AnalyzedString::getId).toList(), f.toString());
+            }
+        }
+    }
+
+    @Test
+    public void changeFeedDeliversFilteredEventsResumesAndDropsSlowClients(@TempDir Path dir) throws Exception {
+        ChangeFeed feed = new ChangeFeed(8, 1 << 20, 4, 16, 1);
+        StringService s = StringService.builder()
+                .filterCache(new FilterResultCache(256, 60, 64))
+                .valueFiles(new ValueFileStore(dir.toString(), 1 << 20))
+                .membership(new MembershipFilter(1024, 0.01))
+                .changes(feed)
+                .build();
+        try {
+            RecordingListener palindromes = new RecordingListener();
+            List<ChangeFeed.Subscription> subscriptions = new ArrayList<>();
+            subscriptions.add(s.subscribeChanges(true, null, null, null, null, null, null, palindromes));
+            s.create("racecar");
+            s.create("not one");
+            s.deleteByValue("racecar");
+            List<String> events = palindromes.await(2);
+            assertEquals(List.of("created racecar", "deleted racecar"), events.subList(0, 2));
+
+            // Resuming after the create replays what followed it, filter applied again
+            String afterCreate = palindromes.ids.get(0);
+            RecordingListener resumed = new RecordingListener();
+            subscriptions.add(s.subscribeChanges(null, null, null, null, null, null, afterCreate, resumed));
+            assertEquals(List.of("created not one", "deleted racecar"), resumed.await(2).subList(0, 2));
+
+            // Past the 8-event history, or from another run, the client has to re-list
+            for (int i = 0; i < 10; i++) s.create("filler " + i);
+            RecordingListener stale = new RecordingListener();
+            subscriptions.add(s.subscribeChanges(null, null, null, null, null, null, afterCreate, stale));
+            assertEquals("reset", stale.await(1).get(0));
+            RecordingListener otherRun = new RecordingListener();
+            subscriptions.add(s.subscribeChanges(null, null, null, null, null, null, "0abc.1", otherRun));
+            assertEquals("reset", otherRun.await(1).get(0));
+            assertThrows(IllegalArgumentException.class,
+                    () -> s.subscribeChanges(null, null, null, null, null, null, "nope", new RecordingListener()));
+
+            subscriptions.forEach(ChangeFeed.Subscription::cancel);
+            assertEquals(0, feed.getSubscribers());
+
+            // A client stuck on its socket is dropped once 4 events queue up; writers don't wait
+            long overflows = feed.getOverflows();
+            RecordingListener stuck = new RecordingListener();
+            stuck.blocked.acquire();
+            s.subscribeChanges(null, null, null, null, null, null, null, stuck);
+            s.create("first");
+            long start = System.nanoTime();
+            for (int i = 0; i < 20; i++) s.create("burst " + i);
+            assertTrue(System.nanoTime() - start < 1_000_000_000L);
+            stuck.blocked.release();
+            List<String> seen = stuck.awaitClosed();
+            assertEquals("overflow", seen.get(seen.size() - 1));
+            assertEquals(overflows + 1, feed.getOverflows());
+        } finally {
+            feed.close();
+        }
+    }
+
+    @Test
+    public void changeFeedHistoryIsCappedByBytes(@TempDir Path dir) throws Exception {
+        // Room for 8 events by count, but for little more than one of these by size
+        ChangeFeed feed = new ChangeFeed(8, 2_000, 16, 16, 1);
+        StringService s = StringService.builder()
+                .filterCache(new FilterResultCache(256, 60, 64))
+                .valueFiles(new ValueFileStore(dir.toString(), 1 << 20))
+                .membership(new MembershipFilter(1024, 0.01))
+                .changes(feed)
+                .build();
+        try {
+            RecordingListener live = new RecordingListener();
+            ChangeFeed.Subscription subscription = s.subscribeChanges(null, null, null, null, null, null, null, live);
+            for (int i = 0; i < 4; i++) s.create(i + " " + "x".repeat(600));
+            live.await(4);
+            subscription.cancel();
+
+            // The newest events are still there to resume from; the oldest were dropped
+            RecordingListener recent = new RecordingListener();
+            s.subscribeChanges(null, null, null, null, null, null, live.ids.get(2), recent);
+            assertEquals("created 3 " + "x".repeat(600), recent.await(1).get(0));
+            RecordingListener old = new RecordingListener();
+            s.subscribeChanges(null, null, null, null, null, null, live.ids.get(0), old);
+            assertEquals("reset", old.await(1).get(0));
+        } finally {
+            feed.close();
+        }
+    }
+
+    @Test
+    public void asyncIngestQueuesAndRejectsWhenFull() throws Exception {
+        CountDownLatch analyzing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SinglePassStringAnalyzer scalar = new SinglePassStringAnalyzer();
+        StringService s = StringService.builder().analyzer((value, sha) -> {
+            analyzing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return scalar.analyze(value, sha);
+        }).build();
+        AsyncIngestService ingest = new AsyncIngestService(s, 2, 1, 1, 16);
+        try {
+            String first = ingest.submit("queued one").id();
+            // The worker holds the first value; the next two fill the queue and the fourth is turned away
+            assertTrue(analyzing.await(5, TimeUnit.SECONDS));
+            assertEquals(AsyncIngestService.State.PENDING, ingest.submit("queued two").state());
+            ingest.submit("queued three");
+            assertThrows(RejectedExecutionException.class, () -> ingest.submit("queued four"));
+            assertEquals(1, ingest.getRejected());
+            // Resubmitting a pending value is not queued again
+            assertEquals(first, ingest.submit("queued one").id());
+
+            release.countDown();
+            StringId three = HashUtils.sha256("queued three");
+            for (long deadline = System.nanoTime() + 5_000_000_000L; System.nanoTime() < deadline
+                    && ingest.status(three).state() == AsyncIngestService.State.PENDING; ) {
+                Thread.sleep(5);
+            }
+            assertEquals(AsyncIngestService.State.CREATED, ingest.status(three).state());
+            assertEquals(AsyncIngestService.State.CREATED, ingest.status(StringId.fromHex(first)).state());
+            assertNotNull(s.getByValue("queued two"));
+            assertThrows(IllegalStateException.class, () -> ingest.submit("queued two"));
+            assertNull(ingest.status(HashUtils.sha256("queued four")));
+        } finally {
+            release.countDown();
+            ingest.shutdown();
+        }
+    }
+
+    @Test
+    public void asyncIngestNeverForgetsPendingValues() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        SinglePassStringAnalyzer scalar = new SinglePassStringAnalyzer();
+        StringService s = StringService.builder().analyzer((value, sha) -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return scalar.analyze(value, sha);
+        }).build();
+        // status-capacity=1 is raised to the 4 queued values plus the one being analyzed
+        AsyncIngestService ingest = new AsyncIngestService(s, 4, 1, 1, 1);
+        try {
+            List<StringId> ids = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                String value = "pending " + i;
+                for (long deadline = System.nanoTime() + 5_000_000_000L; ; Thread.sleep(5)) {
+                    try {
+                        ingest.submit(value);
+                        break;
+                    } catch (RejectedExecutionException e) {
+                        // The worker hasn't taken the first value off the queue yet
+                        assertTrue(System.nanoTime() < deadline);
+                    }
+                }
+                ids.add(HashUtils.sha256(value));
+            }
+            for (StringId id : ids) assertEquals(AsyncIngestService.State.PENDING, ingest.status(id).state());
+
+            release.countDown();
+            for (long deadline = System.nanoTime() + 5_000_000_000L; System.nanoTime() < deadline
+                    && ingest.status(ids.get(4)).state() == AsyncIngestService.State.PENDING; ) {
+                Thread.sleep(5);
+            }
+            for (StringId id : ids) assertEquals(AsyncIngestService.State.CREATED, ingest.status(id).state());
+        } finally {
+            release.countDown();
+            ingest.shutdown();
+        }
+    }
+
+    // Collects "<type> <value>" per event; blocked holds the sender inside event() while taken
+    private static class RecordingListener implements ChangeFeed.Listener {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final List<String> ids = new CopyOnWriteArrayList<>();
+        final Semaphore blocked = new Semaphore(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+
+        @Override
+        public void event(String id, ChangeFeed.Event event) throws IOException {
+            blocked.acquireUninterruptibly();
+            blocked.release();
+            ids.add(id);
+            events.add(event.type().name().toLowerCase() + " " + event.value());
+        }
+
+        @Override
+        public void reset(String id) {
+            events.add("reset");
+        }
+
+        @Override
+        public void heartbeat(String id) {
+        }
+
+        @Override
+        public void overflowed(String id) {
+            events.add("overflow");
+        }
+
+        @Override
+        public void closed() {
+            closed.countDown();
+        }
+
+        List<String> await(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (events.size() < count && System.nanoTime() < deadline) Thread.sleep(5);
+            return events;
+        }
+
+        List<String> awaitClosed() throws InterruptedException {
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+            return events;
+        }
+    }
 }
@@ -0,0 +1,121 @@
+package com.example.String_Analysis.stringAnalyzer;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.service.StringService;
+import com.example.String_Analysis.store.ColumnarStringStore;
+import com.example.String_Analysis.store.ObjectStringStore;
+import com.example.String_Analysis.store.StringStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Many threads creating, deleting and reading the same few values at once
+public class StringStoreStressTests {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void concurrentCreatesOfSameValueSucceedOnce() throws Exception {
+        for (Supplier<StringStore> store : stores()) {
+            StringService s = StringService.builder().store(store.get()).build();
+            int values = 200;
+            AtomicIntegerArray created = new AtomicIntegerArray(values);
+            AtomicInteger conflicts = new AtomicInteger();
+
+            runConcurrently(() -> {
+                for (int i = 0; i < values; i++) {
+                    try {
+                        s.create("value " + i);
+                        created.incrementAndGet(i);
+                    } catch (IllegalStateException e) {
+                        conflicts.incrementAndGet();
+                    }
+                }
+            });
+
+            for (int i = 0; i < values; i++) assertEquals(1, created.get(i), "value " + i);
+            assertEquals(values * (THREADS - 1), conflicts.get());
+            assertEquals(values, s.listAll().size());
+            assertEquals(values, s.filter(null, null, null, null, null).size());
+        }
+    }
+
+    @Test
+    public void mixedCreateDeleteAndReadsStayConsistent() throws Exception {
+        for (Supplier<StringStore> store : stores()) {
+            StringService s = StringService.builder().store(store.get()).build();
+            int values = 16;
+            AtomicIntegerArray balance = new AtomicIntegerArray(values);
+
+            runConcurrently(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int n = 0; n < 5_000; n++) {
+                    int i = random.nextInt(values);
+                    String value = "racecar " + i;
+                    switch (random.nextInt(3)) {
+                        case 0 -> {
+                            try {
+                                s.create(value);
+                                balance.incrementAndGet(i);
+                            } catch (IllegalStateException e) {
+                                // someone else holds it
+                            }
+                        }
+                        case 1 -> {
+                            if (s.deleteByValue(value) != null) balance.decrementAndGet(i);
+                        }
+                        default -> {
+                            AnalyzedString found = s.getByValue(value);
+                            if (found != null) assertEquals(value, found.getValue());
+                        }
+                    }
+                }
+            });
+
+            int present = 0;
+            for (int i = 0; i < values; i++) {
+                int b = balance.get(i);
+                assertTrue(b == 0 || b == 1, "value " + i + " balance " + b);
+                assertEquals(b == 1, s.getByValue("racecar " + i) != null, "value " + i);
+                present += b;
+            }
+            assertEquals(present, s.listAll().size());
+            assertEquals(present, s.filter(null, null, null, null, null).size());
+            assertEquals(present, s.filter(null, null, null, 2, null).size());
+        }
+    }
+
+    private static List<Supplier<StringStore>> stores() {
+        return List.of(ObjectStringStore::new, ColumnarStringStore::new);
+    }
+
+    private static void runConcurrently(Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.String_Analysis.analysis;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API loops over the ISO-8859-1 bytes of a Latin-1 value, one byte per lane. Only
+// VectorStringAnalyzer touches this class, and only once it knows jdk.incubator.vector is
+// present, so nothing here is loaded otherwise.
+//
+// Bytes are signed in lanes: 0x80-0xFF compare as negative numbers, which the ranges below
+// account for.
+final class LatinVectorKernels {
+
+    static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final VectorShuffle<Byte> REVERSE =
+            VectorShuffle.fromOp(SPECIES, i -> SPECIES.length() - 1 - i);
+
+    private LatinVectorKernels() {
+    }
+
+    // Character.toLowerCase over Latin-1: A-Z and À-Þ except × gain 0x20, nothing else changes
+    static ByteVector toLowerCase(ByteVector v) {
+        VectorMask<Byte> upper = v.compare(VectorOperators.GE, (byte) 'A').and(v.compare(VectorOperators.LE, (byte) 'Z'));
+        VectorMask<Byte> latinUpper = v.compare(VectorOperators.GE, (byte) 0xC0)
+                .and(v.compare(VectorOperators.LE, (byte) 0xDE))
+                .and(v.compare(VectorOperators.NE, (byte) 0xD7));
+        return v.lanewise(VectorOperators.OR, (byte) 0x20, upper.or(latinUpper));
+    }
+
+    // True if getBytes(ISO_8859_1) replaced some char of value with '?', i.e. value is not Latin-1
+    static boolean hasReplacements(byte[] bytes, String value) {
+        int n = bytes.length;
+        int i = 0;
+        for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+            VectorMask<Byte> question = ByteVector.fromArray(SPECIES, bytes, i).compare(VectorOperators.EQ, (byte) '?');
+            if (question.anyTrue()) {
+                for (int j = i + question.firstTrue(), end = i + SPECIES.length(); j < end; j++) {
+                    if (bytes[j] == '?' && value.charAt(j) != '?') return true;
+                }
+            }
+        }
+        for (; i < n; i++) {
+            if (bytes[i] == '?' && value.charAt(i) != '?') return true;
+        }
+        return false;
+    }
+
+    // Case-insensitive palindrome check: lanes from the front against reversed lanes from the back
+    static boolean isPalindrome(byte[] bytes, byte[] fold) {
+        int n = bytes.length;
+        int half = n / 2;
+        int lanes = SPECIES.length();
+        int i = 0;
+        for (; i + lanes <= half; i += lanes) {
+            ByteVector front = toLowerCase(ByteVector.fromArray(SPECIES, bytes, i));
+            ByteVector back = toLowerCase(ByteVector.fromArray(SPECIES, bytes, n - i - lanes).rearrange(REVERSE));
+            if (front.compare(VectorOperators.NE, back).anyTrue()) return false;
+        }
+        for (; i < half; i++) {
+            if (fold[bytes[i] & 0xFF] != fold[bytes[n - 1 - i] & 0xFF]) return false;
+        }
+        return true;
+    }
+
+    // Runs of non-\s bytes, i.e. value.trim().split("\\s+").length, or -1 if the value holds
+    // control chars other than \s (trim() strips those too, so WordCounter has to decide)
+    static int countWords(byte[] bytes) {
+        int n = bytes.length;
+        if (n == 0) return 0;
+        if (isControl(bytes[0])) return -1;
+        int words = isSpace(bytes[0]) ? 0 : 1;
+        int i = 1;
+        for (int bound = SPECIES.loopBound(n - 1) + 1; i < bound; i += SPECIES.length()) {
+            ByteVector cur = ByteVector.fromArray(SPECIES, bytes, i);
+            VectorMask<Byte> curSpace = space(cur);
+            if (cur.compare(VectorOperators.GE, (byte) 0).and(cur.compare(VectorOperators.LT, (byte) ' '))
+                    .andNot(curSpace).anyTrue()) {
+                return -1;
+            }
+            // A word starts wherever a non-space follows a space
+            VectorMask<Byte> prevSpace = space(ByteVector.fromArray(SPECIES, bytes, i - 1));
+            words += prevSpace.andNot(curSpace).trueCount();
+        }
+        for (; i < n; i++) {
+            if (isControl(bytes[i])) return -1;
+            if (!isSpace(bytes[i]) && isSpace(bytes[i - 1])) words++;
+        }
+        return words;
+    }
+
+    // Unrolled over four tables so consecutive equal bytes don't serialize on one counter
+    static void histogram(byte[] bytes, int[] tables, int[] counts) {
+        int n = bytes.length;
+        int i = 0;
+        for (; i + 4 <= n; i += 4) {
+            tables[bytes[i] & 0xFF]++;
+            tables[256 + (bytes[i + 1] & 0xFF)]++;
+            tables[512 + (bytes[i + 2] & 0xFF)]++;
+            tables[768 + (bytes[i + 3] & 0xFF)]++;
+        }
+        for (; i < n; i++) tables[bytes[i] & 0xFF]++;
+        for (int c = 0; c < 256; c++) {
+            counts[c] = tables[c] + tables[256 + c] + tables[512 + c] + tables[768 + c];
+        }
+    }
+
+    // \s: space, \t, \n, \u000B, \f, \r
+    private static VectorMask<Byte> space(ByteVector v) {
+        return v.compare(VectorOperators.EQ, (byte) ' ')
+                .or(v.compare(VectorOperators.GE, (byte) '\t').and(v.compare(VectorOperators.LE, (byte) '\r')));
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r');
+    }
+
+    private static boolean isControl(byte b) {
+        return b >= 0 && b < ' ' && !isSpace(b);
+    }
+}
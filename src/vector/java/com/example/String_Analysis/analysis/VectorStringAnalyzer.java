@@ -0,0 +1,107 @@
+package com.example.String_Analysis.analysis;
+
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Analyzer for string-analyzer.analysis.vector=true. Long Latin-1 values are analyzed over
+// their ISO-8859-1 bytes with Vector API kernels (LatinVectorKernels): palindrome halves and
+// word boundaries are compared a vector of bytes at a time, with case folded in lanes. Results
+// are the same as SinglePassStringAnalyzer's, which handles everything else: short values,
+// values with chars above U+00FF, and all values when the JVM runs without
+// --add-modules jdk.incubator.vector.
+@Component
+@ConditionalOnProperty(name = "string-analyzer.analysis.vector", havingValue = "true")
+public class VectorStringAnalyzer implements StringAnalyzer {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorStringAnalyzer.class);
+
+    // Below this the scalar loop wins: the byte copy and vector setup cost more than they save
+    static final int MIN_VECTOR_LENGTH = 256;
+
+    private static final boolean AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    // Character.toLowerCase for every Latin-1 char
+    private static final byte[] FOLD = new byte[256];
+
+    static {
+        for (int c = 0; c < FOLD.length; c++) FOLD[c] = (byte) Character.toLowerCase((char) c);
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    private final SinglePassStringAnalyzer scalar = new SinglePassStringAnalyzer();
+
+    public VectorStringAnalyzer() {
+        if (AVAILABLE) {
+            log.info("Vectorized analysis enabled ({}-byte vectors)", LatinVectorKernels.SPECIES.vectorByteSize());
+        } else {
+            log.warn("string-analyzer.analysis.vector=true, but the JVM was started without "
+                    + "--add-modules jdk.incubator.vector; using scalar analysis");
+        }
+    }
+
+    // Whether analyze() uses the vector kernels at all in this JVM
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    @Override
+    public AnalyzedString.Properties analyze(String value, StringId sha256Hash) {
+        if (!AVAILABLE || value.length() < MIN_VECTOR_LENGTH) return scalar.analyze(value, sha256Hash);
+        // A plain copy for Latin-1 strings; anything else comes back with '?' for the chars it can't map
+        byte[] bytes = value.getBytes(StandardCharsets.ISO_8859_1);
+        if (LatinVectorKernels.hasReplacements(bytes, value)) return scalar.analyze(value, sha256Hash);
+
+        int words = LatinVectorKernels.countWords(bytes);
+        if (words < 0) {
+            SinglePassStringAnalyzer.WordCounter counter = new SinglePassStringAnalyzer.WordCounter();
+            for (byte b : bytes) counter.accept((char) (b & 0xFF));
+            words = counter.finish();
+        }
+        boolean palindrome = LatinVectorKernels.isPalindrome(bytes, FOLD);
+
+        Scratch scratch = SCRATCH.get();
+        int[] raw = scratch.raw;
+        int[] lower = scratch.lower;
+        try {
+            LatinVectorKernels.histogram(bytes, scratch.tables, raw);
+            int unique = 0;
+            for (int c = 0; c < 256; c++) {
+                if (raw[c] == 0) continue;
+                int lc = FOLD[c] & 0xFF;
+                if (lower[lc] == 0) unique++;
+                lower[lc] += raw[c];
+            }
+            // Keys in order of first occurrence, like the scalar analyzer; stops once all are seen
+            Map<String, Integer> freq = new LinkedHashMap<>((int) (unique / 0.75f) + 1);
+            boolean[] seen = scratch.seen;
+            for (int i = 0; freq.size() < unique; i++) {
+                int lc = FOLD[bytes[i] & 0xFF] & 0xFF;
+                if (seen[lc]) continue;
+                seen[lc] = true;
+                freq.put(SinglePassStringAnalyzer.LATIN1_KEYS[lc], lower[lc]);
+            }
+            return new AnalyzedString.Properties(value.length(), palindrome, unique, words, sha256Hash, freq);
+        } finally {
+            Arrays.fill(scratch.tables, 0);
+            Arrays.fill(lower, 0);
+            Arrays.fill(scratch.seen, false);
+        }
+    }
+
+    private static final class Scratch {
+        final int[] tables = new int[4 * 256];
+        final int[] raw = new int[256];
+        final int[] lower = new int[256];
+        final boolean[] seen = new boolean[256];
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.String_Analysis.benchmark;
+
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.analysis.StringAnalyzer;
+import com.example.String_Analysis.analysis.VectorStringAnalyzer;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Scalar vs Vector API analysis of long Latin-1 values. Palindromes make both analyzers compare
+// every pair of halves instead of stopping at the first mismatch.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorAnalyzeBenchmark {
+
+    @Param({"1024", "65536", "1048576", "10485760"})
+    public int size;
+
+    @Param({"ascii", "latin1"})
+    public String alphabet;
+
+    @Param({"false", "true"})
+    public boolean palindrome;
+
+    private static final StringId SHA = new StringId(0, 0, 0, 0);
+
+    private final StringAnalyzer scalar = new SinglePassStringAnalyzer();
+    private final StringAnalyzer vector = new VectorStringAnalyzer();
+    private String value;
+
+    @Setup
+    public void setup() {
+        if (!VectorStringAnalyzer.isAvailable()) throw new IllegalStateException("jdk.incubator.vector is missing");
+        if (palindrome) {
+            String half = BenchmarkData.text(new Random(1), alphabet, size / 2);
+            value = half + new StringBuilder(half).reverse();
+        } else {
+            value = BenchmarkData.text(new Random(1), alphabet, size);
+        }
+    }
+
+    @Benchmark
+    public AnalyzedString.Properties scalar() {
+        return scalar.analyze(value, SHA);
+    }
+
+    @Benchmark
+    public AnalyzedString.Properties vector() {
+        return vector.analyze(value, SHA);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.String_Analysis.stringAnalyzer;
+
+import com.example.String_Analysis.analysis.SinglePassStringAnalyzer;
+import com.example.String_Analysis.analysis.StringAnalyzer;
+import com.example.String_Analysis.analysis.VectorStringAnalyzer;
+import com.example.String_Analysis.model.AnalyzedString;
+import com.example.String_Analysis.model.StringId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Built and run with mvn -Pvector only, like the analyzer itself
+public class VectorStringAnalyzerTests {
+
+    private static final StringId SHA = new StringId(0, 0, 0, 0);
+
+    private final StringAnalyzer analyzer = new SinglePassStringAnalyzer();
+
+    @Test
+    public void vectorAnalyzerMatchesScalarAnalyzer() {
+        // The vector profile runs surefire with --add-modules jdk.incubator.vector
+        assertTrue(VectorStringAnalyzer.isAvailable());
+        StringAnalyzer vector = new VectorStringAnalyzer();
+        Random random = new Random(11);
+        List<String> inputs = new ArrayList<>();
+        String allLatin1 = "abcABCxyzXYZ ?\t\n\u000B\f\r\u0001\u001F\u007F\u0085\u00A0×÷ßÿµÀÞàþ";
+        for (int i = 0; i < 600; i++) {
+            int length = 200 + random.nextInt(i < 500 ? 3000 : 70_000);
+            StringBuilder sb = new StringBuilder(length);
+            int mode = i % 4;
+            for (int j = 0; j < length; j++) {
+                sb.append(switch (mode) {
+                    case 0 -> (char) random.nextInt(256);
+                    case 1 -> allLatin1.charAt(random.nextInt(allLatin1.length()));
+                    case 2 -> "ab cd".charAt(random.nextInt(5));
+                    default -> (char) ('a' + random.nextInt(3));
+                });
+            }
+            String value = sb.toString();
+            if (i % 3 == 0) {
+                // Palindromes, with case flipped on one side where Latin-1 allows it
+                StringBuilder mirrored = new StringBuilder(value).reverse();
+                for (int j = 0; j < mirrored.length(); j++) {
+                    char upper = Character.toUpperCase(mirrored.charAt(j));
+                    if (upper <= 0xFF && random.nextBoolean()) mirrored.setCharAt(j, upper);
+                }
+                value = value + (i % 2 == 0 ? "" : "x") + mirrored;
+            }
+            if (i % 50 == 7) {
+                // One char outside Latin-1, and a '?' that is really there
+                int at = random.nextInt(value.length());
+                value = value.substring(0, at) + (i % 100 == 7 ? "?" : "Σ") + value.substring(at);
+            }
+            inputs.add(value);
+        }
+
+        for (String input : inputs) {
+            AnalyzedString.Properties expected = analyzer.analyze(input, SHA);
+            AnalyzedString.Properties actual = vector.analyze(input, SHA);
+            String label = "input of length " + input.length();
+            assertEquals(expected.getLength(), actual.getLength(), label);
+            assertEquals(expected.isIs_palindrome(), actual.isIs_palindrome(), label);
+            assertEquals(expected.getUnique_characters(), actual.getUnique_characters(), label);
+            assertEquals(expected.getWord_count(), actual.getWord_count(), label);
+            assertEquals(new ArrayList<>(expected.getCharacter_frequency_map().entrySet()),
+                    new ArrayList<>(actual.getCharacter_frequency_map().entrySet()), label);
+        }
+        assertTrue(inputs.stream().filter(v -> vector.analyze(v, SHA).isIs_palindrome()).count() > 100);
+    }
+}